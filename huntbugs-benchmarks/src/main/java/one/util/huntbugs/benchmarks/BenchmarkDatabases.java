@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.benchmarks;
+
+import java.util.function.Function;
+
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.assembler.metadata.TypeReference;
+
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.db.FieldStats;
+import one.util.huntbugs.db.MethodStats;
+import one.util.huntbugs.flow.ClassFields;
+import one.util.huntbugs.registry.DatabaseRegistry;
+import one.util.huntbugs.registry.RegistryTestSupport;
+
+/**
+ * Type databases required to build the values flow, populated with the
+ * fixture types
+ */
+public class BenchmarkDatabases {
+    private final Function<TypeReference, FieldStats> fieldStats;
+    private final Function<TypeReference, MethodStats> methodStats;
+
+    public BenchmarkDatabases(Context ctx, Iterable<TypeDefinition> types) {
+        DatabaseRegistry registry = new DatabaseRegistry(ctx);
+        fieldStats = registry.queryDatabase(FieldStats.class);
+        methodStats = registry.queryDatabase(MethodStats.class);
+        types.forEach(td -> RegistryTestSupport.visitType(registry, td));
+    }
+
+    public ClassFields createClassFields(TypeDefinition td) {
+        return new ClassFields(td, fieldStats.apply(td), methodStats.apply(td));
+    }
+}
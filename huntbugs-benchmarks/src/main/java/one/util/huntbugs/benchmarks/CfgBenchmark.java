@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.decompiler.ast.Block;
+
+import one.util.huntbugs.flow.CFG;
+
+/**
+ * Building the control flow graphs ({@link CFG#build}) for the prebuilt ASTs
+ * of all the fixture methods
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CfgBenchmark {
+    private final List<MethodDefinition> methods = new ArrayList<>();
+    private final List<Block> asts = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(Fixture fixture) {
+        for (TypeDefinition td : fixture.types) {
+            for (MethodDefinition md : fixture.methods(td)) {
+                methods.add(md);
+                asts.add(Fixture.buildAst(md));
+            }
+        }
+    }
+
+    @Benchmark
+    public void buildCfg(Blackhole bh) {
+        for (int i = 0; i < methods.size(); i++) {
+            bh.consume(CFG.build(methods.get(i), asts.get(i)));
+        }
+    }
+}
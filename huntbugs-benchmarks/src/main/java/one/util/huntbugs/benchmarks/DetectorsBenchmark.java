@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.strobel.assembler.metadata.TypeDefinition;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.registry.DatabaseRegistry;
+import one.util.huntbugs.registry.DetectorRegistry;
+import one.util.huntbugs.registry.RegistryTestSupport;
+
+/**
+ * Dispatch of the fixture methods to the method and AST visitors of all the
+ * detectors ({@code visitChildren}). The databases are populated and the
+ * ASTs, CFGs and values flow are built in advance, as they are measured
+ * separately by {@code AstBenchmark}, {@code CfgBenchmark} and
+ * {@code ValuesFlowBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class DetectorsBenchmark {
+    private final List<Runnable> visitors = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(Fixture fixture) {
+        Context ctx = new Context(fixture.repository, new AnalysisOptions());
+        ctx.setWarningSink(warning -> {
+            // discard
+        });
+        DetectorRegistry registry = new DetectorRegistry(ctx);
+        DatabaseRegistry.Shard shard = registry.createDatabaseShard();
+        for (TypeDefinition td : fixture.types) {
+            registry.populateDatabases(shard, td);
+        }
+        registry.mergeDatabases(shard);
+        for (TypeDefinition td : fixture.types) {
+            visitors.add(RegistryTestSupport.prepareMethodVisitors(ctx, registry, td));
+        }
+    }
+
+    @Benchmark
+    public void visitMethods() {
+        for (Runnable visitor : visitors) {
+            visitor.run();
+        }
+    }
+}
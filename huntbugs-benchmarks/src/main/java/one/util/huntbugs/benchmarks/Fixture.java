@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.benchmarks;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.CompositeTypeLoader;
+import com.strobel.assembler.metadata.ITypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.assembler.metadata.TypeReference;
+import com.strobel.decompiler.DecompilerContext;
+import com.strobel.decompiler.ast.AstBuilder;
+import com.strobel.decompiler.ast.AstOptimizationStep;
+import com.strobel.decompiler.ast.AstOptimizer;
+import com.strobel.decompiler.ast.Block;
+
+import one.util.huntbugs.HuntBugs;
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.repo.DirRepository;
+import one.util.huntbugs.repo.JarRepository;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.repo.RepositoryVisitor;
+
+/**
+ * Classes to run the benchmarks on. The fixture is either one of the
+ * predefined class sets or a path to the jar or directory, e.g.
+ * {@code -p fixture=/path/to/app.jar}.
+ */
+@State(Scope.Benchmark)
+public class Fixture {
+    /**
+     * "testdata" (HuntBugs test data classes), "huntbugs" (HuntBugs itself),
+     * "procyon" (Procyon compiler tools) or path to the jar or directory
+     */
+    @Param({ "testdata", "procyon" })
+    public String fixture;
+
+    /**
+     * Maximal number of classes to take from the fixture
+     */
+    @Param("500")
+    public int maxClasses;
+
+    public Repository repository;
+    public String rootPackage;
+    public ITypeLoader loader;
+    public final List<String> classNames = new ArrayList<>();
+    public final List<TypeDefinition> types = new ArrayList<>();
+    private final Map<TypeDefinition, List<MethodDefinition>> methods = new IdentityHashMap<>();
+    private JarFile jar;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path path;
+        switch (fixture) {
+        case "testdata":
+            path = location(loadClass("one.util.huntbugs.testdata.TestNullCheck"));
+            rootPackage = "one/util/huntbugs/testdata";
+            break;
+        case "huntbugs":
+            path = location(HuntBugs.class);
+            rootPackage = "one/util/huntbugs";
+            break;
+        case "procyon":
+            path = location(AstBuilder.class);
+            rootPackage = "com/strobel";
+            break;
+        default:
+            path = Paths.get(fixture);
+            rootPackage = "";
+        }
+        if (Files.isDirectory(path)) {
+            repository = new DirRepository(path);
+        } else {
+            jar = new JarFile(path.toFile());
+            repository = new JarRepository(jar);
+        }
+        loader = new CompositeTypeLoader(new ClasspathTypeLoader(System.getProperty("sun.boot.class.path")),
+                repository.createTypeLoader());
+        Set<String> names = new TreeSet<>();
+        repository.visit(rootPackage, new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                return true;
+            }
+
+            @Override
+            public void visitClass(String className) {
+                names.add(className);
+            }
+        });
+        int maxMethodSize = new AnalysisOptions().maxMethodSize;
+        MetadataSystem ms = createMetadataSystem();
+        for (String name : names) {
+            if (classNames.size() == maxClasses)
+                break;
+            TypeReference tr = ms.lookupType(name);
+            TypeDefinition td = tr == null ? null : tr.resolve();
+            if (td == null)
+                continue;
+            classNames.add(name);
+            types.add(td);
+            List<MethodDefinition> typeMethods = new ArrayList<>();
+            methods.put(td, typeMethods);
+            for (MethodDefinition md : td.getDeclaredMethods()) {
+                MethodBody body = md.getBody();
+                if (body == null || body.getCodeSize() > maxMethodSize)
+                    continue;
+                try {
+                    buildAst(md);
+                } catch (Throwable t) {
+                    // Not decompilable: skip it to make the benchmark deterministic
+                    continue;
+                }
+                typeMethods.add(md);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (jar != null)
+            jar.close();
+    }
+
+    public MetadataSystem createMetadataSystem() {
+        return new MetadataSystem(loader);
+    }
+
+    /**
+     * @param td type to get the methods of
+     * @return methods of given fixture type having the bodies which can be
+     *         decompiled, in declaration order
+     */
+    public List<MethodDefinition> methods(TypeDefinition td) {
+        return methods.get(td);
+    }
+
+    /**
+     * Builds the optimized AST of the method body the same way as the
+     * analysis does
+     * 
+     * @param md method to build the AST for
+     * @return the method AST
+     */
+    public static Block buildAst(MethodDefinition md) {
+        DecompilerContext context = new DecompilerContext();
+        context.setCurrentMethod(md);
+        context.setCurrentType(md.getDeclaringType());
+        Block block = new Block();
+        block.getBody().addAll(AstBuilder.build(md.getBody(), true, context));
+        AstOptimizer.optimize(context, block, AstOptimizationStep.None);
+        return block;
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Test data classes are not on the class path", e);
+        }
+    }
+
+    private static Path location(Class<?> clazz) {
+        try {
+            return Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.output.Reports;
+import one.util.huntbugs.output.StreamingXmlReportWriter;
+import one.util.huntbugs.repo.FilteredRepository;
+
+/**
+ * Writing the report for the warnings found in the fixture classes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportsBenchmark {
+    /**
+     * "xml" or "html" for {@link Reports#write}, "xml-streaming" for
+     * {@link StreamingXmlReportWriter}
+     */
+    @Param({ "xml", "html", "xml-streaming" })
+    public String format;
+
+    private Context ctx;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp(Fixture fixture) throws IOException {
+        ctx = new Context(new FilteredRepository(fixture.repository, fixture.classNames::contains),
+                new AnalysisOptions());
+        ctx.analyzePackage(fixture.rootPackage);
+        target = Files.createTempFile("huntbugs-benchmark", format.equals("html") ? ".html" : ".xml");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        switch (format) {
+        case "xml":
+            Reports.write(target, null, ctx);
+            break;
+        case "html":
+            Reports.write(null, target, ctx);
+            break;
+        case "xml-streaming":
+            try (Writer writer = Files.newBufferedWriter(target)) {
+                StreamingXmlReportWriter xml = new StreamingXmlReportWriter(writer, ctx.getMessages());
+                ctx.warnings().forEach(xml::accept);
+                xml.finish(ctx.errors());
+            }
+            break;
+        default:
+            throw new IllegalArgumentException(format);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.flow.CFG;
+import one.util.huntbugs.flow.ClassFields;
+import one.util.huntbugs.flow.Fact;
+import one.util.huntbugs.flow.FactStore;
+import one.util.huntbugs.flow.FlowTestSupport;
+import one.util.huntbugs.flow.ValuesFlow;
+
+/**
+ * Values flow annotators for all the fixture methods. As during the analysis,
+ * the facts go to the {@link FactStore} of the method, constructors and type
+ * initializer sharing the store of their class. As the stores keep the facts
+ * once built, fresh stores, ASTs and CFGs are created before every
+ * invocation and the annotators preceding the measured one are applied to
+ * them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ValuesFlowBenchmark {
+    /**
+     * Annotator to measure (one of {@link Fact} names) or "ALL" to measure
+     * the whole {@link ValuesFlow#annotate} call
+     */
+    @Param({ "ALL", "SOURCE", "CONST", "ETYPE", "NULL", "PURITY", "BACKLINK" })
+    public String annotator;
+
+    private Context ctx;
+    private BenchmarkDatabases databases;
+    // Methods for which the values flow can be built, in analysis order
+    private final List<MethodDefinition> methods = new ArrayList<>();
+    private final List<MethodFlow> flows = new ArrayList<>();
+
+    private static class MethodFlow {
+        final MethodDefinition md;
+        final ClassFields cf;
+        final FactStore store;
+        final CFG cfg;
+
+        MethodFlow(MethodDefinition md, ClassFields cf, FactStore classStore) {
+            this.md = md;
+            this.cf = cf;
+            this.store = md.isSpecialName() ? classStore : new FactStore(classStore);
+            this.cfg = CFG.build(md, Fixture.buildAst(md));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUpTrial(Fixture fixture) {
+        ctx = new Context(null, new AnalysisOptions());
+        databases = new BenchmarkDatabases(ctx, fixture.types);
+        for (TypeDefinition td : fixture.types) {
+            ClassFields cf = databases.createClassFields(td);
+            FactStore classStore = new FactStore(null);
+            for (MethodDefinition md : sortMethods(fixture.methods(td))) {
+                MethodFlow flow = new MethodFlow(md, cf, classStore);
+                FactStore prev = FactStore.activate(flow.store);
+                try {
+                    ValuesFlow.annotate(ctx, md, cf, flow.cfg);
+                } catch (Throwable t) {
+                    continue;
+                } finally {
+                    FactStore.activate(prev);
+                }
+                methods.add(md);
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        flows.clear();
+        ClassFields cf = null;
+        FactStore classStore = null;
+        for (MethodDefinition md : methods) {
+            if (cf == null || flows.get(flows.size() - 1).md.getDeclaringType() != md.getDeclaringType()) {
+                cf = databases.createClassFields(md.getDeclaringType());
+                classStore = new FactStore(null);
+            }
+            MethodFlow flow = new MethodFlow(md, cf, classStore);
+            for (Fact fact : Fact.values()) {
+                if (annotator.equals("ALL") || fact.name().equals(annotator))
+                    break;
+                run(fact, flow);
+            }
+            flows.add(flow);
+        }
+    }
+
+    @Benchmark
+    public void annotate(Blackhole bh) {
+        Fact fact = annotator.equals("ALL") ? null : Fact.valueOf(annotator);
+        for (MethodFlow flow : flows) {
+            FactStore prev = FactStore.activate(flow.store);
+            try {
+                if (fact == null)
+                    bh.consume(ValuesFlow.annotate(ctx, flow.md, flow.cf, flow.cfg));
+                else
+                    FlowTestSupport.annotate(ctx, flow.cf, flow.cfg, fact);
+            } finally {
+                FactStore.activate(prev);
+            }
+        }
+    }
+
+    private void run(Fact fact, MethodFlow flow) {
+        FactStore prev = FactStore.activate(flow.store);
+        try {
+            FlowTestSupport.annotate(ctx, flow.cf, flow.cfg, fact);
+        } finally {
+            FactStore.activate(prev);
+        }
+    }
+
+    // Type initializer and constructors first, as during the analysis
+    private static List<MethodDefinition> sortMethods(List<MethodDefinition> methods) {
+        List<MethodDefinition> sorted = new ArrayList<>(methods);
+        sorted.sort(Comparator.comparingInt(md -> md.isTypeInitializer() ? 0 : md.isConstructor() ? 1 : 2));
+        return sorted;
+    }
+}
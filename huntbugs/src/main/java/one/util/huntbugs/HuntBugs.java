@@ -26,7 +26,6 @@ import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.jar.JarFile;
 import java.util.logging.LogManager;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -35,7 +34,6 @@ import java.util.stream.Stream;
 import com.strobel.assembler.metadata.ClasspathTypeLoader;
 import com.strobel.assembler.metadata.CompositeTypeLoader;
 import com.strobel.assembler.metadata.ITypeLoader;
-import com.strobel.assembler.metadata.JarTypeLoader;
 
 import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.analysis.Context;
@@ -44,8 +42,8 @@ import one.util.huntbugs.input.XmlReportReader;
 import one.util.huntbugs.output.Reports;
 import one.util.huntbugs.repo.AuxRepository;
 import one.util.huntbugs.repo.CompositeRepository;
-import one.util.huntbugs.repo.DirRepository;
-import one.util.huntbugs.repo.JarRepository;
+import one.util.huntbugs.repo.FatJarRepository;
+import one.util.huntbugs.repo.ParallelDirRepository;
 import one.util.huntbugs.repo.Repository;
 import one.util.huntbugs.warning.rule.CategoryRule;
 import one.util.huntbugs.warning.rule.CompositeRule;
@@ -68,6 +66,7 @@ public class HuntBugs {
     private void parseCommandLine(String[] args) {
         List<Repository> repos = new ArrayList<>();
         List<ITypeLoader> deps = new ArrayList<>();
+        List<Path> depJars = new ArrayList<>();
         List<Rule> rules = new ArrayList<>();
         for (String arg : args) {
             if (arg.equals("-lw")) {
@@ -122,7 +121,11 @@ public class HuntBugs {
                 }
             } else if(arg.startsWith("-A")){
                 try {
-                    glob(arg.substring(2)).map(this::createTypeLoader).forEach(deps::add);
+                    glob(arg.substring(2)).forEach(path -> {
+                        deps.add(createTypeLoader(path));
+                        if (!Files.isDirectory(path))
+                            depJars.add(path);
+                    });
                 } catch (IOException e) {
                     throw new IllegalArgumentException("Cannot open JAR file " + arg);
                 }
@@ -135,7 +138,7 @@ public class HuntBugs {
             }
         }
         if (!deps.isEmpty()) {
-            repos.add(new AuxRepository(new CompositeTypeLoader(deps.toArray(new ITypeLoader[0]))));
+            repos.add(new AuxRepository(new CompositeTypeLoader(deps.toArray(new ITypeLoader[0])), depJars));
         }
         if (!repos.isEmpty()) {
             repo = new CompositeRepository(repos);
@@ -148,7 +151,7 @@ public class HuntBugs {
 
     private Repository createRepository(Path path) {
         try {
-            return Files.isDirectory(path) ? new DirRepository(path) : new JarRepository(new JarFile(path.toFile()));
+            return Files.isDirectory(path) ? new ParallelDirRepository(path) : FatJarRepository.open(path);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -156,7 +159,8 @@ public class HuntBugs {
 
     private ITypeLoader createTypeLoader(Path path) {
         try {
-            return Files.isDirectory(path) ? new ClasspathTypeLoader(path.toString()) : new JarTypeLoader(new JarFile(path.toFile()));
+            return Files.isDirectory(path) ? new ClasspathTypeLoader(path.toString()) : FatJarRepository.open(path)
+                    .createTypeLoader();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
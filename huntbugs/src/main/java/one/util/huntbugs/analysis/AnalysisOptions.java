@@ -29,8 +29,18 @@ import one.util.huntbugs.warning.rule.Rule;
 public class AnalysisOptions {
     public boolean addBootClassPath = true;
     public int maxMethodSize = 8000;
-    public int classesPerFlush = 1000;
+    public int methodBudget = 200000;
+    public int timeout = 0;
+    public int classesPerFlush = 0;
+    public int maxHeapUsage = 70;
     public int minScore = 1;
+    public int threads = 1;
+    public int methodThreads = 1;
+    public int minParallelMethods = 100;
+    public String cacheDir = null;
+    public String snapshotDir = null;
+    public boolean timing = false;
+    public boolean interprocedural = false;
     private Rule rule = Rule.NULL;
 
     public void set(String name, String valueString) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.analysis;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooperative cancellation of the running analysis. The analysis checks the
+ * token between the classes as well as inside the long-running loops (values
+ * flow, AST visiting) and stops as soon as possible leaving the results
+ * incomplete. May be used from any thread.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+    // System.nanoTime() value when the analysis should be cancelled
+    private volatile long deadline;
+    private volatile boolean hasDeadline;
+
+    /**
+     * Requests the analysis to stop
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Requests the analysis to stop after given time from now
+     * 
+     * @param timeout time to wait
+     * @param unit unit of the timeout
+     */
+    public void cancelAfter(long timeout, TimeUnit unit) {
+        deadline = System.nanoTime() + unit.toNanos(timeout);
+        hasDeadline = true;
+    }
+
+    /**
+     * @return true if the analysis should stop
+     */
+    public boolean isCancelled() {
+        if (cancelled)
+            return true;
+        if (hasDeadline && System.nanoTime() - deadline >= 0) {
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+}
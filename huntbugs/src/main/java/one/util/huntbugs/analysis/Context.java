@@ -15,19 +15,41 @@
  */
 package one.util.huntbugs.analysis;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import com.strobel.assembler.ir.ConstantPool;
@@ -39,7 +61,9 @@ import com.strobel.assembler.metadata.MetadataSystem;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
 
+import one.util.huntbugs.registry.DatabaseRegistry;
 import one.util.huntbugs.registry.DetectorRegistry;
+import one.util.huntbugs.repo.MappedJarRepository;
 import one.util.huntbugs.repo.Repository;
 import one.util.huntbugs.repo.RepositoryVisitor;
 import one.util.huntbugs.warning.Messages;
@@ -51,8 +75,17 @@ import one.util.huntbugs.warning.WarningType;
  *
  */
 public class Context implements HuntBugsResult {
-    private final List<ErrorMessage> errors = Collections.synchronizedList(new ArrayList<>());
-    private final List<Warning> warnings = Collections.synchronizedList(new ArrayList<>());
+    private static final int DATABASE_CHUNK_SIZE = 64;
+
+    // Lock-free: errors may come from any thread which has no results buffer
+    private final Queue<ErrorMessage> errors = new ConcurrentLinkedQueue<>();
+    // Appended by the default sink on the thread driving the analysis only
+    private final List<Warning> warnings = new ArrayList<>();
+    // Lock-free: warnings from the threads which are neither workers nor the
+    // driving thread, passed to the sink by the driving thread
+    private final Queue<Warning> strayWarnings = new ConcurrentLinkedQueue<>();
+    // Thread running analyzePackage, null if the analysis is not running
+    private volatile Thread drivingThread;
     private final Set<String> missingClasses = ConcurrentHashMap.newKeySet();
     private final Set<String> classes = ConcurrentHashMap.newKeySet();
     private final DetectorRegistry registry;
@@ -61,19 +94,52 @@ public class Context implements HuntBugsResult {
     private int totalClasses = 0;
     private final AnalysisOptions options;
     private final List<AnalysisListener> listeners = new CopyOnWriteArrayList<>();
-    private final Map<String, Long> stat = new ConcurrentHashMap<>();
+    private final CancellationToken cancellation = new CancellationToken();
+    private final Map<String, LongAdder> stat = new ConcurrentHashMap<>();
+    // Keys updated for every class, warning or loaded type are registered in advance
+    private final LongAdder warningsStat = registerStat("Warnings");
+    private final LongAdder errorsStat = registerStat("InternalErrors");
+    private final LongAdder cacheHitsStat = registerStat("ResultCache");
+    private final LongAdder cacheTotalStat = registerStat("ResultCache.Total");
+    private final LongAdder loadedTypesStat = registerStat("ClassLoadingEfficiency");
+    private final LongAdder loadedTypesTotalStat = registerStat("ClassLoadingEfficiency.Total");
     private Messages msgs;
     private final ITypeLoader loader;
+    // Parallel mode only: worker state
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+    // Sequential mode only: worker state
+    private Worker mainWorker;
+    // Buffer for the results produced by the current thread (null if results go directly to the context)
+    private final ThreadLocal<Results> currentResults = new ThreadLocal<>();
+    // Not null when the methods of the single class may be prepared concurrently
+    private ExecutorService methodExecutor;
+    private ResultCache resultCache;
+    private WarningSink sink = warnings::add;
+    // Not null when timings are collected
+    private final Timings timings;
 
     public Context(Repository repository, AnalysisOptions options) {
         this.options = options;
+        this.timings = options.timing ? new Timings() : null;
         registry = new DetectorRegistry(this);
         this.repository = repository == null ? Repository.createNullRepository() : repository;
+        this.loader = createTypeLoader();
+    }
+    
+    private ITypeLoader createTypeLoader() {
+        return createTypeLoader(options.addBootClassPath);
+    }
+
+    private ITypeLoader createTypeLoader(boolean addBootClassPath) {
         ITypeLoader loader = this.repository.createTypeLoader();
-        if (options.addBootClassPath) {
-            loader = new CompositeTypeLoader(new ClasspathTypeLoader(System.getProperty("sun.boot.class.path")), loader);
+        if (addBootClassPath) {
+            loader = new CompositeTypeLoader(createBootTypeLoader(), loader);
         }
-        this.loader = loader;
+        return loader;
+    }
+
+    private ITypeLoader createBootTypeLoader() {
+        return new ClasspathTypeLoader(System.getProperty("sun.boot.class.path"));
     }
     
     @Override
@@ -88,19 +154,70 @@ public class Context implements HuntBugsResult {
         return options;
     }
 
+    /**
+     * Sets the receiver of the analysis warnings. Warnings passed to the
+     * custom sink are not retained, thus {@link #warnings()} will not return
+     * them.
+     * 
+     * @param sink sink to stream the warnings into
+     */
+    public void setWarningSink(WarningSink sink) {
+        this.sink = Objects.requireNonNull(sink);
+    }
+
     public void addListener(AnalysisListener listener) {
         listeners.add(listener);
     }
 
+    /**
+     * @return token which can be used to cancel the analysis from any thread.
+     *         Cancel requested by {@link AnalysisListener} is propagated to
+     *         this token as well.
+     */
+    public CancellationToken getCancellation() {
+        return cancellation;
+    }
+
+    /**
+     * @return true if the analysis was cancelled, so its results are
+     *         incomplete
+     */
+    public boolean isCancelled() {
+        return cancellation.isCancelled();
+    }
+
+    @Override
+    public boolean isIncomplete() {
+        return isCancelled();
+    }
+
     boolean fireEvent(String stepName, String className, int step, int total) {
+        if (cancellation.isCancelled())
+            return false;
         for (AnalysisListener listener : listeners) {
-            if (!listener.eventOccurred(stepName, className, step, total))
+            if (!listener.eventOccurred(stepName, className, step, total)) {
+                cancellation.cancel();
                 return false;
+            }
         }
         return true;
     }
 
     public void analyzePackage(String name) {
+        if (options.timeout > 0)
+            cancellation.cancelAfter(options.timeout, TimeUnit.SECONDS);
+        drivingThread = Thread.currentThread();
+        try {
+            analyzePackage0(name);
+        } finally {
+            drivingThread = null;
+            sinkStrayWarnings();
+            if (cancellation.isCancelled())
+                incStat("Cancelled");
+        }
+    }
+
+    private void analyzePackage0(String name) {
         if (!fireEvent("Preparing", null, 0, 0))
             return;
         Set<String> classes = new TreeSet<>();
@@ -116,54 +233,56 @@ public class Context implements HuntBugsResult {
             }
         });
         totalClasses = classes.size();
-        if(registry.hasDatabases()) {
-            if(!preparingClasses(classes))
-                return;
+        try {
+            if(registry.hasDatabases()) {
+                if(!preparingClasses(classes))
+                    return;
+                if(options.interprocedural)
+                    completingDatabases();
+            }
+            analyzingClasses(classes);
+        } finally {
+            repository.setReadOrder(Collections.emptyList());
         }
-        analyzingClasses(classes);
     }
 
     private boolean preparingClasses(Set<String> classes) {
-        MetadataSystem ms = createMetadataSystem();
+        if (options.threads > 1 && registry.canPopulateDatabasesInParallel())
+            return preparingClassesParallel(classes);
+        Worker worker = getMainWorker();
+        worker.flush();
         Set<String> auxClasses = new TreeSet<>();
+        repository.setReadOrder(new ArrayList<>(classes));
         int count = 0;
         for (String className : classes) {
-            if (!fireEvent("Reading classes", className, count, classes.size()))
+            if (!fireEvent("Reading classes", className, count++, classes.size()))
                 return false;
-            if(++count % options.classesPerFlush == 0) {
-                ms = createMetadataSystem();
-            }
             TypeDefinition type;
             try {
-                type = lookUp(ms, className);
+                type = lookUp(worker.getMetadataSystem(), className);
             } catch (Throwable t) {
                 addError(new ErrorMessage(null, className, null, null, -1, t));
                 continue;
             }
             if (type != null) {
-                for(ConstantPool.Entry entry : type.getConstantPool()) {
-                    if(entry instanceof TypeInfoEntry) {
-                        String depName = getMainType(((TypeInfoEntry)entry).getName());
-                        if(depName != null && !classes.contains(depName))
-                            auxClasses.add(depName);
-                    }
-                }
+                collectDependencies(type, classes, auxClasses);
                 registry.populateDatabases(type);
             }
         }
         if (!fireEvent("Reading classes", null, classes.size(), classes.size()))
             return false;
-        ms = createMetadataSystem();
+        auxClasses = loadSnapshots(auxClasses);
+        if (auxClasses == null)
+            return false;
+        worker.flush();
+        repository.setReadOrder(new ArrayList<>(auxClasses));
         count = 0;
         for (String className : auxClasses) {
-            if (!fireEvent("Reading dep classes", className, count, auxClasses.size()))
+            if (!fireEvent("Reading dep classes", className, count++, auxClasses.size()))
                 return false;
-            if(++count % options.classesPerFlush == 0) {
-                ms = createMetadataSystem();
-            }
             TypeDefinition type;
             try {
-                type = lookUp(ms, className);
+                type = lookUp(worker.getMetadataSystem(), className);
             } catch (Throwable t) {
                 addError(new ErrorMessage(null, className, null, null, -1, t));
                 continue;
@@ -174,31 +293,207 @@ public class Context implements HuntBugsResult {
         return fireEvent("Reading dep classes", null, auxClasses.size(), auxClasses.size());
     }
 
-    MetadataSystem createMetadataSystem() {
-        return new MetadataSystem(loader) {
-            Set<String> loadedTypes = new HashSet<>();
-            
-            @Override
-            protected TypeDefinition resolveType(String descriptor, boolean mightBePrimitive) {
-                if(missingClasses.contains(descriptor)) {
-                    return null;
+    private void completingDatabases() {
+        long start = Timings.start(timings);
+        if (options.threads <= 1) {
+            registry.completeDatabases(null);
+        } else {
+            ExecutorService executor = createExecutor(options.threads, "HuntBugs database worker");
+            try {
+                registry.completeDatabases(executor);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        Timings.lap(timings, "Completing databases", start);
+    }
+
+    private boolean preparingClassesParallel(Set<String> classes) {
+        Set<String> auxClasses = new TreeSet<>();
+        repository.setReadOrder(new ArrayList<>(classes));
+        if (!runParallel("Reading classes", classes, DATABASE_CHUNK_SIZE, names -> new DatabaseChunk(names, classes,
+                auxClasses)))
+            return false;
+        Set<String> restClasses = loadSnapshots(auxClasses);
+        if (restClasses == null)
+            return false;
+        repository.setReadOrder(new ArrayList<>(restClasses));
+        return runParallel("Reading dep classes", restClasses, DATABASE_CHUNK_SIZE, names -> new DatabaseChunk(names,
+                null, null));
+    }
+
+    /**
+     * Merges the database content of dependency classes stored in the
+     * snapshots of the auxiliary jars (see
+     * {@link AnalysisOptions#snapshotDir}). Missing snapshots are built first.
+     * 
+     * @param auxClasses dependency classes to populate databases with
+     * @return dependency classes not found in the snapshots which should be
+     *         read as usual or null if cancel was requested
+     */
+    private Set<String> loadSnapshots(Set<String> auxClasses) {
+        if (options.snapshotDir == null || auxClasses.isEmpty() || !registry.canSnapshotDatabases())
+            return auxClasses;
+        List<String> dbNames = registry.createDatabaseShard().getDatabaseNames();
+        List<DatabaseSnapshot> snapshots = new ArrayList<>();
+        for (Path jar : (Iterable<Path>) repository.auxiliaryJars()::iterator) {
+            try {
+                Path file = DatabaseSnapshot.getPath(Paths.get(options.snapshotDir), jar, dbNames);
+                if (!Files.isRegularFile(file)) {
+                    if (!buildSnapshot(jar, file))
+                        return null;
+                    incStat("DatabaseSnapshot.Created");
                 }
-                try {
-                    if(loadedTypes.add(descriptor))
-                        incStat("ClassLoadingEfficiency.Total");
+                snapshots.add(DatabaseSnapshot.open(file));
+            } catch (IOException e) {
+                incStat("DatabaseSnapshot.Failures");
+            }
+        }
+        if (snapshots.isEmpty())
+            return auxClasses;
+        Set<String> restClasses = new TreeSet<>();
+        for (String className : auxClasses) {
+            if (!loadSnapshot(snapshots, className))
+                restClasses.add(className);
+        }
+        return restClasses;
+    }
+
+    private boolean loadSnapshot(List<DatabaseSnapshot> snapshots, String className) {
+        for (DatabaseSnapshot snapshot : snapshots) {
+            DatabaseRegistry.Shard shard = registry.createDatabaseShard();
+            if (snapshot.read(className, shard)) {
+                registry.mergeDatabases(shard);
+                incStat("DatabaseSnapshot.Classes");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean buildSnapshot(Path jar, Path file) throws IOException {
+        Set<String> jarClasses = new TreeSet<>();
+        new MappedJarRepository(jar).visit("", new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                return true;
+            }
+
+            @Override
+            public void visitClass(String className) {
+                jarClasses.add(className);
+            }
+        });
+        DatabaseSnapshot.Writer writer = new DatabaseSnapshot.Writer();
+        if (!runParallel("Building database snapshot", jarClasses, DATABASE_CHUNK_SIZE, names -> new SnapshotChunk(
+                names, writer)))
+            return false;
+        writer.write(file);
+        return true;
+    }
+
+    private static void collectDependencies(TypeDefinition type, Set<String> classes, Set<String> auxClasses) {
+        for(ConstantPool.Entry entry : type.getConstantPool()) {
+            if(entry instanceof TypeInfoEntry) {
+                String depName = getMainType(((TypeInfoEntry)entry).getName());
+                if(depName != null && !classes.contains(depName))
+                    auxClasses.add(depName);
+            }
+        }
+    }
+
+    /**
+     * @return new metadata system which loads the types from the analyzed
+     *         repository and the classpath
+     */
+    MetadataSystem createMetadataSystem() {
+        return new AnalysisMetadataSystem(loader, null);
+    }
+
+    /**
+     * Metadata system which counts the loaded types. It may take the types
+     * from the pinned metadata system first. The pinned metadata system in turn
+     * resolves the types it cannot load via the current metadata system (e.g.
+     * subclasses of JDK types), but never keeps them. If the methods may be
+     * prepared concurrently, the type resolution is guarded by the lock.
+     */
+    private class AnalysisMetadataSystem extends MetadataSystem {
+        private final Set<String> loadedTypes = ConcurrentHashMap.newKeySet();
+        private final AnalysisMetadataSystem pinned;
+        // Shared with the pinned metadata system as they call each other; null if not concurrent
+        private final Object lock;
+        // For pinned metadata system only: the current metadata system
+        AnalysisMetadataSystem fallback;
+
+        AnalysisMetadataSystem(ITypeLoader loader, AnalysisMetadataSystem pinned) {
+            super(loader);
+            this.pinned = pinned;
+            this.lock = pinned != null ? pinned.lock : options.methodThreads > 1 ? new Object() : null;
+            if (pinned != null)
+                pinned.fallback = this;
+        }
+
+        @Override
+        protected TypeReference lookupTypeCore(String descriptor) {
+            if (lock == null)
+                return super.lookupTypeCore(descriptor);
+            synchronized (lock) {
+                return super.lookupTypeCore(descriptor);
+            }
+        }
+
+        @Override
+        protected TypeDefinition resolveCore(TypeReference type) {
+            if (lock == null)
+                return super.resolveCore(type);
+            synchronized (lock) {
+                return super.resolveCore(type);
+            }
+        }
+
+        @Override
+        protected TypeDefinition resolveType(String descriptor, boolean mightBePrimitive) {
+            if (lock == null)
+                return resolveTypeUnlocked(descriptor, mightBePrimitive);
+            synchronized (lock) {
+                return resolveTypeUnlocked(descriptor, mightBePrimitive);
+            }
+        }
+
+        private TypeDefinition resolveTypeUnlocked(String descriptor, boolean mightBePrimitive) {
+            if (pinned != null) {
+                TypeDefinition type = pinned.resolveOwnType(descriptor, mightBePrimitive);
+                if (type != null)
+                    return type;
+            }
+            TypeDefinition type = resolveOwnType(descriptor, mightBePrimitive);
+            if (type == null && fallback != null)
+                return fallback.resolveType(descriptor, mightBePrimitive);
+            return type;
+        }
+
+        private TypeDefinition resolveOwnType(String descriptor, boolean mightBePrimitive) {
+            if(missingClasses.contains(descriptor)) {
+                return null;
+            }
+            try {
+                TypeDefinition type = super.resolveType(descriptor, mightBePrimitive);
+                if(type != null && loadedTypes.add(descriptor)) {
+                    loadedTypesTotalStat.increment();
                     if(classes.add(descriptor))
-                        incStat("ClassLoadingEfficiency");
-                    return super.resolveType(descriptor, mightBePrimitive);
-                } catch (Throwable t) {
-                    addError(new ErrorMessage(null, descriptor, null, null, -1, t));
-                    missingClasses.add(descriptor);
-                    return null;
+                        loadedTypesStat.increment();
                 }
+                return type;
+            } catch (Throwable t) {
+                addError(new ErrorMessage(null, descriptor, null, null, -1, t));
+                missingClasses.add(descriptor);
+                return null;
             }
-        };
+        }
     }
 
     private TypeDefinition lookUp(MetadataSystem ms, String className) {
+        repository.readingClass(className);
         TypeReference tr = ms.lookupType(className);
         if(tr == null) {
             missingClasses.add(className);
@@ -208,21 +503,174 @@ public class Context implements HuntBugsResult {
     }
 
     private void analyzingClasses(Set<String> classes) {
-        MetadataSystem ms = createMetadataSystem();
         classesCount.set(0);
+        if (options.cacheDir != null) {
+            resultCache = new ResultCache(Paths.get(options.cacheDir), options, registry);
+            resultCache.prepare(loader, classes);
+        }
+        if (options.methodThreads > 1) {
+            methodExecutor = createExecutor(options.methodThreads, "HuntBugs method worker");
+        }
+        try {
+            analyzingClasses0(classes);
+        } finally {
+            if (methodExecutor != null) {
+                methodExecutor.shutdownNow();
+                methodExecutor = null;
+            }
+            resultCache = null;
+        }
+    }
+
+    private void analyzingClasses0(Set<String> classes) {
+        repository.setReadOrder(new ArrayList<>(classes));
+        if (options.threads > 1) {
+            analyzingClassesParallel(classes);
+            return;
+        }
+        Worker worker = getMainWorker();
+        worker.flush();
         for (String className : classes) {
-            if(classesCount.get() % options.classesPerFlush == 0)
-                ms = createMetadataSystem();
             if (!fireEvent("Analyzing classes", className, classesCount.get(), classes.size()))
                 return;
-            analyzeClass(ms, className);
+            analyzeClass(worker.getMetadataSystem(), className);
         }
         if (!fireEvent("Analyzing classes", null, classes.size(), classes.size()))
             return;
     }
 
+    private void analyzingClassesParallel(Set<String> classes) {
+        runParallel("Analyzing classes", classes, 1, names -> new Chunk(names) {
+            @Override
+            void process(Worker worker, String className) {
+                analyzeClass(worker.getMetadataSystem(), className);
+            }
+        });
+    }
+
+    /**
+     * Processes given classes on the pool of {@link AnalysisOptions#threads}
+     * worker threads. The classes are split into chunks which are committed in
+     * the original order, thus the result does not depend on the scheduling.
+     * 
+     * @return false if cancel was requested
+     */
+    private boolean runParallel(String stepName, Collection<String> classes, int chunkSize,
+            Function<List<String>, Chunk> chunkFactory) {
+        ExecutorService executor = createExecutor(options.threads, "HuntBugs worker");
+        Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        int maxPending = options.threads * 4;
+        Iterator<String> it = classes.iterator();
+        int count = 0;
+        try {
+            while (it.hasNext() || !pending.isEmpty()) {
+                while (it.hasNext() && pending.size() < maxPending) {
+                    List<String> names = new ArrayList<>(chunkSize);
+                    while (it.hasNext() && names.size() < chunkSize)
+                        names.add(it.next());
+                    pending.add(executor.submit(chunkFactory.apply(names)));
+                }
+                Chunk chunk = getResult(pending.poll());
+                for (String className : chunk.classNames) {
+                    if (!fireEvent(stepName, className, count++, classes.size()))
+                        return false;
+                }
+                chunk.commit();
+            }
+            return fireEvent(stepName, null, classes.size(), classes.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService createExecutor(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param methodCount number of methods in the class
+     * @return true if methods of the class having given number of methods
+     *         should be prepared concurrently via
+     *         {@link #submitMethodTask(Callable)}
+     */
+    public boolean isMethodParallelismEnabled(int methodCount) {
+        return methodExecutor != null && methodCount >= options.minParallelMethods;
+    }
+
+    /**
+     * Submits the task which prepares single method of the currently analyzed
+     * class. Errors reported by the task are attributed to the current class.
+     * 
+     * @param task task to submit
+     * @return future for task result
+     */
+    public <T> Future<T> submitMethodTask(Callable<T> task) {
+        Results results = currentResults.get();
+        return methodExecutor.submit(() -> {
+            if (results == null)
+                return task.call();
+            currentResults.set(results);
+            try {
+                return task.call();
+            } finally {
+                currentResults.remove();
+            }
+        });
+    }
+
+    private Chunk getResult(Future<Chunk> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs all the detectors on a single class. The databases must be
+     * populated already (see {@link #analyzePackage(String)}). Unless called
+     * by a worker thread, must be called by the thread driving the analysis.
+     * 
+     * @param ms metadata system to load the class from
+     * @param name internal name of the class
+     */
     void analyzeClass(MetadataSystem ms, String name) {
         classesCount.incrementAndGet();
+        // Results are buffered by class even on the driving thread, so they
+        // can be cached and the sink is never called concurrently
+        Results outer = currentResults.get();
+        Results results = new Results();
+        currentResults.set(results);
+        try {
+            analyzeClass(ms, name, results);
+        } finally {
+            currentResults.set(outer);
+        }
+        if (outer == null) {
+            results.warnings.forEach(sink::accept);
+            errors.addAll(results.errors);
+            sinkStrayWarnings();
+        } else {
+            outer.warnings.addAll(results.warnings);
+            outer.errors.addAll(results.errors);
+        }
+    }
+
+    private void analyzeClass(MetadataSystem ms, String name, Results results) {
+        if (resultCache != null) {
+            cacheTotalStat.increment();
+            if (resultCache.load(name, this::addWarning, this::addError)) {
+                cacheHitsStat.increment();
+                return;
+            }
+        }
         TypeDefinition type;
         try {
             type = lookUp(ms, name);
@@ -230,20 +678,53 @@ public class Context implements HuntBugsResult {
             addError(new ErrorMessage(null, name, null, null, -1, t));
             return;
         }
-        if (type != null)
-            registry.analyzeClass(type);
+        if (type == null)
+            return;
+        analyzeType(type);
+        // Partial results of the cancelled analysis must not be reused
+        if (resultCache != null && !cancellation.isCancelled()
+            && !resultCache.store(name, results.warnings, new ArrayList<>(results.errors))) {
+            incStat("ResultCache.StoreFailures");
+        }
+    }
+
+    private void analyzeType(TypeDefinition type) {
+        long start = Timings.start(timings);
+        registry.analyzeClass(type);
+        if (timings != null)
+            timings.addClass(type.getFullName(), System.nanoTime() - start);
     }
 
     public void addError(ErrorMessage msg) {
-        incStat("InternalErrors");
-        errors.add(msg);
+        errorsStat.increment();
+        Results results = currentResults.get();
+        (results == null ? errors : results.errors).add(msg);
     }
 
     public void addWarning(Warning warning) {
         if(warning.getScore() < getOptions().minScore)
             return;
-        incStat("Warnings");
-        warnings.add(warning);
+        warningsStat.increment();
+        Results results = currentResults.get();
+        if (results != null) {
+            results.warnings.add(warning);
+            return;
+        }
+        strayWarnings.add(warning);
+        Thread thread = drivingThread;
+        if (thread == null || thread == Thread.currentThread())
+            sinkStrayWarnings();
+    }
+
+    /**
+     * Passes the warnings reported outside of the class analysis to the sink.
+     * Must be called by the thread driving the analysis or, if the analysis is
+     * not running, by the thread owning the context.
+     */
+    private void sinkStrayWarnings() {
+        for (Warning warning = strayWarnings.poll(); warning != null; warning = strayWarnings.poll()) {
+            sink.accept(warning);
+        }
     }
     
     @Override
@@ -263,7 +744,25 @@ public class Context implements HuntBugsResult {
         warns.forEach(w -> app.append(w.toString()).append("\n"));
     }
 
+    /**
+     * @return collected timings or null if {@link AnalysisOptions#timing} is
+     *         not set
+     */
+    @Override
+    public Timings getTimings() {
+        return timings;
+    }
+
     public void reportStats(PrintStream app) {
+        if (timings != null)
+            timings.report(app);
+        Map<String, Long> stat = new HashMap<>();
+        // Keys registered in advance are not reported until updated
+        this.stat.forEach((key, value) -> {
+            long sum = value.sum();
+            if (sum != 0)
+                stat.put(key, sum);
+        });
         if (stat.isEmpty())
             return;
         app.append("Statistics:\n");
@@ -316,7 +815,11 @@ public class Context implements HuntBugsResult {
     }
 
     public void incStat(String key) {
-        stat.merge(key, 1L, Long::sum);
+        // Fast path: no locking or allocation once the key is registered
+        LongAdder adder = stat.get(key);
+        if (adder == null)
+            adder = stat.computeIfAbsent(key, k -> new LongAdder());
+        adder.increment();
     }
     
     public Stream<WarningType> warningTypes() {
@@ -327,11 +830,173 @@ public class Context implements HuntBugsResult {
         return registry.getWarningType(typeName);
     }
 
+    private LongAdder registerStat(String key) {
+        LongAdder adder = new LongAdder();
+        stat.put(key, adder);
+        return adder;
+    }
+
     public long getStat(String key) {
-        return stat.getOrDefault(key, 0L);
+        LongAdder adder = stat.get(key);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private Worker getMainWorker() {
+        if (mainWorker == null)
+            mainWorker = new Worker();
+        return mainWorker;
+    }
+
+    /**
+     * Per-thread state: every worker has its own type loader and metadata
+     * system which is flushed independently. The JDK types are resolved by the
+     * separate metadata system which is kept across the flushes unless the
+     * heap is low, so the commonly used types are not loaded again and again.
+     */
+    private class Worker {
+        // JDK types are resolved by the pinned metadata system if it's used
+        private final ITypeLoader loader = createTypeLoader(false);
+        private final ITypeLoader bootLoader = options.addBootClassPath ? createBootTypeLoader() : null;
+        private final FlushPolicy flushPolicy = new FlushPolicy(options);
+        private AnalysisMetadataSystem pinned;
+        private MetadataSystem ms;
+
+        MetadataSystem getMetadataSystem() {
+            FlushPolicy.Action action = flushPolicy.next();
+            if (action == FlushPolicy.Action.FLUSH_ALL && pinned != null) {
+                incStat("MetadataFlushes.Pinned");
+                pinned = null;
+            }
+            if (action != FlushPolicy.Action.NONE) {
+                incStat("MetadataFlushes");
+                ms = null;
+            }
+            if (ms == null) {
+                if (pinned == null && bootLoader != null)
+                    pinned = new AnalysisMetadataSystem(bootLoader, null);
+                ms = new AnalysisMetadataSystem(loader, pinned);
+            }
+            return ms;
+        }
+
+        /**
+         * Drops the types of the analyzed classes keeping the pinned ones
+         */
+        void flush() {
+            ms = null;
+        }
+    }
+
+    /**
+     * Buffered warnings and errors
+     */
+    private static class Results {
+        final List<Warning> warnings = new ArrayList<>();
+        // Lock-free as method threads may also report errors
+        final Queue<ErrorMessage> errors = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Part of the classes processed by single worker in parallel mode. Errors
+     * and warnings are buffered until the chunk is committed.
+     */
+    private abstract class Chunk extends Results implements Callable<Chunk> {
+        final List<String> classNames;
+
+        Chunk(List<String> classNames) {
+            this.classNames = classNames;
+        }
+
+        abstract void process(Worker worker, String className);
+
+        @Override
+        public Chunk call() {
+            Worker worker = workers.get();
+            currentResults.set(this);
+            try {
+                for (String className : classNames) {
+                    try {
+                        process(worker, className);
+                    } catch (Throwable t) {
+                        addError(new ErrorMessage(null, className, null, null, -1, t));
+                    }
+                }
+            } finally {
+                currentResults.remove();
+            }
+            return this;
+        }
+
+        void commit() {
+            warnings.forEach(sink::accept);
+            Context.this.errors.addAll(errors);
+            sinkStrayWarnings();
+        }
+    }
+
+    private class DatabaseChunk extends Chunk {
+        private final DatabaseRegistry.Shard shard = registry.createDatabaseShard();
+        private final Set<String> classes, auxClasses, deps;
+
+        DatabaseChunk(List<String> classNames, Set<String> classes, Set<String> auxClasses) {
+            super(classNames);
+            this.classes = classes;
+            this.auxClasses = auxClasses;
+            this.deps = auxClasses == null ? null : new HashSet<>();
+        }
+
+        @Override
+        void process(Worker worker, String className) {
+            TypeDefinition type = lookUp(worker.getMetadataSystem(), className);
+            if (type != null) {
+                if (deps != null)
+                    collectDependencies(type, classes, deps);
+                registry.populateDatabases(shard, type);
+            }
+        }
+
+        @Override
+        void commit() {
+            super.commit();
+            registry.mergeDatabases(shard);
+            if (deps != null)
+                auxClasses.addAll(deps);
+        }
+    }
+
+    private class SnapshotChunk extends Chunk {
+        private final DatabaseSnapshot.Writer writer;
+        private final Map<String, byte[]> shards = new LinkedHashMap<>();
+
+        SnapshotChunk(List<String> classNames, DatabaseSnapshot.Writer writer) {
+            super(classNames);
+            this.writer = writer;
+        }
+
+        @Override
+        void process(Worker worker, String className) {
+            TypeDefinition type = lookUp(worker.getMetadataSystem(), className);
+            if (type != null) {
+                DatabaseRegistry.Shard shard = registry.createDatabaseShard();
+                registry.populateDatabases(shard, type);
+                try {
+                    shards.put(className, DatabaseSnapshot.toBytes(shard));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        @Override
+        void commit() {
+            // Errors are not reported: most of the jar classes are not
+            // necessarily used by the analyzed code. The failed classes are
+            // absent in the snapshot, thus they will be read as usual.
+            shards.forEach(writer::add);
+        }
     }
 
-    private static String getMainType(String internalName) {
+    static String getMainType(String internalName) {
         if(internalName.startsWith("[")) {
             if(!internalName.endsWith(";"))
                 return null;
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.analysis;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import one.util.huntbugs.registry.DatabaseRegistry.Shard;
+
+/**
+ * Snapshot of the type databases content for the classes of single dependency
+ * jar. The database shard is stored separately for every top-level class of
+ * the jar, so only the classes actually required by the analysis are merged.
+ * The snapshot file is memory-mapped for reading.
+ */
+class DatabaseSnapshot {
+    private static final int MAGIC = 0x48424453;
+    private static final int FORMAT_VERSION = 2;
+    private static final String SUFFIX = ".hbdb";
+
+    private final ByteBuffer data;
+    // class name -> {offset, length} within data
+    private final Map<String, int[]> index = new HashMap<>();
+
+    private DatabaseSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION)
+            throw new IOException("Unsupported snapshot format");
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+        for (int i = in.readInt(); i > 0; i--) {
+            index.put(in.readUTF(), new int[] { in.readInt(), in.readInt() });
+        }
+        this.data = buffer.slice();
+    }
+
+    /**
+     * Opens the snapshot file
+     *
+     * @param file snapshot file
+     * @return the snapshot
+     * @throws IOException if file cannot be read or has unsupported format
+     */
+    static DatabaseSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new DatabaseSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the snapshot file location for given jar. The file name covers
+     * the jar content and the set of the databases, so changed jars get new
+     * snapshots.
+     *
+     * @param dir snapshots directory
+     * @param jar dependency jar
+     * @param databaseNames names of the databases stored in the snapshot
+     * @return snapshot path (possibly not existing)
+     * @throws IOException if jar cannot be read
+     */
+    static Path getPath(Path dir, Path jar, List<String> databaseNames) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalError(e);
+        }
+        String header = FORMAT_VERSION + "/" + DatabaseSnapshot.class.getPackage().getImplementationVersion() + "/"
+            + databaseNames;
+        digest.update(header.getBytes(StandardCharsets.UTF_8));
+        try (InputStream is = new DigestInputStream(Files.newInputStream(jar), digest)) {
+            byte[] buf = new byte[8192];
+            while (is.read(buf) >= 0) {
+                // just update the digest
+            }
+        }
+        StringBuilder sb = new StringBuilder(jar.getFileName().toString()).append('-');
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return dir.resolve(sb.append(SUFFIX).toString());
+    }
+
+    /**
+     * Reads the stored shard for given class
+     *
+     * @param className internal name of top-level class
+     * @param shard newly created shard to read into
+     * @return true if class is found in the snapshot and read successfully.
+     *         If false is returned, the shard should be discarded.
+     */
+    boolean read(String className, Shard shard) {
+        int[] pos = index.get(className);
+        if (pos == null)
+            return false;
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(pos[0]);
+        buffer.limit(pos[0] + pos[1]);
+        try {
+            shard.read(new DataInputStream(new ByteBufferInputStream(buffer)));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    static byte[] toBytes(Shard shard) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            shard.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Collects the shards of the classes and writes the snapshot file
+     */
+    static class Writer {
+        private final Map<String, byte[]> shards = new LinkedHashMap<>();
+
+        void add(String className, byte[] shard) {
+            shards.put(className, shard);
+        }
+
+        void write(Path file) throws IOException {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                    tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeInt(shards.size());
+                    int offset = 0;
+                    for (Map.Entry<String, byte[]> e : shards.entrySet()) {
+                        out.writeUTF(e.getKey());
+                        out.writeInt(offset);
+                        out.writeInt(e.getValue().length);
+                        offset += e.getValue().length;
+                    }
+                    for (byte[] shard : shards.values()) {
+                        out.write(shard);
+                    }
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining())
+                return -1;
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+    }
+}
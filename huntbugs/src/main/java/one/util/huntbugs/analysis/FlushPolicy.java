@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.analysis;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Decides when the metadata system of the worker should be flushed. If
+ * {@link AnalysisOptions#classesPerFlush} is positive, the metadata system is
+ * flushed after the given number of classes. Otherwise it's flushed only when
+ * the live heap after the garbage collection exceeds
+ * {@link AnalysisOptions#maxHeapUsage} percent of the tenured space.
+ */
+class FlushPolicy {
+    enum Action {
+        /**
+         * Continue using the current metadata system
+         */
+        NONE,
+        /**
+         * Flush the types of the analyzed classes and their dependencies,
+         * keeping the pinned JDK types
+         */
+        FLUSH,
+        /**
+         * Flush everything including the pinned JDK types
+         */
+        FLUSH_ALL
+    }
+
+    // Used if heap usage cannot be monitored
+    private static final int DEFAULT_CLASSES_PER_FLUSH = 1000;
+    // Do not flush more often even if heap is low
+    private static final int MIN_CLASSES_PER_FLUSH = 100;
+
+    private static final List<MemoryPoolMXBean> TENURED_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported()
+                && pool.isCollectionUsageThresholdSupported() && pool.getUsage().getMax() > 0).collect(Collectors
+                    .toList());
+
+    private final int classesPerFlush;
+    private int count;
+    private long thresholdCount;
+
+    FlushPolicy(AnalysisOptions options) {
+        if (options.classesPerFlush > 0) {
+            classesPerFlush = options.classesPerFlush;
+        } else if (TENURED_POOLS.isEmpty()) {
+            classesPerFlush = DEFAULT_CLASSES_PER_FLUSH;
+        } else {
+            classesPerFlush = 0;
+            setThreshold(options.maxHeapUsage);
+            thresholdCount = getThresholdCount();
+        }
+    }
+
+    private static void setThreshold(int percent) {
+        for (MemoryPoolMXBean pool : TENURED_POOLS) {
+            long threshold = pool.getUsage().getMax() / 100 * Math.max(1, Math.min(100, percent));
+            // The threshold is global for the JVM, so every context sets the same value
+            if (pool.getCollectionUsageThreshold() != threshold)
+                pool.setCollectionUsageThreshold(threshold);
+        }
+    }
+
+    /**
+     * @return how many times the live heap was found to exceed the threshold
+     *         after the garbage collection
+     */
+    private static long getThresholdCount() {
+        long count = 0;
+        for (MemoryPoolMXBean pool : TENURED_POOLS) {
+            count += pool.getCollectionUsageThresholdCount();
+        }
+        return count;
+    }
+
+    /**
+     * Must be called before processing every class
+     * 
+     * @return the action to perform with the metadata system
+     */
+    Action next() {
+        count++;
+        if (classesPerFlush > 0) {
+            if (count < classesPerFlush)
+                return Action.NONE;
+            count = 0;
+            return Action.FLUSH;
+        }
+        if (count < MIN_CLASSES_PER_FLUSH)
+            return Action.NONE;
+        long newThresholdCount = getThresholdCount();
+        if (newThresholdCount == thresholdCount)
+            return Action.NONE;
+        thresholdCount = newThresholdCount;
+        count = 0;
+        return Action.FLUSH_ALL;
+    }
+}
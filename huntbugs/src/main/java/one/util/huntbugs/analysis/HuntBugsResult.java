@@ -40,4 +40,19 @@ public interface HuntBugsResult {
      */
     Stream<ErrorMessage> errors();
 
+    /**
+     * @return collected timings or null if timings were not collected
+     */
+    default Timings getTimings() {
+        return null;
+    }
+
+    /**
+     * @return true if the analysis was cancelled (e.g. by timeout), so only
+     *         part of the classes were analyzed
+     */
+    default boolean isIncomplete() {
+        return false;
+    }
+
 }
@@ -0,0 +1,595 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.strobel.assembler.ir.ConstantPool;
+import com.strobel.assembler.ir.ConstantPool.TypeInfoEntry;
+import com.strobel.assembler.ir.ConstantPool.Utf8StringConstantEntry;
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+import one.util.huntbugs.registry.DetectorRegistry;
+import one.util.huntbugs.warning.Role;
+import one.util.huntbugs.warning.Role.LocationRole;
+import one.util.huntbugs.warning.Role.MemberRole;
+import one.util.huntbugs.warning.Role.NumberRole;
+import one.util.huntbugs.warning.Role.StringRole;
+import one.util.huntbugs.warning.Role.TypeRole;
+import one.util.huntbugs.warning.Warning;
+import one.util.huntbugs.warning.WarningAnnotation;
+import one.util.huntbugs.warning.WarningAnnotation.Location;
+import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
+import one.util.huntbugs.warning.WarningAnnotation.TypeInfo;
+import one.util.huntbugs.warning.WarningStatus;
+import one.util.huntbugs.warning.WarningType;
+
+/**
+ * On-disk cache of the analysis results (warnings and errors) for the
+ * top-level classes (including their nested classes).
+ *
+ * <p>
+ * The result is stored under the key which covers the bytes of the class and
+ * its nested classes, the active detectors and warning types, the analysis
+ * options which may affect the result and the bytes of the classes the
+ * analyzed class depends on: ones it refers to and the analyzed ones which
+ * refer to it.
+ *
+ * <p>
+ * If databases are used, the key also covers the database facts about the
+ * types the analyzed class refers to (see
+ * {@link DetectorRegistry#writeDatabaseFacts(String, java.io.DataOutput, Consumer)}).
+ * These facts may come from the classes which are two or more hops away (e.g.
+ * subclasses of the called method class), so the changed class invalidates
+ * only the results of the classes which read the changed facts. If some
+ * database cannot write its facts per type, any change in the classes the
+ * databases are populated from conservatively invalidates the whole cache.
+ *
+ * <p>
+ * The key covers the HuntBugs code as well, so rebuilt HuntBugs invalidates
+ * the cache even if its version is not changed.
+ */
+class ResultCache {
+    private static final int MAGIC = 0x48425243;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".hbr";
+    // Options which don't affect the analysis result
+    private static final Set<String> NEUTRAL_OPTIONS = new HashSet<>(Arrays.asList("threads", "methodThreads",
+        "minParallelMethods", "classesPerFlush", "maxHeapUsage", "cacheDir", "snapshotDir", "timing",
+        "timeout"));
+
+    private static final byte TYPE = 1;
+    private static final byte MEMBER = 2;
+    private static final byte LOCATION = 3;
+    private static final byte STRING = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte SHORT = 9;
+    private static final byte BYTE = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte BIG_DECIMAL = 12;
+
+    private static String codeDigest;
+
+    private final Path dir;
+    private final DetectorRegistry registry;
+    private final byte[] configDigest;
+    private final Map<String, String> keys = new HashMap<>();
+
+    ResultCache(Path dir, AnalysisOptions options, DetectorRegistry registry) {
+        this.dir = dir;
+        this.registry = registry;
+        MessageDigest digest = createDigest();
+        update(digest, String.valueOf(FORMAT_VERSION));
+        update(digest, codeDigest());
+        Field[] fields = options.getClass().getFields();
+        Arrays.sort(fields, Comparator.comparing(Field::getName));
+        for (Field field : fields) {
+            if (Modifier.isStatic(field.getModifiers()) || NEUTRAL_OPTIONS.contains(field.getName()))
+                continue;
+            try {
+                update(digest, field.getName() + "=" + field.get(options));
+            } catch (IllegalAccessException e) {
+                throw new InternalError(e);
+            }
+        }
+        registry.updateDigest(digest);
+        this.configDigest = digest.digest();
+    }
+
+    /**
+     * Computes the keys for given top-level classes. Must be called before
+     * {@link #load(String, Consumer, Consumer)} and
+     * {@link #store(String, List, List)}.
+     *
+     * @param loader loader to read the class files
+     * @param classNames internal names of the classes to analyze
+     */
+    void prepare(ITypeLoader loader, Collection<String> classNames) {
+        Map<String, ClassGroup> groups = new HashMap<>();
+        for (String className : classNames) {
+            groups.put(className, new ClassGroup(loader, className));
+        }
+        Map<String, Set<String>> dependents = new HashMap<>();
+        groups.forEach((className, group) -> group.deps.stream().filter(groups::containsKey).forEach(
+            dep -> dependents.computeIfAbsent(dep, k -> new HashSet<>()).add(className)));
+        Map<String, String> depDigests = new HashMap<>();
+        Function<String, String> classDigest = name -> {
+            ClassGroup group = groups.get(Context.getMainType(name));
+            return group != null ? group.digest : depDigests.computeIfAbsent(name, n -> digest(loader, n));
+        };
+        Map<String, String> factDigests = new HashMap<>();
+        boolean useFacts = registry.hasDatabases() && (groups.isEmpty() || factsDigest(
+            groups.keySet().iterator().next(), classDigest) != null);
+        byte[] databaseDigest = registry.hasDatabases() && !useFacts ? databaseDigest(loader, groups, depDigests)
+                : null;
+        groups.forEach((className, group) -> {
+            if (group.digest == null)
+                return;
+            Set<String> deps = new TreeSet<>(group.deps);
+            deps.addAll(dependents.getOrDefault(className, Collections.emptySet()));
+            MessageDigest digest = createDigest();
+            digest.update(configDigest);
+            if (databaseDigest != null)
+                digest.update(databaseDigest);
+            update(digest, group.digest);
+            for (String dep : deps) {
+                ClassGroup depGroup = groups.get(dep);
+                String depDigest = depGroup != null ? depGroup.digest : depDigests.computeIfAbsent(dep,
+                    name -> digest(loader, name));
+                update(digest, dep + "=" + depDigest);
+            }
+            if (useFacts) {
+                for (String type : group.types) {
+                    update(digest, type + "=" + factDigests.computeIfAbsent(type, t -> factsDigest(t, classDigest)));
+                }
+            }
+            keys.put(className, toHex(digest.digest()));
+        });
+    }
+
+    /**
+     * @return digest of the database facts about given type along with the
+     *         class files read when these facts are used or null if some
+     *         database cannot write the facts per type
+     */
+    private String factsDigest(String typeName, Function<String, String> classDigest) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Set<String> classes = new TreeSet<>();
+        try {
+            if (!registry.writeDatabaseFacts(typeName, new DataOutputStream(bytes), classes::add))
+                return null;
+        } catch (IOException e) {
+            throw new InternalError(e);
+        }
+        MessageDigest digest = createDigest();
+        digest.update(bytes.toByteArray());
+        for (String name : classes) {
+            update(digest, name + "=" + classDigest.apply(name));
+        }
+        return toHex(digest.digest());
+    }
+
+    private static byte[] databaseDigest(ITypeLoader loader, Map<String, ClassGroup> groups,
+            Map<String, String> depDigests) {
+        MessageDigest digest = createDigest();
+        Set<String> deps = new TreeSet<>();
+        for (String className : new TreeSet<>(groups.keySet())) {
+            ClassGroup group = groups.get(className);
+            update(digest, className + "=" + group.digest);
+            group.deps.stream().filter(dep -> !groups.containsKey(dep)).forEach(deps::add);
+        }
+        for (String dep : deps) {
+            update(digest, dep + "=" + depDigests.computeIfAbsent(dep, name -> digest(loader, name)));
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Loads cached results for given class
+     *
+     * @param className internal name of the top-level class
+     * @param warnings consumer for the cached warnings
+     * @param errors consumer for the cached errors
+     * @return true if results were found in the cache and passed to the
+     *         consumers
+     */
+    boolean load(String className, Consumer<Warning> warnings, Consumer<ErrorMessage> errors) {
+        String key = keys.get(className);
+        if (key == null)
+            return false;
+        Path path = getPath(className);
+        if (!Files.isRegularFile(path))
+            return false;
+        List<Warning> cachedWarnings = new ArrayList<>();
+        List<ErrorMessage> cachedErrors = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF()))
+                return false;
+            for (int i = in.readInt(); i > 0; i--) {
+                Warning warning = readWarning(in);
+                if (warning == null)
+                    return false;
+                cachedWarnings.add(warning);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                cachedErrors.add(new ErrorMessage(readString(in), readString(in), readString(in), readString(in), in
+                        .readInt(), readString(in)));
+            }
+        } catch (IOException | RuntimeException e) {
+            // Corrupted or incompatible entry: will be overwritten
+            return false;
+        }
+        cachedWarnings.forEach(warnings);
+        cachedErrors.forEach(errors);
+        return true;
+    }
+
+    /**
+     * Stores the results for given class
+     *
+     * @param className internal name of the top-level class
+     * @param warnings warnings reported for the class
+     * @param errors errors reported for the class
+     * @return false if results cannot be stored
+     */
+    boolean store(String className, List<Warning> warnings, List<ErrorMessage> errors) {
+        String key = keys.get(className);
+        if (key == null)
+            return false;
+        Path path = getPath(className);
+        Path tmp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                out.writeInt(warnings.size());
+                for (Warning warning : warnings) {
+                    writeWarning(out, warning);
+                }
+                out.writeInt(errors.size());
+                for (ErrorMessage error : errors) {
+                    writeString(out, error.getDetector());
+                    writeString(out, error.getClassName());
+                    writeString(out, error.getElementName());
+                    writeString(out, error.getDescriptor());
+                    out.writeInt(error.getLine());
+                    writeString(out, error.getError());
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e1) {
+                    // ignore
+                }
+            }
+            return false;
+        }
+    }
+
+    private Path getPath(String className) {
+        return dir.resolve(className + SUFFIX);
+    }
+
+    private Warning readWarning(DataInputStream in) throws IOException {
+        WarningType type = registry.getWarningType(in.readUTF());
+        int priority = in.readInt();
+        WarningStatus status = WarningStatus.valueOf(in.readUTF());
+        List<WarningAnnotation<?>> annotations = new ArrayList<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            String role = in.readUTF();
+            byte kind = in.readByte();
+            switch (kind) {
+            case TYPE:
+                annotations.add(TypeRole.forName(role).create(in.readUTF()));
+                break;
+            case MEMBER:
+                annotations.add(MemberRole.forName(role).create(in.readUTF(), in.readUTF(), in.readUTF()));
+                break;
+            case LOCATION:
+                annotations.add(LocationRole.forName(role).create(new Location(in.readInt(), in.readInt())));
+                break;
+            case STRING:
+                annotations.add(StringRole.forName(role).create(readString(in)));
+                break;
+            case INT:
+                annotations.add(NumberRole.forName(role).create(in.readInt()));
+                break;
+            case LONG:
+                annotations.add(NumberRole.forName(role).create(in.readLong()));
+                break;
+            case FLOAT:
+                annotations.add(NumberRole.forName(role).create(in.readFloat()));
+                break;
+            case DOUBLE:
+                annotations.add(NumberRole.forName(role).create(in.readDouble()));
+                break;
+            case SHORT:
+                annotations.add(NumberRole.forName(role).create(in.readShort()));
+                break;
+            case BYTE:
+                annotations.add(NumberRole.forName(role).create(in.readByte()));
+                break;
+            case BIG_INTEGER:
+                annotations.add(NumberRole.forName(role).create(new BigInteger(in.readUTF())));
+                break;
+            case BIG_DECIMAL:
+                annotations.add(NumberRole.forName(role).create(new BigDecimal(in.readUTF())));
+                break;
+            default:
+                throw new IOException("Unknown annotation kind: " + kind);
+            }
+        }
+        return type == null ? null : new Warning(type, priority, annotations, status);
+    }
+
+    private void writeWarning(DataOutputStream out, Warning warning) throws IOException {
+        out.writeUTF(warning.getType().getName());
+        out.writeInt(warning.getPriority());
+        out.writeUTF(warning.getStatus().name());
+        List<WarningAnnotation<?>> annotations = new ArrayList<>();
+        warning.annotations().forEach(annotations::add);
+        out.writeInt(annotations.size());
+        for (WarningAnnotation<?> anno : annotations) {
+            Role<?> role = anno.getRole();
+            Object value = anno.getValue();
+            out.writeUTF(role.toString());
+            if (role.getType() == TypeInfo.class) {
+                out.writeByte(TYPE);
+                out.writeUTF(((TypeInfo) value).getTypeName());
+            } else if (role.getType() == MemberInfo.class) {
+                MemberInfo mi = (MemberInfo) value;
+                out.writeByte(MEMBER);
+                out.writeUTF(mi.getTypeName());
+                out.writeUTF(mi.getName());
+                out.writeUTF(mi.getSignature());
+            } else if (role.getType() == Location.class) {
+                Location loc = (Location) value;
+                out.writeByte(LOCATION);
+                out.writeInt(loc.getOffset());
+                out.writeInt(loc.getSourceLine());
+            } else if (role.getType() == String.class) {
+                out.writeByte(STRING);
+                writeString(out, (String) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Short) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) value);
+            } else if (value instanceof Byte) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if (value instanceof BigInteger) {
+                out.writeByte(BIG_INTEGER);
+                out.writeUTF(value.toString());
+            } else if (value instanceof BigDecimal) {
+                out.writeByte(BIG_DECIMAL);
+                out.writeUTF(value.toString());
+            } else {
+                throw new IllegalArgumentException("Unsupported annotation: " + anno);
+            }
+        }
+    }
+
+    // Unlike writeUTF supports null and long strings (like stack traces)
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String digest(ITypeLoader loader, String className) {
+        Buffer buffer = new Buffer();
+        if (!loader.tryLoadType(className, buffer))
+            return "";
+        MessageDigest digest = createDigest();
+        digest.update(buffer.array(), 0, buffer.size());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * @return digest of the HuntBugs code: the jar or all the files of the
+     *         directory it's loaded from
+     */
+    private static synchronized String codeDigest() {
+        if (codeDigest == null) {
+            MessageDigest digest = createDigest();
+            update(digest, String.valueOf(ResultCache.class.getPackage().getImplementationVersion()));
+            try {
+                CodeSource source = ResultCache.class.getProtectionDomain().getCodeSource();
+                if (source != null) {
+                    Path root = Paths.get(source.getLocation().toURI());
+                    List<Path> files;
+                    try (Stream<Path> paths = Files.walk(root)) {
+                        files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                    }
+                    for (Path file : files) {
+                        update(digest, root.relativize(file).toString());
+                        digest.update(Files.readAllBytes(file));
+                    }
+                }
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                // Location is unknown: only the version is covered
+            }
+            codeDigest = toHex(digest.digest());
+        }
+        return codeDigest;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String str) {
+        digest.update(str.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Top-level class along with its nested classes: the unit of caching
+     */
+    private static class ClassGroup {
+        // null if the class cannot be read
+        String digest;
+        final Set<String> deps = new HashSet<>();
+        // Types the database facts may be read about: the group members and
+        // the types they refer to, including ones in the descriptors
+        final Set<String> types = new TreeSet<>();
+
+        ClassGroup(ITypeLoader loader, String className) {
+            MessageDigest digest = createDigest();
+            Set<String> members = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            queue.add(className);
+            members.add(className);
+            while (!queue.isEmpty()) {
+                String name = queue.poll();
+                Buffer buffer = new Buffer();
+                if (!loader.tryLoadType(name, buffer)) {
+                    if (name.equals(className))
+                        return;
+                    continue;
+                }
+                update(digest, name);
+                types.add(name);
+                digest.update(buffer.array(), 0, buffer.size());
+                buffer.position(0);
+                buffer.readInt(); // magic
+                buffer.readUnsignedShort(); // minor version
+                buffer.readUnsignedShort(); // major version
+                for (ConstantPool.Entry entry : ConstantPool.read(buffer)) {
+                    if (entry instanceof Utf8StringConstantEntry) {
+                        addDescriptorTypes(((Utf8StringConstantEntry) entry).value);
+                    } else if (entry instanceof TypeInfoEntry) {
+                        String typeName = ((TypeInfoEntry) entry).getName();
+                        String mainType = Context.getMainType(typeName);
+                        if (mainType == null)
+                            continue;
+                        types.add(typeName.startsWith("[") ? typeName.substring(typeName.indexOf('L') + 1,
+                            typeName.length() - 1) : typeName);
+                        if (!mainType.equals(className)) {
+                            deps.add(mainType);
+                        } else if (typeName.startsWith(className + "$") && members.add(typeName)) {
+                            queue.add(typeName);
+                        }
+                    }
+                }
+            }
+            this.digest = toHex(digest.digest());
+        }
+
+        // Adds the object types of the field or method descriptor, ignores
+        // the strings which are not descriptors
+        private void addDescriptorTypes(String str) {
+            if (str.isEmpty() || "([L".indexOf(str.charAt(0)) < 0)
+                return;
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                if (c == 'L') {
+                    int end = str.indexOf(';', i);
+                    if (end < 0)
+                        return;
+                    names.add(str.substring(i + 1, end));
+                    i = end;
+                } else if ("BCDFIJSZV[()".indexOf(c) < 0) {
+                    return;
+                }
+            }
+            types.addAll(names);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.analysis;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Cumulative execution time of the analysis phases and the detectors along
+ * with the slowest analyzed classes and methods. Collected only if
+ * {@link AnalysisOptions#timing} is set.
+ */
+public class Timings {
+    public static final String AST_BUILD = "AST build";
+    public static final String AST_OPTIMIZE = "AST optimize";
+    public static final String CFG = "CFG";
+
+    private static final int TOP_COUNT = 20;
+
+    private final Map<String, Timer> phases = new ConcurrentHashMap<>();
+    private final Map<String, Timer> detectors = new ConcurrentHashMap<>();
+    private final TopList slowestClasses = new TopList();
+    private final TopList slowestMethods = new TopList();
+
+    /**
+     * Cumulative time and number of invocations
+     */
+    public static class Timer {
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        public void add(long elapsedNanos) {
+            nanos.add(elapsedNanos);
+            count.increment();
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Named time measurement
+     */
+    public static class Entry {
+        private final String name;
+        private final long nanos;
+        private final long count;
+
+        Entry(String name, long nanos, long count) {
+            this.name = name;
+            this.nanos = nanos;
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    private static class TopList {
+        private final PriorityQueue<Entry> entries = new PriorityQueue<>(Comparator.comparingLong(Entry::getNanos));
+
+        synchronized void add(String name, long nanos) {
+            if (entries.size() == TOP_COUNT) {
+                if (entries.peek().getNanos() >= nanos)
+                    return;
+                entries.poll();
+            }
+            entries.add(new Entry(name, nanos, 1));
+        }
+
+        synchronized List<Entry> get() {
+            List<Entry> result = new ArrayList<>(entries);
+            result.sort(Comparator.comparingLong(Entry::getNanos).reversed());
+            return result;
+        }
+    }
+
+    /**
+     * @return current time to pass to {@link #lap(Timings, String, long)}
+     *         (zero if timings is null)
+     */
+    public static long start(Timings timings) {
+        return timings == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records the time elapsed since start to the given phase. Does nothing
+     * if timings is null.
+     * 
+     * @param timings timings to record to (may be null)
+     * @param phase name of the phase
+     * @param start phase start time
+     * @return current time to be used as the next phase start
+     */
+    public static long lap(Timings timings, String phase, long start) {
+        if (timings == null)
+            return 0;
+        long now = System.nanoTime();
+        timings.getPhaseTimer(phase).add(now - start);
+        return now;
+    }
+
+    public Timer getPhaseTimer(String phase) {
+        return phases.computeIfAbsent(phase, k -> new Timer());
+    }
+
+    public Timer getDetectorTimer(String detector) {
+        return detectors.computeIfAbsent(detector, k -> new Timer());
+    }
+
+    public void addClass(String className, long nanos) {
+        slowestClasses.add(className, nanos);
+    }
+
+    public void addMethod(String methodName, long nanos) {
+        slowestMethods.add(methodName, nanos);
+    }
+
+    /**
+     * @return analysis phases sorted by total time, descending
+     */
+    public List<Entry> getPhases() {
+        return sorted(phases);
+    }
+
+    /**
+     * @return detectors sorted by total time, descending
+     */
+    public List<Entry> getDetectors() {
+        return sorted(detectors);
+    }
+
+    public List<Entry> getSlowestClasses() {
+        return slowestClasses.get();
+    }
+
+    public List<Entry> getSlowestMethods() {
+        return slowestMethods.get();
+    }
+
+    private static List<Entry> sorted(Map<String, Timer> timers) {
+        return timers.entrySet().stream().map(e -> new Entry(e.getKey(), e.getValue().getNanos(), e.getValue()
+                .getCount())).sorted(Comparator.comparingLong(Entry::getNanos).reversed().thenComparing(
+            Entry::getName)).collect(Collectors.toList());
+    }
+
+    public void report(PrintStream out) {
+        out.append("Timings:\n");
+        report(out, "Phases", getPhases(), true);
+        report(out, "Detectors", getDetectors(), true);
+        report(out, "Slowest classes", getSlowestClasses(), false);
+        report(out, "Slowest methods", getSlowestMethods(), false);
+    }
+
+    private static void report(PrintStream out, String title, List<Entry> entries, boolean counts) {
+        if (entries.isEmpty())
+            return;
+        out.append("\t").append(title).append(":\n");
+        for (Entry entry : entries) {
+            if (counts)
+                out.printf(Locale.ENGLISH, "\t\t%s: %.1f ms (%d calls)%n", entry.getName(), entry.getNanos() / 1e6,
+                    entry.getCount());
+            else
+                out.printf(Locale.ENGLISH, "\t\t%s: %.1f ms%n", entry.getName(), entry.getNanos() / 1e6);
+        }
+    }
+}
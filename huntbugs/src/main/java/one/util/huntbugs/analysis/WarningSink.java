@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.analysis;
+
+import one.util.huntbugs.warning.Warning;
+
+/**
+ * Receiver of the warnings finalized during the analysis. By default the
+ * {@link Context} keeps all the warnings in memory; a custom sink installed
+ * via {@link Context#setWarningSink(WarningSink)} may process them in
+ * streaming manner instead.
+ */
+@FunctionalInterface
+public interface WarningSink {
+    /**
+     * Called for every warning which passes the analysis options. Calls are
+     * never concurrent. In parallel mode the warnings of the single class
+     * arrive together, and classes arrive in the same order as in sequential
+     * mode.
+     * 
+     * @param warning warning to accept
+     */
+    public void accept(Warning warning);
+}
@@ -15,8 +15,14 @@
  */
 package one.util.huntbugs.db;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.annotations.AnnotationElement;
@@ -62,6 +68,50 @@ public class DeclaredAnnotations extends AbstractTypeDatabase<DeclaredAnnotation
         }
     }
 
+    @Override
+    protected boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void merge(AbstractTypeDatabase<DeclaredAnnotation> shard) {
+        shard.forEachElement((name, shardDa) -> {
+            DeclaredAnnotation da = getOrCreate(name);
+            if (shardDa.policy != RetentionPolicy.CLASS)
+                da.policy = shardDa.policy;
+        });
+    }
+
+    @Override
+    protected boolean isSnapshotSupported() {
+        return true;
+    }
+
+    @Override
+    protected void writeSnapshot(DataOutput out) throws IOException {
+        Map<String, DeclaredAnnotation> map = new HashMap<>();
+        forEachElement(map::put);
+        out.writeInt(map.size());
+        for (Map.Entry<String, DeclaredAnnotation> e : map.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeUTF(e.getValue().policy.name());
+        }
+    }
+
+    @Override
+    protected void readSnapshot(DataInput in) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            getOrCreate(in.readUTF()).policy = RetentionPolicy.valueOf(in.readUTF());
+        }
+    }
+
+    @Override
+    protected boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+        DeclaredAnnotation da = get(internalName);
+        out.writeUTF(da == null ? "" : da.policy.name());
+        return true;
+    }
+
     @TypeDatabaseItem(parentDatabase = DeclaredAnnotations.class)
     public static class DeclaredAnnotation {
         RetentionPolicy policy = RetentionPolicy.CLASS;
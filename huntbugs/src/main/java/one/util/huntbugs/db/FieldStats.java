@@ -15,6 +15,9 @@
  */
 package one.util.huntbugs.db;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Deque;
@@ -22,6 +25,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import com.strobel.assembler.ir.Instruction;
 import com.strobel.assembler.ir.OpCode;
@@ -232,6 +237,74 @@ public class FieldStats extends AbstractTypeDatabase<FieldStats.TypeFieldStats>{
         }
     }
 
+    @Override
+    protected boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void merge(AbstractTypeDatabase<TypeFieldStats> shard) {
+        shard.forEachElement((name, shardTfs) -> getOrCreate(name).merge(shardTfs));
+    }
+
+    @Override
+    protected boolean isSnapshotSupported() {
+        return true;
+    }
+
+    @Override
+    protected void writeSnapshot(DataOutput out) throws IOException {
+        Map<String, TypeFieldStats> map = new HashMap<>();
+        forEachElement(map::put);
+        out.writeInt(map.size());
+        for (Map.Entry<String, TypeFieldStats> e : map.entrySet()) {
+            out.writeUTF(e.getKey());
+            Map<String, Integer> fieldRecords = e.getValue().fieldRecords;
+            if (fieldRecords == null) {
+                out.writeInt(-1);
+                continue;
+            }
+            out.writeInt(fieldRecords.size());
+            for (Map.Entry<String, Integer> record : fieldRecords.entrySet()) {
+                out.writeUTF(record.getKey());
+                out.writeInt(record.getValue());
+            }
+        }
+    }
+
+    @Override
+    protected void readSnapshot(DataInput in) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            TypeFieldStats tfs = getOrCreate(in.readUTF());
+            int count = in.readInt();
+            if (count < 0) {
+                tfs.linkUncontrolled();
+                continue;
+            }
+            for (int j = 0; j < count; j++) {
+                tfs.fieldRecords.put(in.readUTF(), in.readInt());
+            }
+        }
+    }
+
+    @Override
+    protected boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+        TypeFieldStats tfs = get(internalName);
+        if (tfs == null) {
+            out.writeInt(-2);
+        } else if (tfs.fieldRecords == null) {
+            out.writeInt(-1);
+        } else {
+            Map<String, Integer> records = new TreeMap<>(tfs.fieldRecords);
+            out.writeInt(records.size());
+            for (Map.Entry<String, Integer> record : records.entrySet()) {
+                out.writeUTF(record.getKey());
+                out.writeInt(record.getValue());
+            }
+        }
+        return true;
+    }
+
     public int getFlags(FieldReference fr) {
         TypeFieldStats fs = get(fr.getDeclaringType());
         return fs == null ? UNRESOLVED : fs.getFlags(fr.getName()); 
@@ -257,6 +330,16 @@ public class FieldStats extends AbstractTypeDatabase<FieldStats.TypeFieldStats>{
         void linkUncontrolled() {
             fieldRecords = null;
         }
+        
+        void merge(TypeFieldStats other) {
+            if(fieldRecords == null)
+                return;
+            if(other.fieldRecords == null) {
+                linkUncontrolled();
+                return;
+            }
+            other.fieldRecords.forEach((name, flags) -> fieldRecords.merge(name, flags, (a, b) -> a | b));
+        }
 
         void link(MethodDefinition src, FieldReference fr, boolean isStatic, boolean write, boolean hadNull) {
             if(fieldRecords == null)
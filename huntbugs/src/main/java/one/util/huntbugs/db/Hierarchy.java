@@ -15,9 +15,20 @@
  */
 package one.util.huntbugs.db;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 import com.strobel.assembler.metadata.Flags;
 import com.strobel.assembler.metadata.IMetadataResolver;
@@ -51,6 +62,90 @@ public class Hierarchy extends AbstractTypeDatabase<Hierarchy.TypeHierarchy> {
             link(th, id);
     }
     
+    @Override
+    protected boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void merge(AbstractTypeDatabase<TypeHierarchy> shard) {
+        shard.forEachElement((name, shardTh) -> {
+            TypeHierarchy th = getOrCreate(name);
+            if (shardTh.isResolved())
+                th.flags = shardTh.flags;
+            for (TypeHierarchy superTh : shardTh.superClasses) {
+                TypeHierarchy newSuperTh = getOrCreate(superTh.internalName);
+                th.superClasses.add(newSuperTh);
+                newSuperTh.subClasses.add(th);
+            }
+        });
+    }
+    
+    @Override
+    protected boolean isSnapshotSupported() {
+        return true;
+    }
+
+    @Override
+    protected void writeSnapshot(DataOutput out) throws IOException {
+        List<TypeHierarchy> list = new ArrayList<>();
+        forEachElement((name, th) -> list.add(th));
+        out.writeInt(list.size());
+        for (TypeHierarchy th : list) {
+            out.writeUTF(th.internalName);
+            out.writeLong(th.flags);
+            out.writeInt(th.superClasses.size());
+            for (TypeHierarchy superTh : th.superClasses) {
+                out.writeUTF(superTh.internalName);
+            }
+        }
+    }
+
+    @Override
+    protected void readSnapshot(DataInput in) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            TypeHierarchy th = getOrCreate(in.readUTF());
+            th.flags = in.readLong();
+            for (int j = in.readInt(); j > 0; j--) {
+                TypeHierarchy superTh = getOrCreate(in.readUTF());
+                th.superClasses.add(superTh);
+                superTh.subClasses.add(th);
+            }
+        }
+    }
+    
+    @Override
+    protected boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+        TypeHierarchy th = get(internalName);
+        if (th == null) {
+            out.writeBoolean(false);
+            return true;
+        }
+        out.writeBoolean(true);
+        out.writeLong(th.flags);
+        Set<String> superNames = new TreeSet<>();
+        th.superClasses.forEach(superTh -> superNames.add(superTh.internalName));
+        out.writeInt(superNames.size());
+        for (String name : superNames) {
+            out.writeUTF(name);
+        }
+        // Subclasses are resolved to find the overriding methods
+        Map<String, TypeHierarchy> subClasses = new TreeMap<>();
+        Deque<TypeHierarchy> queue = new ArrayDeque<>(th.subClasses);
+        while (!queue.isEmpty()) {
+            TypeHierarchy subTh = queue.poll();
+            if (subClasses.put(subTh.internalName, subTh) == null)
+                queue.addAll(subTh.subClasses);
+        }
+        out.writeInt(subClasses.size());
+        for (TypeHierarchy subTh : subClasses.values()) {
+            out.writeUTF(subTh.internalName);
+            out.writeLong(subTh.flags);
+            classes.accept(subTh.internalName);
+        }
+        return true;
+    }
+
     public boolean isOverridden(MethodDefinition md) {
         if(md.isStatic() || md.isFinal() || md.getDeclaringType().isFinal())
             return false;
@@ -15,19 +15,37 @@
  */
 package one.util.huntbugs.db;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import com.strobel.assembler.ir.ExceptionHandler;
 import com.strobel.assembler.ir.Instruction;
+import com.strobel.assembler.ir.OpCode;
 import com.strobel.assembler.metadata.FieldDefinition;
 import com.strobel.assembler.metadata.FieldReference;
 import com.strobel.assembler.metadata.Flags;
 import com.strobel.assembler.metadata.MethodBody;
 import com.strobel.assembler.metadata.MethodDefinition;
 import com.strobel.assembler.metadata.MethodReference;
+import com.strobel.assembler.metadata.SwitchInfo;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
+import com.strobel.assembler.metadata.VariableReference;
 
 import one.util.huntbugs.registry.AbstractTypeDatabase;
 import one.util.huntbugs.registry.anno.TypeDatabase;
@@ -47,8 +65,22 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
     public static final long METHOD_NON_TRIVIAL = 0x10;
     public static final long METHOD_FINAL = 0x20;
     public static final long METHOD_SUPPORTED = 0x40;
+    /**
+     * Method always returns non-null value. Known only if the method summaries
+     * were computed (see {@link #complete(ExecutorService)}).
+     */
+    public static final long METHOD_NONNULL_RETURN = 0x80;
+
+    // Local flags which are used to compute the summaries
+    private static final long METHOD_RETURNS_OBJECT = 0x100;
+    private static final long METHOD_RETURNS_UNKNOWN = 0x200;
+    private static final long METHOD_CALLS_UNKNOWN = 0x400;
+
+    private static final int SCC_BATCH_SIZE = 256;
 
     Map<MemberInfo, MethodData> data = new HashMap<>();
+    // Methods by declaring type, built on demand by writeFacts
+    private Map<String, List<MemberInfo>> byType;
 
     public MethodStats() {
         super(type -> Boolean.TRUE);
@@ -73,6 +105,7 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
 
     @Override
     protected void visitType(TypeDefinition td) {
+        byType = null;
         for (MethodDefinition md : td.getDeclaredMethods()) {
             MethodData mdata = getMethodData(md);
             if (md.isFinal() || td.isFinal() || md.isStatic() || md.isPrivate()) {
@@ -85,6 +118,346 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
         }
     }
 
+    @Override
+    protected boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void merge(AbstractTypeDatabase<Boolean> shard) {
+        byType = null;
+        Map<MemberInfo, MethodData> shardMap = ((MethodStats) shard).data;
+        Map<MethodData, MethodData> mapping = new IdentityHashMap<>();
+        // Abstract methods may share the data with their super methods, so the
+        // shared data is resolved to the existing owner first regardless of
+        // which of the aliases is visited first
+        shardMap.forEach((mi, shardData) -> {
+            MethodData mdata = data.get(mi);
+            if (mdata != null) {
+                mapping.putIfAbsent(shardData, mdata);
+                mdata.flags |= shardData.flags;
+            }
+        });
+        shardMap.forEach((mi, shardData) -> {
+            if (!data.containsKey(mi)) {
+                MethodData mdata = mapping.computeIfAbsent(shardData, k -> new MethodData());
+                data.put(mi, mdata);
+                mdata.flags |= shardData.flags;
+            }
+        });
+        mapping.forEach((shardData, mdata) -> {
+            if (shardData.subMethods != null) {
+                for (MethodData subMethod : shardData.subMethods) {
+                    mdata.addSubMethod(mapping.get(subMethod));
+                }
+            }
+            if (shardData.calls != null) {
+                for (Call call : shardData.calls) {
+                    mdata.addCall(call);
+                }
+            }
+        });
+    }
+
+    @Override
+    protected boolean isSnapshotSupported() {
+        return true;
+    }
+
+    @Override
+    protected void writeSnapshot(DataOutput out) throws IOException {
+        // Method data may be shared and linked, so it's written separately and referred by index
+        Map<MethodData, Integer> ids = new IdentityHashMap<>();
+        List<MethodData> list = new ArrayList<>();
+        for (MethodData mdata : data.values()) {
+            if (ids.putIfAbsent(mdata, list.size()) == null)
+                list.add(mdata);
+        }
+        out.writeInt(list.size());
+        for (MethodData mdata : list) {
+            out.writeLong(mdata.flags);
+        }
+        for (MethodData mdata : list) {
+            if (mdata.subMethods == null) {
+                out.writeInt(0);
+                continue;
+            }
+            out.writeInt(mdata.subMethods.size());
+            for (MethodData subMethod : mdata.subMethods) {
+                out.writeInt(ids.get(subMethod));
+            }
+        }
+        // Call targets are written once and referred by index as well
+        Map<MemberInfo, Integer> targetIds = new HashMap<>();
+        List<MemberInfo> targets = new ArrayList<>();
+        for (MethodData mdata : list) {
+            if (mdata.calls != null) {
+                for (Call call : mdata.calls) {
+                    if (targetIds.putIfAbsent(call.target, targets.size()) == null)
+                        targets.add(call.target);
+                }
+            }
+        }
+        out.writeInt(targets.size());
+        for (MemberInfo mi : targets) {
+            writeMemberInfo(out, mi);
+        }
+        for (MethodData mdata : list) {
+            if (mdata.calls == null) {
+                out.writeInt(0);
+                continue;
+            }
+            out.writeInt(mdata.calls.size());
+            for (Call call : mdata.calls) {
+                out.writeInt(targetIds.get(call.target));
+                out.writeByte(call.kind);
+            }
+        }
+        out.writeInt(data.size());
+        for (Map.Entry<MemberInfo, MethodData> e : data.entrySet()) {
+            writeMemberInfo(out, e.getKey());
+            out.writeInt(ids.get(e.getValue()));
+        }
+    }
+
+    private static void writeMemberInfo(DataOutput out, MemberInfo mi) throws IOException {
+        out.writeUTF(mi.getTypeName());
+        out.writeUTF(mi.getName());
+        out.writeUTF(mi.getSignature());
+    }
+
+    private static MemberInfo readMemberInfo(DataInput in) throws IOException {
+        return new MemberInfo(in.readUTF(), in.readUTF(), in.readUTF());
+    }
+
+    @Override
+    protected void readSnapshot(DataInput in) throws IOException {
+        byType = null;
+        MethodData[] list = new MethodData[in.readInt()];
+        for (int i = 0; i < list.length; i++) {
+            list[i] = new MethodData();
+            list[i].flags = in.readLong();
+        }
+        for (MethodData mdata : list) {
+            for (int i = in.readInt(); i > 0; i--) {
+                mdata.addSubMethod(list[in.readInt()]);
+            }
+        }
+        MemberInfo[] targets = new MemberInfo[in.readInt()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = readMemberInfo(in);
+        }
+        for (MethodData mdata : list) {
+            for (int i = in.readInt(); i > 0; i--) {
+                MemberInfo target = targets[in.readInt()];
+                mdata.addCall(new Call(target, in.readByte()));
+            }
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            MemberInfo mi = readMemberInfo(in);
+            data.put(mi, list[in.readInt()]);
+        }
+    }
+
+    /**
+     * Writes the flags visible through {@link MethodData} for every method of
+     * the type: own flags and the flags of all the overriding methods
+     */
+    @Override
+    protected boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+        if (byType == null) {
+            byType = new HashMap<>();
+            for (MemberInfo mi : data.keySet()) {
+                byType.computeIfAbsent(mi.getTypeName(), k -> new ArrayList<>()).add(mi);
+            }
+        }
+        List<MemberInfo> methods = new ArrayList<>(byType.getOrDefault(internalName, Collections.emptyList()));
+        methods.sort(Comparator.comparing(MemberInfo::getName).thenComparing(MemberInfo::getSignature));
+        out.writeInt(methods.size());
+        for (MemberInfo mi : methods) {
+            MethodData mdata = data.get(mi);
+            out.writeUTF(mi.getName());
+            out.writeUTF(mi.getSignature());
+            out.writeLong(mdata.getFlags());
+            out.writeLong(mdata.getSubMethodFlags(Collections.newSetFromMap(new IdentityHashMap<>())));
+        }
+        return true;
+    }
+
+    /**
+     * Computes the interprocedural method summaries: side effects and non-null
+     * returns of the methods are refined using the summaries of the called
+     * methods. The call graph is split into strongly connected components
+     * which are processed bottom-up, so every summary is computed once and
+     * reused by all the callers. Components of the same height do not depend
+     * on each other, thus they are processed concurrently if executor is
+     * supplied.
+     */
+    @Override
+    protected void complete(ExecutorService executor) {
+        byType = null;
+        Map<MethodData, Integer> ids = new IdentityHashMap<>();
+        List<MethodData> nodes = new ArrayList<>();
+        for (MethodData mdata : data.values()) {
+            if (ids.putIfAbsent(mdata, nodes.size()) == null)
+                nodes.add(mdata);
+        }
+        int[][] edges = new int[nodes.size()][];
+        for (int i = 0; i < edges.length; i++) {
+            MethodData mdata = nodes.get(i);
+            int callCount = mdata.calls == null ? 0 : mdata.calls.size();
+            int[] targets = new int[callCount];
+            int count = 0;
+            if (callCount > 0) {
+                mdata.callees = new MethodData[callCount];
+                for (int j = 0; j < callCount; j++) {
+                    Call call = mdata.calls.get(j);
+                    MethodData callee = data.get(call.target);
+                    mdata.callees[j] = callee;
+                    // Summaries are used for exact calls only
+                    if (callee != null && (call.is(Call.EXACT) || (callee.flags & METHOD_FINAL) != 0))
+                        targets[count++] = ids.get(callee);
+                }
+            }
+            edges[i] = count == targets.length ? targets : Arrays.copyOf(targets, count);
+        }
+        List<int[]> components = getComponents(edges);
+        int[] componentIds = new int[edges.length];
+        List<List<MethodData[]>> levels = new ArrayList<>();
+        int[] heights = new int[components.size()];
+        for (int c = 0; c < components.size(); c++) {
+            int[] component = components.get(c);
+            for (int node : component) {
+                componentIds[node] = c;
+            }
+            int height = 0;
+            for (int node : component) {
+                for (int target : edges[node]) {
+                    if (componentIds[target] != c)
+                        height = Math.max(height, heights[componentIds[target]] + 1);
+                }
+            }
+            heights[c] = height;
+            if (height == levels.size())
+                levels.add(new ArrayList<>());
+            MethodData[] scc = new MethodData[component.length];
+            for (int i = 0; i < component.length; i++) {
+                scc[i] = nodes.get(component[i]);
+            }
+            levels.get(height).add(scc);
+        }
+        for (List<MethodData[]> level : levels) {
+            summarize(level, executor);
+        }
+    }
+
+    private static void summarize(List<MethodData[]> level, ExecutorService executor) {
+        if (executor == null || level.size() <= SCC_BATCH_SIZE) {
+            level.forEach(MethodStats::summarize);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int from = 0; from < level.size(); from += SCC_BATCH_SIZE) {
+            List<MethodData[]> batch = level.subList(from, Math.min(level.size(), from + SCC_BATCH_SIZE));
+            tasks.add(() -> {
+                batch.forEach(MethodStats::summarize);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Computes the summaries of the single strongly connected component
+     * assuming that the summaries of all the called components are known. The
+     * summaries are optimistic at start and only weakened while iterating, so
+     * the mutually recursive methods are not penalized.
+     */
+    private static void summarize(MethodData[] scc) {
+        for (MethodData mdata : scc) {
+            mdata.summary = mdata.flags;
+            if ((mdata.flags & (METHOD_RETURNS_OBJECT | METHOD_RETURNS_UNKNOWN)) == METHOD_RETURNS_OBJECT)
+                mdata.summary |= METHOD_NONNULL_RETURN;
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (MethodData mdata : scc) {
+                long summary = mdata.computeSummary();
+                if (summary != mdata.summary) {
+                    mdata.summary = summary;
+                    changed = true;
+                }
+            }
+        }
+        for (MethodData mdata : scc) {
+            mdata.callees = null;
+        }
+    }
+
+    /**
+     * Finds strongly connected components of the graph using iterative
+     * Tarjan's algorithm.
+     * 
+     * @param edges adjacent nodes for every node
+     * @return components in reverse topological order: every component
+     *         appears after all the components reachable from it
+     */
+    static List<int[]> getComponents(int[][] edges) {
+        int n = edges.length;
+        int[] index = new int[n], low = new int[n], pos = new int[n], stack = new int[n], path = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+        int sp = 0, depth = 0, counter = 0;
+        List<int[]> result = new ArrayList<>();
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0)
+                continue;
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            path[depth++] = root;
+            while (depth > 0) {
+                int node = path[depth - 1];
+                if (pos[node] < edges[node].length) {
+                    int target = edges[node][pos[node]++];
+                    if (index[target] < 0) {
+                        index[target] = low[target] = counter++;
+                        stack[sp++] = target;
+                        onStack[target] = true;
+                        path[depth++] = target;
+                    } else if (onStack[target]) {
+                        low[node] = Math.min(low[node], index[target]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    int start = sp;
+                    do {
+                        onStack[stack[--start]] = false;
+                    } while (stack[start] != node);
+                    result.add(Arrays.copyOfRange(stack, start, sp));
+                    sp = start;
+                }
+            }
+        }
+        return result;
+    }
+
     public MethodData getStats(MemberInfo mi) {
         return data.get(mi);
     }
@@ -110,6 +483,7 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
             mdata.flags |= METHOD_NON_TRIVIAL;
         }
         boolean sawUnsupported = false, sawOtherNew = false;
+        BitSet jumpTargets = null;
         for (Instruction instr : body.getInstructions()) {
             switch (instr.getOpCode()) {
             case NEW: {
@@ -127,7 +501,8 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
             case INVOKEVIRTUAL: {
                 MethodReference mr = (MethodReference) instr.getOperand(0);
                 if (!Methods.isSideEffectFree(mr)) {
-                    mdata.flags |= METHOD_MAY_HAVE_SIDE_EFFECT;
+                    mdata.flags |= METHOD_CALLS_UNKNOWN;
+                    mdata.addCall(new Call(new MemberInfo(mr), Call.SIDE_EFFECT | Call.getExactKind(instr)));
                 }
                 if (Methods.knownToThrow(mr)) {
                     mdata.flags |= METHOD_MAY_THROW;
@@ -161,6 +536,11 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
                 mdata.flags |= METHOD_MAY_THROW;
                 break;
             case ARETURN:
+                if (jumpTargets == null)
+                    jumpTargets = getJumpTargets(body);
+                mdata.flags |= METHOD_MAY_RETURN_NORMALLY | METHOD_RETURNS_OBJECT;
+                visitReturn(mdata, body, instr, jumpTargets);
+                break;
             case IRETURN:
             case LRETURN:
             case FRETURN:
@@ -177,9 +557,108 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
         }
     }
 
+    private static void visitReturn(MethodData mdata, MethodBody body, Instruction instr, BitSet jumpTargets) {
+        Instruction source = instr;
+        do {
+            // Several values may reach the return instruction
+            if (jumpTargets.get(source.getOffset())) {
+                mdata.flags |= METHOD_RETURNS_UNKNOWN;
+                return;
+            }
+            source = source.getPrevious();
+        } while (source != null && source.getOpCode() == OpCode.CHECKCAST);
+        if (source == null) {
+            mdata.flags |= METHOD_RETURNS_UNKNOWN;
+            return;
+        }
+        switch (source.getOpCode()) {
+        case LDC:
+        case LDC_W:
+        case NEWARRAY:
+        case ANEWARRAY:
+        case MULTIANEWARRAY:
+            return;
+        case ALOAD_0:
+            if (body.hasThis())
+                return;
+            break;
+        case ALOAD:
+            if (body.hasThis() && source.<VariableReference> getOperand(0).getSlot() == 0)
+                return;
+            break;
+        case INVOKESPECIAL:
+        case INVOKESTATIC:
+        case INVOKEVIRTUAL:
+        case INVOKEINTERFACE: {
+            MethodReference mr = source.getOperand(0);
+            if (mr.isConstructor())
+                return;
+            mdata.addCall(new Call(new MemberInfo(mr), Call.RETURNED | Call.getExactKind(source)));
+            return;
+        }
+        default:
+        }
+        mdata.flags |= METHOD_RETURNS_UNKNOWN;
+    }
+
+    private static BitSet getJumpTargets(MethodBody body) {
+        BitSet targets = new BitSet();
+        for (Instruction instr : body.getInstructions()) {
+            switch (instr.getOpCode().getOperandType()) {
+            case BranchTarget:
+            case BranchTargetWide:
+                targets.set(instr.<Instruction> getOperand(0).getOffset());
+                break;
+            case Switch: {
+                SwitchInfo si = instr.getOperand(0);
+                targets.set(si.getDefaultTarget().getOffset());
+                for (Instruction target : si.getTargets()) {
+                    targets.set(target.getOffset());
+                }
+                break;
+            }
+            default:
+            }
+        }
+        for (ExceptionHandler handler : body.getExceptionHandlers()) {
+            targets.set(handler.getHandlerBlock().getFirstInstruction().getOffset());
+        }
+        return targets;
+    }
+
+    static class Call {
+        static final byte EXACT = 0x1;
+        static final byte SIDE_EFFECT = 0x2;
+        static final byte RETURNED = 0x4;
+
+        final MemberInfo target;
+        final byte kind;
+
+        Call(MemberInfo target, int kind) {
+            this.target = target;
+            this.kind = (byte) kind;
+        }
+
+        boolean is(byte flag) {
+            return (kind & flag) != 0;
+        }
+
+        static int getExactKind(Instruction instr) {
+            OpCode code = instr.getOpCode();
+            return code == OpCode.INVOKESPECIAL || code == OpCode.INVOKESTATIC ? EXACT : 0;
+        }
+    }
+
     public static class MethodData {
+        private static final long NO_SUMMARY = -1;
+
         private List<MethodData> subMethods;
+        private List<Call> calls;
+        // callee for every call, known only during the completion
+        MethodData[] callees;
         long flags;
+        // flags refined using the callees, written only once the callees are summarized
+        long summary = NO_SUMMARY;
 
         void addSubMethod(MethodData md) {
             if (md == this)
@@ -190,8 +669,51 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
             subMethods.add(md);
         }
 
+        void addCall(Call call) {
+            if (calls == null) {
+                calls = new ArrayList<>();
+            }
+            calls.add(call);
+        }
+
+        private long getFlags() {
+            long summary = this.summary;
+            if (summary != NO_SUMMARY)
+                return summary;
+            // Without the summary every unknown call is assumed to have side effect
+            return (flags & METHOD_CALLS_UNKNOWN) != 0 ? flags | METHOD_MAY_HAVE_SIDE_EFFECT : flags;
+        }
+
+        long getSubMethodFlags(Set<MethodData> visited) {
+            long result = 0;
+            if (subMethods != null) {
+                for (MethodData subMethod : subMethods) {
+                    if (visited.add(subMethod))
+                        result |= subMethod.getFlags() | subMethod.getSubMethodFlags(visited);
+                }
+            }
+            return result;
+        }
+
+        long computeSummary() {
+            long result = summary;
+            if (callees == null)
+                return result;
+            for (int i = 0; i < callees.length; i++) {
+                Call call = calls.get(i);
+                MethodData callee = callees[i];
+                // Virtual calls may be dispatched to the methods which are not visited
+                boolean known = callee != null && (call.is(Call.EXACT) || (callee.flags & METHOD_FINAL) != 0);
+                if (call.is(Call.SIDE_EFFECT) && (!known || callee.testAny(METHOD_MAY_HAVE_SIDE_EFFECT, true)))
+                    result |= METHOD_MAY_HAVE_SIDE_EFFECT;
+                if (call.is(Call.RETURNED) && (!known || callee.mayReturnNull(true)))
+                    result &= ~METHOD_NONNULL_RETURN;
+            }
+            return result;
+        }
+
         public boolean testAny(long flag, boolean exact) {
-            if ((flags & flag) != 0)
+            if ((getFlags() & flag) != 0)
                 return true;
             if (!exact && subMethods != null) {
                 for (MethodData subMethod : subMethods) {
@@ -210,5 +732,13 @@ public class MethodStats extends AbstractTypeDatabase<Boolean> {
                 return true;
             return false;
         }
+
+        /**
+         * @param exact whether the call is exact (not virtual)
+         * @return false if the method is known to return non-null value
+         */
+        public boolean mayReturnNull(boolean exact) {
+            return !(exact || (flags & METHOD_FINAL) != 0) || !testAny(METHOD_NONNULL_RETURN, true);
+        }
     }
 }
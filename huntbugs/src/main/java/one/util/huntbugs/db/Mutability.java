@@ -15,6 +15,13 @@
  */
 package one.util.huntbugs.db;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 import com.strobel.assembler.metadata.FieldDefinition;
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
@@ -44,6 +51,48 @@ public class Mutability extends AbstractTypeDatabase<Boolean> {
         }
     }
     
+    @Override
+    protected boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void merge(AbstractTypeDatabase<Boolean> shard) {
+        shard.forEachElement((name, value) -> getOrCreate(name));
+    }
+    
+    @Override
+    protected boolean isSnapshotSupported() {
+        return true;
+    }
+
+    @Override
+    protected void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(size());
+        for (String name : names()) {
+            out.writeUTF(name);
+        }
+    }
+
+    @Override
+    protected void readSnapshot(DataInput in) throws IOException {
+        for (int i = in.readInt(); i > 0; i--) {
+            getOrCreate(in.readUTF());
+        }
+    }
+
+    @Override
+    protected boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+        out.writeBoolean(get(internalName) != null);
+        return true;
+    }
+
+    private List<String> names() {
+        List<String> names = new ArrayList<>();
+        forEachElement((name, value) -> names.add(name));
+        return names;
+    }
+    
     public boolean isKnownMutable(TypeReference tr) {
         return get(tr.getInternalName()) != null;
     }
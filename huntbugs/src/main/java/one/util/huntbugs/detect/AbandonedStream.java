@@ -21,6 +21,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -35,7 +36,7 @@ import one.util.huntbugs.util.Types;
 @WarningDefinition(category="Correctness", name="AbandonedStream", maxScore=80)
 @WarningDefinition(category="BadPractice", name="StreamMethodMayNotReturnItself", maxScore=30)
 public class AbandonedStream {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS, minVersion=8)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, minVersion=8, facts=Fact.BACKLINK)
     public void visit(Expression expr, MethodContext mc) {
         if(expr.getCode() == AstCode.InvokeInterface) {
             MethodReference mr = (MethodReference) expr.getOperand();
@@ -19,6 +19,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -38,7 +39,7 @@ public class AppendObjectOutputStream {
     private static final LocationRole STREAM_CREATED_AT = LocationRole.forName("STREAM_CREATED_AT");
     private static final TypeRole OOS_TYPE = TypeRole.forName("OOS_TYPE");
     
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST})
     public void visit(Expression expr, MethodContext mc) {
         if (expr.getCode() != AstCode.InitObject)
             return;
@@ -19,6 +19,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -43,7 +44,7 @@ public class ArrayRangeCheck {
     private static final NumberRole MAX_LENGTH = NumberRole.forName("MAX_LENGTH");  
     private static final long IMPOSSIBLE_ARRAY_LENGTH = Integer.MAX_VALUE + 1L;
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST})
     public void visit(MethodContext mc, NodeChain nc, Expression expr) {
         if ((expr.getCode() == AstCode.LoadElement || expr.getCode() == AstCode.StoreElement)
                 && !nc.isInTry("java/lang/ArrayIndexOutOfBoundsException", "java/lang/IndexOutOfBoundsException")) {
@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Condition;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -44,7 +45,7 @@ public class AtomicConcurrent {
     private static final MemberRole FIRST_METHOD = MemberRole.forName("FIRST_METHOD"); 
     private static final MemberRole SECOND_METHOD = MemberRole.forName("SECOND_METHOD"); 
     
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.PURITY})
     public void visit(Expression expr, NodeChain nc, MethodContext mc, MethodDefinition md) {
         if (expr.getCode() == AstCode.InvokeVirtual || expr.getCode() == AstCode.InvokeInterface) {
             MethodReference mr = (MethodReference) expr.getOperand();
@@ -18,6 +18,7 @@ package one.util.huntbugs.detect;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -31,7 +32,7 @@ import one.util.huntbugs.util.Nodes;
  */
 @WarningDefinition(category = "BadPractice", name = "AverageComputationCouldOverflow", maxScore = 35)
 public class AverageComputation {
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST})
     public void visitExpression(Expression expr, MethodContext mc) {
         if (expr.getCode() != AstCode.LoadElement && expr.getCode() != AstCode.StoreElement)
             return;
@@ -21,6 +21,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -54,7 +55,7 @@ public class BadMath {
     private static final NumberRole AND_OPERAND = NumberRole.forName("AND_OPERAND");
     private static final NumberRole OR_OPERAND = NumberRole.forName("OR_OPERAND");
     
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST, Fact.BACKLINK})
     public void checkWrongPriority(Expression expr, MethodContext mc, MethodDefinition md) {
         if(expr.getCode() == AstCode.Shl) {
             Expression leftOp = expr.getArguments().get(0);
@@ -85,7 +86,7 @@ public class BadMath {
         }
     }
     
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST, Fact.BACKLINK})
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
         TypeReference inferredType = expr.getInferredType();
         if (inferredType == null)
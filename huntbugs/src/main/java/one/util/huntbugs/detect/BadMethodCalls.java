@@ -27,6 +27,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.flow.etype.EType;
@@ -76,7 +77,7 @@ public class BadMethodCalls {
     private static final StringRole BIGDECIMAL_NUMBER = StringRole.forName("BIGDECIMAL_NUMBER");
     private static final TypeRole ARG_TYPE = TypeRole.forName("ARG_TYPE");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST, Fact.ETYPE, Fact.PURITY})
     public void visit(Expression node, NodeChain nc, MethodContext ctx, MethodDefinition curMethod) {
         if (Nodes.isInvoke(node) && node.getCode() != AstCode.InvokeDynamic) {
             check(node, (MethodReference) node.getOperand(), nc, ctx, curMethod);
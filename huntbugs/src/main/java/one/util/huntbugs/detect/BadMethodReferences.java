@@ -24,6 +24,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -37,7 +38,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category="Correctness", name="MaxMinMethodReferenceForComparator", maxScore=90)
 public class BadMethodReferences {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS, minVersion=8)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, minVersion=8, facts={})
     public void visit(Expression expr, MethodContext mc) {
         if(expr.getCode() == AstCode.InvokeDynamic) {
             DynamicCallSite dcs = (DynamicCallSite)expr.getOperand();
@@ -20,6 +20,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -39,7 +40,7 @@ import one.util.huntbugs.warning.Roles;
 public class BadMonitorObject {
     private static final TypeRole MONITOR_TYPE = TypeRole.forName("MONITOR_TYPE");
     
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.SOURCE)
     public void visit(Expression expr, MethodContext mc) {
         if(expr.getCode() == AstCode.MonitorEnter) {
             Expression arg = expr.getArguments().get(0);
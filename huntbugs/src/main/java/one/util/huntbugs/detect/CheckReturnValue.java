@@ -20,6 +20,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -35,7 +36,7 @@ import one.util.huntbugs.util.Types;
 @WarningDefinition(category="BadPractice", name="ReturnValueOfRead", maxScore=60)
 @WarningDefinition(category="BadPractice", name="ReturnValueOfSkip", maxScore=50)
 public class CheckReturnValue {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.SOURCE)
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
         if(nc.getNode() instanceof Expression)
             return;
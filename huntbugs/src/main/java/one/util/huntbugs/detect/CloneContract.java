@@ -30,6 +30,7 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.Hierarchy.TypeHierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.ClassContext;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -62,7 +63,7 @@ public class CloneContract {
         return true;
     }
 
-    @AstVisitor(nodes=AstNodes.ROOT, methodName="clone")
+    @AstVisitor(nodes=AstNodes.ROOT, methodName="clone", facts=Fact.CONST)
     public void visitBody(MethodDefinition md, Block body, TypeDefinition td, MethodContext mc, TypeHierarchy th) {
         if(!md.isSynthetic() && md.getErasedSignature().startsWith("()")) {
             hasClone = true;
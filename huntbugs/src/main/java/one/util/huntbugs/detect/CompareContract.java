@@ -21,6 +21,7 @@ import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -51,7 +52,7 @@ public class CompareContract {
         return false;
     }
     
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.CONST, Fact.BACKLINK})
     public void visit(Expression expr, MethodContext mc) {
         if(MIN_VALUE.equals(Nodes.getConstant(expr))) {
             if(Inf.BACKLINK.findTransitiveUsages(expr, true).anyMatch(e -> e.getCode() == AstCode.Return)) {
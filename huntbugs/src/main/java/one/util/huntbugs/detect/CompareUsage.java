@@ -21,6 +21,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -38,7 +39,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "BadPractice", name = "NegatingComparatorResult", maxScore = 50)
 @WarningDefinition(category = "Correctness", name = "ComparingComparatorResultWithNumber", maxScore = 70)
 public class CompareUsage {
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST})
     public void visit(Expression expr, MethodContext mc) {
         if (expr.getCode() == AstCode.Neg) {
             Expression child = ValuesFlow.findFirst(Exprs.getChild(expr, 0), this::isCompare);
@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Condition;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -40,7 +41,7 @@ import one.util.huntbugs.warning.Role.LocationRole;
 public class ConditionChain {
     private static final LocationRole SAME_CONDITION = LocationRole.forName("SAME_CONDITION");
 
-    @AstVisitor
+    @AstVisitor(facts = Fact.PURITY)
     public void visit(Node node, MethodContext mc, MethodDefinition md) {
         if (node instanceof Condition) {
             Condition cond = (Condition) node;
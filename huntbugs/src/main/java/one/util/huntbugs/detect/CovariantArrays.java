@@ -25,6 +25,7 @@ import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.Hierarchy;
 import one.util.huntbugs.db.Hierarchy.TypeHierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -40,7 +41,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category="Correctness", name="ContravariantArrayStore", maxScore=60)
 public class CovariantArrays {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.SOURCE)
     public void visit(Expression expr, MethodContext mc, Hierarchy h) {
         if(expr.getCode() == AstCode.StoreElement) {
             TypeReference arrayType = ValuesFlow.reduceType(Exprs.getChild(expr, 0));
@@ -28,6 +28,8 @@ import com.strobel.decompiler.ast.CatchBlock;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.CFG;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
@@ -50,7 +52,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category="RedundantCode", name="DeadLocalStore", maxScore=50)
 @WarningDefinition(category="RedundantCode", name="UnusedLocalVariable", maxScore=35)
 public class DeadLocalStore {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.BACKLINK})
     public void visit(Expression expr, NodeChain nc, MethodContext mc, MethodDefinition md, TypeDefinition td) {
         if(expr.getCode() == AstCode.Return && expr.getArguments().size() == 1) {
             Expression arg = expr.getArguments().get(0);
@@ -84,10 +86,15 @@ public class DeadLocalStore {
                     if(usages.size() == 1 && usages.iterator().next() == expr) {
                         Set<Expression> storeUsages = Inf.BACKLINK.findUsages(expr);
                         if(storeUsages.isEmpty()) {
-                            if(mc.getCFG() != null && !mc.getCFG().isInCFG(expr)) {
+                            CFG cfg = mc.getCFG();
+                            if(cfg != null && !cfg.isInCFG(expr)) {
                                 // Was removed from CFG (probably inlined)
                                 return;
                             }
+                            if(cfg != null && cfg.isLiveAfter(expr, var)) {
+                                // Liveness analysis disagrees
+                                return;
+                            }
                             if(nc.getNode() instanceof CatchBlock && nc.getNode().getChildren().get(0) == expr
                                     && ((CatchBlock)nc.getNode()).getCaughtTypes().size() > 1) {
                                 // Exception variable in multi-catch block
@@ -119,8 +126,8 @@ public class DeadLocalStore {
                                 TypeReference tr = arg.getInferredType();
                                 if(tr != null && (tr.isPrimitive() || Types.isString(tr))) {
                                     // probably final constant var which is inlined when used
-                                    if (Nodes.find(root, n -> n != expr && n instanceof Expression
-                                            && ((Expression) n).getOperand() == var) == null) {
+                                    if (cfg != null ? cfg.getReferenceCount(var) == 1 : Nodes.find(root, n -> n != expr
+                                        && n instanceof Expression && ((Expression) n).getOperand() == var) == null) {
                                         if(Nodes.find(root, n -> n != arg && n instanceof Expression
                                             && val.equals(((Expression) n).getOperand())) != null)
                                             return;
@@ -133,8 +140,9 @@ public class DeadLocalStore {
                             if(var.isParameter()) {
                                 mc.report("DeadParameterStore", priority, expr);
                             } else {
-                                boolean unusedLocal = Nodes.find(root, n -> n instanceof Expression
-                                    && ((Expression) n).getOperand() == var && ((Expression) n).getCode() != AstCode.Store) == null;
+                                boolean unusedLocal = cfg != null ? !cfg.isVariableRead(var) : Nodes.find(root,
+                                    n -> n instanceof Expression && ((Expression) n).getOperand() == var
+                                        && ((Expression) n).getCode() != AstCode.Store) == null;
                                 String type;
                                 if (!unusedLocal) {
                                     type = "DeadLocalStore";
@@ -24,6 +24,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.CatchBlock;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -43,7 +44,7 @@ public class DubiousCatch {
         EXCEPTION_TO_WARNING.put("java/util/ConcurrentModificationException", "CatchConcurrentModificationException");
     }
     
-    @AstVisitor
+    @AstVisitor(facts = {})
     public void visit(Node node, MethodContext mc) {
         if(node instanceof CatchBlock) {
             CatchBlock block = (CatchBlock)node;
@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -40,7 +41,7 @@ import one.util.huntbugs.warning.Role.LocationRole;
 public class DuplicateAssignment {
     private static final LocationRole DUPLICATE_ASSIGNMENT_AT = LocationRole.forName("DUPLICATE_ASSIGNMENT_AT");
     
-    @AstVisitor
+    @AstVisitor(facts = {Fact.SOURCE, Fact.PURITY})
     public void visit(Node node, NodeChain nc, MethodDefinition md, MethodContext mc) {
         if(node instanceof Block) {
             List<Node> body = ((Block) node).getBody();
@@ -23,6 +23,7 @@ import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -43,7 +44,7 @@ public class EasyMockProblems {
             entry -> entry instanceof TypeInfoEntry && ((TypeInfoEntry) entry).getName().startsWith("org/easymock/"));
     }
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST})
     public void visit(Expression expr, MethodContext mc) {
         if (expr.getCode() == AstCode.InvokeStatic) {
             MethodReference mr = (MethodReference) expr.getOperand();
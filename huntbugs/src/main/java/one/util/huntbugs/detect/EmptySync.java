@@ -22,6 +22,7 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.TryCatchBlock;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -33,7 +34,7 @@ import one.util.huntbugs.util.Nodes;
  */
 @WarningDefinition(category="Multithreading", name="EmptySynchronizeBlock", maxScore=50)
 public class EmptySync {
-    @AstVisitor
+    @AstVisitor(facts = Fact.SOURCE)
     public void visit(Node node, MethodContext mc) {
         if(node instanceof Block) {
             List<Node> body = ((Block) node).getBody();
@@ -32,6 +32,7 @@ import com.strobel.decompiler.ast.Condition;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.ClassContext;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -69,7 +70,7 @@ public class EqualsContract {
     boolean alwaysFalse = false;
     boolean instanceCheckingEquals = false;
 
-    @AstVisitor(nodes = AstNodes.ROOT, methodName = "equals", methodSignature = "(Ljava/lang/Object;)Z")
+    @AstVisitor(nodes = AstNodes.ROOT, methodName = "equals", methodSignature = "(Ljava/lang/Object;)Z", facts = {Fact.SOURCE, Fact.CONST})
     public void visitEquals(Block body, MethodContext mc, TypeDefinition td) {
         List<Node> list = body.getBody();
         if (list.size() == 1) {
@@ -239,7 +240,7 @@ public class EqualsContract {
         return priority;
     }
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS, methodName = "equals", methodSignature = "(Ljava/lang/Object;)Z")
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, methodName = "equals", methodSignature = "(Ljava/lang/Object;)Z", facts = {Fact.SOURCE, Fact.CONST})
     public void visitEqualsExpression(Expression expr, MethodContext mc) {
         if(isComparison(expr)) {
             Expression left = expr.getArguments().get(0);
@@ -18,6 +18,7 @@ package one.util.huntbugs.detect;
 import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.flow.Exceptional;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -33,7 +34,7 @@ import one.util.huntbugs.warning.WarningAnnotation.TypeInfo;
  */
 @WarningDefinition(category="Correctness", name="ExceptionalExpression", maxScore=80)
 public class ExceptionalExpression {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.CONST)
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
         Object constValue = Inf.CONST.getValue(expr);
         if(constValue instanceof Exceptional) {
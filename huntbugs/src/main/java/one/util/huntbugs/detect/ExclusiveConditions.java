@@ -23,6 +23,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -50,7 +51,7 @@ public class ExclusiveConditions {
         reported = new HashSet<>();
     }
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST, Fact.PURITY})
     public void visit(Expression expr, MethodContext mc) {
         if (expr.getCode() == AstCode.LogicalAnd) {
             if (Nodes.isSideEffectFree(expr)) {
@@ -25,6 +25,7 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Variable;
 
 import one.util.huntbugs.db.Mutability;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -53,7 +54,7 @@ public class ExposeRepresentation {
         return (md.isPublic() || md.isProtected()) && !md.getParameters().isEmpty();
     }
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = Fact.SOURCE)
     public void visit(Expression expr, NodeChain nc, MethodContext mc, MethodDefinition md, Mutability m) {
         FieldDefinition fd = getField(expr, md);
         if (fd == null)
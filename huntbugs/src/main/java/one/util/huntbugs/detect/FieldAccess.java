@@ -37,6 +37,7 @@ import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.FieldStats;
 import one.util.huntbugs.db.Mutability;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.FieldContext;
@@ -117,7 +118,7 @@ public class FieldAccess {
     private final Map<String, FieldRecord> fields = new HashMap<>();
     private boolean fullyAnalyzed = true;
 
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.CONST, Fact.BACKLINK})
     public void visitCode(Expression expr, NodeChain nc, MethodContext mc, MethodDefinition md, TypeDefinition td, Mutability m) {
         if(expr.getCode() == AstCode.PutField || expr.getCode() == AstCode.PutStatic ||
                 expr.getCode() == AstCode.GetField || expr.getCode() == AstCode.GetStatic) {
@@ -23,6 +23,7 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -44,7 +45,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "BadPractice", name = "FinalizeOnlyNullsFields", maxScore = 65)
 @WarningDefinition(category = "MaliciousCode", name = "FinalizePublic", maxScore = 60)
 public class FinalizerContract {
-    @AstVisitor(nodes = AstNodes.ROOT, methodName = "finalize", methodSignature = "()V")
+    @AstVisitor(nodes = AstNodes.ROOT, methodName = "finalize", methodSignature = "()V", facts = Fact.SOURCE)
     public void visitFinalizer(Block body, MethodContext mc, MethodDefinition md) {
         MethodDefinition superfinalizer = getSuperfinalizer(md.getDeclaringType());
         if (md.isPublic()) {
@@ -91,7 +92,7 @@ public class FinalizerContract {
                 .getOperand()));
     }
 
-    @AstVisitor
+    @AstVisitor(facts = Fact.SOURCE)
     public void visit(Node node, MethodContext mc, MethodDefinition md) {
         if (Nodes.isOp(node, AstCode.InvokeVirtual) && isFinalizer((MethodReference) ((Expression) node)
                 .getOperand())) {
@@ -26,6 +26,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -41,7 +42,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category = "BadPractice", name = "FloatComparison", maxScore = 40)
 public class FloatingPointComparison {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.CONST})
     public void visit(Expression node, MethodContext ctx, MethodDefinition md) {
         if (node.getCode() != AstCode.CmpEq && node.getCode() != AstCode.CmpNe)
             return;
@@ -16,6 +16,7 @@
 package one.util.huntbugs.detect;
 
 import com.strobel.decompiler.ast.Expression;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -32,7 +33,7 @@ import one.util.huntbugs.warning.Role.StringRole;
 public class FloatingPointNaN {
     private static final StringRole USED_TYPE = StringRole.forName("USED_TYPE");
     
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.CONST})
     public void visit(Expression node, MethodContext ctx) {
         if(node.getCode().isComparison()) {
             Nodes.ifBinaryWithConst(node, (arg, constant) -> {
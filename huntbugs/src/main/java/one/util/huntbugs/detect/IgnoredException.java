@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -37,7 +38,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category="BadPractice", name="IgnoredException", maxScore=43)
 public class IgnoredException {
-    @AstVisitor
+    @AstVisitor(facts = {})
     public void visit(Node node, MethodContext mc) {
         if(node instanceof CatchBlock) {
             CatchBlock cb = (CatchBlock)node;
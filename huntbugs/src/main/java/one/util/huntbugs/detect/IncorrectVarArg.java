@@ -21,6 +21,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -33,7 +34,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category="Correctness", name="PrimitiveArrayPassedAsVarArg", maxScore=60)
 public class IncorrectVarArg {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={})
     public void visit(Expression expr, MethodContext mc) {
         if(expr.getOperand() instanceof MethodReference) {
             MethodReference mr = (MethodReference) expr.getOperand();
@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Loop;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -39,7 +40,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "Correctness", name = "InvariantLoopCondition", maxScore = 60)
 @WarningDefinition(category = "Correctness", name = "InvariantLoopConditionPart", maxScore = 55)
 public class InfiniteLoop {
-    @AstVisitor
+    @AstVisitor(facts = {Fact.CONST, Fact.PURITY})
     public void visit(Node node, MethodContext mc) {
         if (node instanceof Loop) {
             Loop loop = (Loop) node;
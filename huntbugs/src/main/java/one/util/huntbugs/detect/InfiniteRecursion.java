@@ -29,6 +29,7 @@ import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Switch;
 import com.strobel.decompiler.ast.TryCatchBlock;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -53,7 +54,7 @@ public class InfiniteRecursion {
         stateChange = controlTransfer = false;
     }
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.PURITY})
     public boolean visit(Expression expr, NodeChain nc, MethodContext mc, MethodDefinition md) {
         if (selfCall(expr, md) && (!stateChange && checkArgs(expr) || !controlTransfer && checkControlFlow(nc))) {
             mc.report("InfiniteRecursion", 0, expr);
@@ -20,6 +20,7 @@ import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -34,7 +35,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category="Multithreading", name="InitializerRefersSubclass", maxScore=40)
 public class InitializerRefersSubclass {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS, methodName="<clinit>")
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, methodName="<clinit>", facts={})
     public void visit(Expression expr, NodeChain nc, MethodContext mc, TypeDefinition td) {
         if(expr.getOperand() instanceof MemberReference) {
             MemberReference mr = (MemberReference) expr.getOperand();
@@ -23,6 +23,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -77,7 +78,7 @@ public class Internationalization {
         add("java/util/Formatter", "<init>", "(Ljava/io/OutputStream;)V", "(Ljava/io/OutputStream;Ljava/lang/String;)V");
     }
     
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.SOURCE)
     public void visit(Expression expr, MethodContext mc) {
         if(expr.getCode() == AstCode.InvokeVirtual || expr.getCode() == AstCode.InitObject) {
             MethodReference mr = (MethodReference) expr.getOperand();
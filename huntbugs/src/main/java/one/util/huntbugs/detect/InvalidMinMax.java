@@ -20,6 +20,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -56,7 +57,7 @@ public class InvalidMinMax {
 		return NONE;
 	}
 
-	@AstVisitor
+	@AstVisitor(facts = {Fact.SOURCE, Fact.CONST})
 	public void visit(Node node, MethodContext mc) {
 		int outer = detectMethod(node);
 		if (outer == NONE)
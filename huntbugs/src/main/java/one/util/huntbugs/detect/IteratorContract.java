@@ -26,6 +26,7 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -48,7 +49,7 @@ public class IteratorContract {
         return Types.isInstance(td, "java/util/Iterator");
     }
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS, methodName = "hasNext", methodSignature = "()Z")
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, methodName = "hasNext", methodSignature = "()Z", facts = {Fact.SOURCE, Fact.PURITY})
     public void visitHasNext(Expression expr, MethodContext mc, TypeDefinition td) {
         if (expr.getCode() == AstCode.InvokeVirtual) {
             MethodReference mr = (MethodReference) expr.getOperand();
@@ -58,7 +59,7 @@ public class IteratorContract {
         }
     }
 
-    @AstVisitor(nodes = AstNodes.ROOT, methodName = "next")
+    @AstVisitor(nodes = AstNodes.ROOT, methodName = "next", facts = {Fact.SOURCE, Fact.PURITY})
     public void visitNext(Block body, MethodContext mc, MethodDefinition md, TypeDefinition td) {
         if (md.getErasedSignature().startsWith("()")) {
             AtomicBoolean sawCall = new AtomicBoolean();
@@ -20,6 +20,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import one.util.huntbugs.flow.CFG.EdgeType;
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -41,7 +42,7 @@ public class KnownComparison {
     private static final StringRole LEFT_OPERAND = StringRole.forName("LEFT_OPERAND");
     private static final StringRole RIGHT_OPERAND = StringRole.forName("RIGHT_OPERAND");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.CONST, Fact.BACKLINK})
     public void visit(Expression expr, MethodContext mc) {
         if (expr.getCode().isComparison() || (expr.getCode() == AstCode.InvokeVirtual && Methods.isEqualsMethod(
             (MethodReference) expr.getOperand()))) {
@@ -22,6 +22,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -39,7 +40,7 @@ import one.util.huntbugs.warning.Role.TypeRole;
 public class LockProblems {
     private static final TypeRole TARGET = TypeRole.forName("TARGET");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = Fact.SOURCE)
     public void visit(Expression expr, MethodContext mc) {
         if (expr.getCode() != AstCode.InvokeVirtual)
             return;
@@ -20,6 +20,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -35,7 +36,7 @@ import one.util.huntbugs.util.Types;
 @WarningDefinition(category="Correctness", name="AbsoluteValueOfHashCode", maxScore=60)
 @WarningDefinition(category="Correctness", name="AbsoluteValueOfRandomInt", maxScore=55)
 public class MinValueHandling {
-    @AstVisitor
+    @AstVisitor(facts = {Fact.SOURCE, Fact.CONST})
     public void visit(Node node, NodeChain chain, MethodContext mc) {
         if(Nodes.isOp(node, AstCode.Rem)) {
             Node body = Nodes.getChild(node, 0);
@@ -22,6 +22,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Block;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.ClassContext;
 import one.util.huntbugs.registry.FieldContext;
 import one.util.huntbugs.registry.MethodContext;
@@ -131,7 +132,7 @@ public class Naming {
         }
     }
 
-    @AstVisitor(nodes = AstNodes.ROOT)
+    @AstVisitor(nodes = AstNodes.ROOT, facts = {})
     public void checkSameAsConstructor(Block root, MethodDefinition md, TypeDefinition td, MethodContext mc) {
         if (md.getName().equals(td.getSimpleName()) && md.getReturnType().isVoid() && !md.isDeprecated()) {
             int priority = 0;
@@ -19,6 +19,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -34,7 +35,7 @@ import one.util.huntbugs.util.Types;
 @WarningDefinition(category="Correctness", name="HashCodeRemainder", maxScore=80)
 @WarningDefinition(category="Correctness", name="RandomIntRemainder", maxScore=80)
 public class NegativeRemainder {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.SOURCE)
     public void visit(Expression expr, MethodContext mc) {
         switch(expr.getCode()) {
         case StoreElement:
@@ -19,6 +19,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -34,7 +35,7 @@ import one.util.huntbugs.warning.Role.TypeRole;
 public class NewGetClass {
     private static final TypeRole OBJECT_TYPE = TypeRole.forName("OBJECT_TYPE");
 
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={})
     public void visit(Expression node, MethodContext ctx) {
         if(node.getCode() == AstCode.InvokeVirtual) {
             MethodReference ref = (MethodReference) node.getOperand();
@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.DeclaredAnnotations;
 import one.util.huntbugs.db.DeclaredAnnotations.DeclaredAnnotation;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -39,7 +40,7 @@ import one.util.huntbugs.warning.Role.TypeRole;
 public class NoRuntimeRetention {
     private static final TypeRole ANNOTATION = TypeRole.forName("ANNOTATION");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = Fact.CONST)
     public void visit(Expression expr, MethodContext mc, DeclaredAnnotations da) {
         if (expr.getCode() == AstCode.InvokeVirtual && expr.getArguments().size() == 2) {
             MethodReference mr = (MethodReference) expr.getOperand();
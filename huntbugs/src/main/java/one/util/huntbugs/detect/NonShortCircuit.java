@@ -22,6 +22,7 @@ import com.strobel.assembler.metadata.JvmType;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -37,7 +38,7 @@ import one.util.huntbugs.warning.WarningAnnotation;
 @WarningDefinition(category = "CodeStyle", name = "NonShortCircuit", maxScore = 50)
 @WarningDefinition(category = "Correctness", name = "NonShortCircuitDangerous", maxScore = 80)
 public class NonShortCircuit {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.PURITY, Fact.BACKLINK})
     public void visitNode(Expression node, NodeChain nc, MethodContext ctx) {
         if(node.getCode() == AstCode.And || node.getCode() == AstCode.Or) {
             if (Nodes.isOp(nc.getNode(), AstCode.Store) || Nodes.isOp(nc.getNode(), AstCode.StoreElement)
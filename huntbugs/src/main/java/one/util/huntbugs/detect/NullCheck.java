@@ -20,11 +20,14 @@ import java.util.List;
 
 import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
+import com.strobel.decompiler.ast.Condition;
 import com.strobel.decompiler.ast.Expression;
+import com.strobel.decompiler.ast.Node;
 
 import one.util.huntbugs.flow.CodeBlock;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.CFG.EdgeType;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Nullness.NullState;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -32,6 +35,7 @@ import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.util.Methods;
 import one.util.huntbugs.util.NodeChain;
+import one.util.huntbugs.util.Nodes;
 import one.util.huntbugs.warning.Roles;
 import one.util.huntbugs.warning.WarningAnnotation;
 import one.util.huntbugs.warning.Role.ExpressionRole;
@@ -55,7 +59,7 @@ public class NullCheck {
     private static final ExpressionRole NONNULL_EXPRESSION = ExpressionRole.forName("NONNULL_EXPRESSION");
     private static final ExpressionRole NULL_EXPRESSION = ExpressionRole.forName("NULL_EXPRESSION");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = Fact.NULL)
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
         switch (expr.getCode()) {
         case MonitorEnter:
@@ -135,7 +139,7 @@ public class NullCheck {
                 nonNullExpr = left;
                 nonNull = leftNull;
             }
-            if (nullExpr != null) {
+            if (nullExpr != null && (nonNull != NullState.NONNULL || !isTryWithResourcesCheck(nc))) {
                 String type = "RedundantNullCheck";
                 if (nonNull == NullState.NONNULL_CHECKED)
                     type = "RedundantNullCheckChecked";
@@ -185,4 +189,15 @@ public class NullCheck {
             break;
         }
     }
+
+    /**
+     * @return true if the condition is the resource null check generated by
+     *         javac for try-with-resources statement
+     */
+    private static boolean isTryWithResourcesCheck(NodeChain nc) {
+        Node node = nc.getNode();
+        return node instanceof Condition && Nodes.find(node, n -> n instanceof Expression
+            && ((Expression) n).getOperand() instanceof MethodReference
+            && ((MethodReference) ((Expression) n).getOperand()).getName().equals("addSuppressed")) != null;
+    }
 }
@@ -22,6 +22,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -39,7 +40,7 @@ import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
 @WarningDefinition(category = "Performance", name = "NumberConstructor", maxScore = 45)
 @WarningDefinition(category = "Performance", name = "BooleanConstructor", maxScore = 55)
 public class NumberConstructor {
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.CONST, Fact.BACKLINK})
     public void visit(Expression expr, MethodContext ctx, MethodDefinition md) {
         if (expr.getCode() == AstCode.InitObject && expr.getArguments().size() == 1) {
             MethodReference ctor = (MethodReference) expr.getOperand();
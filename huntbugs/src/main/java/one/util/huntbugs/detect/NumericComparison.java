@@ -32,6 +32,7 @@ import com.strobel.decompiler.ast.Switch;
 
 import one.util.huntbugs.flow.CFG.EdgeType;
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -128,7 +129,7 @@ public class NumericComparison {
         }
     }
 
-    @AstVisitor(nodes = AstNodes.ALL)
+    @AstVisitor(nodes = AstNodes.ALL, facts = {Fact.SOURCE, Fact.CONST, Fact.BACKLINK})
     public void visit(Node node, MethodContext mc) {
         if (Nodes.isComparison(node)) {
             Expression expr = (Expression) node;
@@ -25,6 +25,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
@@ -53,7 +54,7 @@ public class NumericPromotion {
     private static final StringRole TARGET_TYPE = StringRole.forName("TARGET_TYPE");
     private static final LocationRole DIVISION_AT = LocationRole.forName("DIVISION_AT");
     
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST, Fact.BACKLINK})
     public void visit(Expression expr, NodeChain nc, MethodContext mc, MethodDefinition md) {
         if (expr.getCode() == AstCode.I2L) {
             Expression arg = expr.getArguments().get(0);
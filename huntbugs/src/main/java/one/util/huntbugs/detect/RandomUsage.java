@@ -21,6 +21,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -44,7 +45,7 @@ import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
 public class RandomUsage {
     private static final TypeRole RANDOM_TYPE = TypeRole.forName("RANDOM_TYPE");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.BACKLINK})
     public void visit(Expression node, MethodContext ctx) {
         if (node.getCode() == AstCode.D2I) {
             Expression child = Exprs.getChild(node, 0);
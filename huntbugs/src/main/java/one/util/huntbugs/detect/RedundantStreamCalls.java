@@ -23,6 +23,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -42,7 +43,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category="RedundantCode", name="RedundantCollectionStream", maxScore=48)
 @WarningDefinition(category="Performance", name="StreamCountFromCollection", maxScore=60)
 public class RedundantStreamCalls {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS, minVersion=8)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, minVersion=8, facts={Fact.SOURCE, Fact.BACKLINK})
     public void visit(Expression expr, MethodContext mc) {
         if(expr.getCode() == AstCode.InvokeInterface || expr.getCode() == AstCode.InvokeVirtual) {
             MethodReference mr = (MethodReference) expr.getOperand();
@@ -25,6 +25,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -95,7 +96,7 @@ public class RoughConstant {
         new BadConstant(Math.E, 1, "Math.E", 17)
     };
 
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.CONST)
     public void visit(Expression expr, MethodContext ctx, NodeChain parents) {
         // Not use Nodes.getConstant here as direct usage should only be reported
         if(expr.getCode() != AstCode.LdC)
@@ -29,6 +29,7 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Switch;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -64,7 +65,7 @@ public class SameBranches {
         return true;
     }
     
-    @AstVisitor
+    @AstVisitor(facts = {})
     public void visit(Node node, NodeChain nc, MethodContext mc) {
         if (node instanceof Condition) {
             Condition cond = (Condition) node;
@@ -117,7 +118,7 @@ public class SameBranches {
         }
     }
 
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={})
     public void visitExpr(Expression expr, MethodContext mc) {
         if (expr.getCode() == AstCode.TernaryOp
             && Equi.equiExpressions(expr.getArguments().get(1), expr.getArguments().get(2))) {
@@ -28,6 +28,7 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -47,7 +48,7 @@ public class SameIfChain {
     private static final LocationRole SAME_CONDITION_AT = LocationRole.forName("SAME_CONDITION_AT");
     private static final ExpressionRole SAME_EXPRESSION = ExpressionRole.forName("SAME_EXPRESSION");
     
-    @AstVisitor
+    @AstVisitor(facts = Fact.PURITY)
     public boolean visit(Node node, MethodContext mc, MethodDefinition md, TypeDefinition td) {
         if (!mc.isAnnotated())
             return false;
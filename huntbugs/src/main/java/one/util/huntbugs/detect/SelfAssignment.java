@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -41,7 +42,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category="Correctness", name="SelfAssignmentLocalInsteadOfField", maxScore=90)
 @WarningDefinition(category="Correctness", name="SelfAssignmentArrayElement", maxScore=80)
 public class SelfAssignment {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.PURITY})
     public void visit(Expression expr, MethodContext mc, MethodDefinition md, TypeDefinition td) {
         if(expr.getCode() == AstCode.PutField) {
             FieldDefinition frPut = ((FieldReference) expr.getOperand()).resolve();
@@ -20,6 +20,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -37,7 +38,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "Correctness", name = "SelfComparison", maxScore = 70)
 @WarningDefinition(category = "Correctness", name = "SelfEquals", maxScore = 70)
 public class SelfComputation {
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.PURITY, Fact.BACKLINK})
     public void visit(Expression expr, MethodContext mc) {
         if ((expr.getCode() == AstCode.And || expr.getCode() == AstCode.Or || expr.getCode() == AstCode.Xor
             || expr.getCode() == AstCode.Sub || expr.getCode() == AstCode.Div || expr.getCode() == AstCode.Rem)
@@ -23,6 +23,7 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Loop;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -35,7 +36,7 @@ import one.util.huntbugs.warning.Roles;
  */
 @WarningDefinition(category = "Multithreading", name = "SpinLoopOnField", maxScore = 70)
 public class SpinLoop {
-    @AstVisitor
+    @AstVisitor(facts = Fact.PURITY)
     public void visit(Node node, MethodContext mc) {
         if (!(node instanceof Loop))
             return;
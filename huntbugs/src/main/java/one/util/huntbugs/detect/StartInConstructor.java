@@ -25,6 +25,7 @@ import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
 import one.util.huntbugs.db.Hierarchy.TypeHierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -44,7 +45,7 @@ public class StartInConstructor {
         return td.isPublic() && !td.isFinal() && !md.isPrivate() && !md.isPackagePrivate();
     }
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS, methodName = "<init>")
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, methodName = "<init>", facts = {})
     public boolean visit(Expression expr, NodeChain nc, MethodContext mc, TypeHierarchy th) {
         if (expr.getCode() == AstCode.InvokeVirtual) {
             MethodReference mr = (MethodReference) expr.getOperand();
@@ -29,6 +29,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.FieldContext;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -71,7 +72,7 @@ public class StaticFieldNonThreadSafe {
         return Types.isInstance(fieldType, "java/util/Calendar") || Types.isInstance(fieldType, "java/text/DateFormat");
     }
     
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.SOURCE)
     public void visitCall(MethodContext mc, Expression expr, MethodDefinition md, NodeChain nc, TypeDefinition td) {
         if(expr.getCode() == AstCode.InvokeVirtual) {
             Expression target = expr.getArguments().get(0);
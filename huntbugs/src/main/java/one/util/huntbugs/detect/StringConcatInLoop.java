@@ -29,6 +29,7 @@ import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Switch;
 import com.strobel.decompiler.ast.Variable;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -44,7 +45,7 @@ import one.util.huntbugs.util.Types;
  */
 @WarningDefinition(category = "Performance", name = "StringConcatInLoop", maxScore = 50)
 public class StringConcatInLoop {
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = Fact.SOURCE)
     public void visit(Expression store, NodeChain nc, MethodContext mc, MethodDefinition md, TypeDefinition td) {
         if (store.getCode() != AstCode.Store)
             return;
@@ -19,6 +19,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -37,7 +38,7 @@ import one.util.huntbugs.warning.Role.NumberRole;
 public class StringIndex {
     private static final NumberRole INDEX = NumberRole.forName("INDEX");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = Fact.CONST)
     public void visit(Expression node, MethodContext ctx) {
         if (Nodes.isInvoke(node) && node.getCode() != AstCode.InvokeDynamic) {
             check(node, (MethodReference) node.getOperand(), ctx);
@@ -22,6 +22,7 @@ import com.strobel.assembler.metadata.MethodReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -37,7 +38,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category="Performance", name="StringConstructorEmpty", maxScore=55)
 @WarningDefinition(category="RedundantCode", name="StringToString", maxScore=40)
 public class StringUsage {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.BACKLINK})
     public void visit(Expression node, MethodContext mc, MethodDefinition md) {
         if(node.getCode() == AstCode.InitObject) {
             MethodReference mr = (MethodReference) node.getOperand();
@@ -25,6 +25,7 @@ import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.TryCatchBlock;
 
 import one.util.huntbugs.db.Hierarchy.TypeHierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.MethodVisitor;
@@ -44,7 +45,7 @@ public class SyncGetClass {
         return !td.isFinal() && !md.isStatic();
     }
     
-    @AstVisitor
+    @AstVisitor(facts = Fact.SOURCE)
     public void visit(Node node, MethodContext mc, TypeHierarchy th, TypeDefinition td) {
         if(node instanceof TryCatchBlock) {
             Expression syncObject = Nodes.getSyncObject((TryCatchBlock) node);
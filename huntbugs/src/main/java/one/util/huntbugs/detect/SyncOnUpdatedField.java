@@ -18,6 +18,7 @@ package one.util.huntbugs.detect;
 import com.strobel.assembler.metadata.FieldReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -31,7 +32,7 @@ import one.util.huntbugs.util.Nodes;
  */
 @WarningDefinition(category="Multithreading", name="SynchronizationOnUpdatedField", maxScore=65)
 public class SyncOnUpdatedField {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.PURITY})
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
         if(expr.getCode() == AstCode.PutField || expr.getCode() == AstCode.PutStatic) {
             FieldReference fr = (FieldReference) expr.getOperand();
@@ -20,6 +20,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -37,7 +38,7 @@ import one.util.huntbugs.warning.Role.TypeRole;
 public class ToArrayDowncast {
     private static final TypeRole TARGET_ELEMENT_TYPE = TypeRole.forName("TARGET_ELEMENT_TYPE");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = Fact.SOURCE)
     public void visit(Expression expr, MethodContext mc) {
         if (expr.getCode() != AstCode.CheckCast)
             return;
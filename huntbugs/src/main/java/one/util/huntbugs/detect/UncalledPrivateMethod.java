@@ -15,11 +15,16 @@
  */
 package one.util.huntbugs.detect;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -75,6 +80,52 @@ public class UncalledPrivateMethod {
             }
         }
         
+        @Override
+        protected boolean isMergeable() {
+            return true;
+        }
+
+        @Override
+        protected void merge(AbstractTypeDatabase<Void> shard) {
+            mis.addAll(((NestedAnonymousCalls) shard).mis);
+        }
+
+        @Override
+        protected boolean isSnapshotSupported() {
+            return true;
+        }
+
+        @Override
+        protected void writeSnapshot(DataOutput out) throws IOException {
+            out.writeInt(mis.size());
+            for (MemberInfo mi : mis) {
+                out.writeUTF(mi.getTypeName());
+                out.writeUTF(mi.getName());
+                out.writeUTF(mi.getSignature());
+            }
+        }
+
+        @Override
+        protected void readSnapshot(DataInput in) throws IOException {
+            for (int i = in.readInt(); i > 0; i--) {
+                mis.add(new MemberInfo(in.readUTF(), in.readUTF(), in.readUTF()));
+            }
+        }
+
+        @Override
+        protected boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+            Set<String> calls = new TreeSet<>();
+            for (MemberInfo mi : mis) {
+                if (mi.getTypeName().equals(internalName))
+                    calls.add(mi.getName() + mi.getSignature());
+            }
+            out.writeInt(calls.size());
+            for (String call : calls) {
+                out.writeUTF(call);
+            }
+            return true;
+        }
+
         public boolean isCalled(MemberInfo mi) {
             return mis.contains(mi);
         }
@@ -25,6 +25,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
@@ -49,7 +50,7 @@ public class UnnecessaryBoxing {
     private static final LocationRole BOXED_AT = LocationRole.forName("BOXED_AT");
     private static final TypeRole BOXED_TYPE = TypeRole.forName("BOXED_TYPE");
     
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.BACKLINK})
     public void visit(Expression expr, MethodContext mc) {
         if (Nodes.isUnboxing(expr)) {
             Expression arg = expr.getArguments().get(0);
@@ -29,6 +29,7 @@ import com.strobel.decompiler.ast.Variable;
 
 import one.util.huntbugs.flow.CFG.EdgeType;
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.flow.etype.EType;
@@ -54,7 +55,7 @@ import one.util.huntbugs.warning.WarningAnnotation;
 public class UnnecessaryInstanceOf {
     private static final StringRole ETYPE = StringRole.forName("ETYPE");
 
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.CONST, Fact.ETYPE})
     public void visit(Expression node, MethodContext mc, TypeDefinition td) {
         if (node.getCode() == AstCode.InstanceOf) {
             TypeReference typeRef = (TypeReference) node.getOperand();
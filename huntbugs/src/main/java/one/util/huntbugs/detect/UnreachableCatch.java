@@ -19,6 +19,7 @@ import com.strobel.decompiler.ast.CatchBlock;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.WarningDefinition;
@@ -30,7 +31,7 @@ import one.util.huntbugs.util.Nodes;
  */
 @WarningDefinition(category="RedundantCode", name="UnreachableCatch", maxScore=50)
 public class UnreachableCatch {
-    @AstVisitor
+    @AstVisitor(facts = Fact.SOURCE)
     public void visit(Node node, MethodContext mc) {
         if(node instanceof CatchBlock) {
             Expression firstExpr = (Expression) Nodes.find(node, Expression.class::isInstance);
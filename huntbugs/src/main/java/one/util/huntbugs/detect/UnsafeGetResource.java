@@ -22,6 +22,7 @@ import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.Hierarchy.TypeHierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -43,7 +44,7 @@ public class UnsafeGetResource {
         return td.isPublic() && !td.isFinal() && !md.isStatic();
     }
     
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts={Fact.SOURCE, Fact.CONST})
     public void visit(Expression expr, MethodContext mc, TypeHierarchy th) {
         if(expr.getCode() == AstCode.InvokeVirtual) {
             MethodReference getResourceCall = (MethodReference) expr.getOperand();
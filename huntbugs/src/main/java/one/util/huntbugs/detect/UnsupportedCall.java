@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Expression;
 
 import one.util.huntbugs.db.MethodStats;
 import one.util.huntbugs.db.MethodStats.MethodData;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -43,7 +44,7 @@ public class UnsupportedCall {
         return !md.isSynthetic();
     }
     
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {})
     public void visit(Expression expr, NodeChain nc, MethodContext mc, MethodStats ms) {
         if(expr.getOperand() instanceof MethodReference) {
             MethodReference mr = (MethodReference) expr.getOperand();
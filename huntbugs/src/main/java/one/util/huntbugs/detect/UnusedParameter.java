@@ -29,6 +29,7 @@ import com.strobel.decompiler.ast.Node;
 import com.strobel.decompiler.ast.Variable;
 
 import one.util.huntbugs.db.Hierarchy;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -56,7 +57,7 @@ public class UnusedParameter {
         return Types.hasCompleteHierarchy(td);
     }
     
-    @AstVisitor(nodes = AstNodes.ROOT)
+    @AstVisitor(nodes = AstNodes.ROOT, facts = {Fact.SOURCE, Fact.CONST, Fact.BACKLINK})
     public void visitBody(Block block, MethodContext mc, MethodDefinition md, TypeDefinition td, Hierarchy h) {
         if (md.isSynthetic() || !mc.isAnnotated() || Methods.isSerializationMethod(md) || Methods.isMain(md)
                 || isEmpty(block.getBody()) || Nodes.isThrow(block))
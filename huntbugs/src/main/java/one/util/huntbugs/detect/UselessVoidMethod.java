@@ -24,6 +24,7 @@ import com.strobel.decompiler.ast.Node;
 
 import one.util.huntbugs.db.MethodStats;
 import one.util.huntbugs.db.MethodStats.MethodData;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -36,7 +37,7 @@ import one.util.huntbugs.util.Nodes;
  */
 @WarningDefinition(category="RedundantCode", name="UselessVoidMethod", maxScore=50)
 public class UselessVoidMethod {
-    @AstVisitor(nodes=AstNodes.ROOT)
+    @AstVisitor(nodes=AstNodes.ROOT, facts={})
     public void checkMethod(Block root, MethodDefinition md, MethodStats ms, MethodContext mc) {
         if(md.getReturnType().isVoid()) {
             MethodData stats = ms.getStats(md);
@@ -25,6 +25,7 @@ import com.strobel.assembler.metadata.MethodDefinition;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
@@ -40,7 +41,7 @@ import one.util.huntbugs.util.Nodes;
 @WarningDefinition(category = "Multithreading", name = "VolatileIncrement", maxScore = 85)
 @WarningDefinition(category = "Multithreading", name = "VolatileMath", maxScore = 85)
 public class VolatileIncrement {
-    @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes=AstNodes.EXPRESSIONS, facts=Fact.PURITY)
     public void visitNode(Expression node, MethodContext ctx, NodeChain parents, MethodDefinition md) {
         if (node.getCode() == AstCode.PreIncrement || node.getCode() == AstCode.PostIncrement) {
             Expression arg = node.getArguments().get(0);
@@ -24,6 +24,7 @@ import com.strobel.assembler.metadata.TypeReference;
 import com.strobel.decompiler.ast.AstCode;
 import com.strobel.decompiler.ast.Expression;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.MethodContext;
@@ -43,7 +44,7 @@ import one.util.huntbugs.warning.Roles;
 @WarningDefinition(category = "Performance", name = "WrongMapIterator", maxScore = 48)
 @WarningDefinition(category = "Performance", name = "WrongMapIteratorValues", maxScore = 55)
 public class WrongMapIterator {
-    @AstVisitor(nodes = AstNodes.EXPRESSIONS)
+    @AstVisitor(nodes = AstNodes.EXPRESSIONS, facts = {Fact.SOURCE, Fact.PURITY, Fact.BACKLINK})
     public void visit(Expression expr, NodeChain nc, MethodContext mc) {
         MethodReference getMr = getCalledMethod(expr);
         if (getMr == null || !getMr.getName().equals("get"))
@@ -29,10 +29,20 @@ import com.strobel.decompiler.ast.Node;
 abstract class Annotator<T> {
     private final T defValue;
     private final int idx;
+    // Used only if no FactStore is active, otherwise the listener is kept in the store
+    private final ThreadLocal<Consumer<Expression>> readListener = new ThreadLocal<>();
 
     protected Annotator(String name, T defValue) {
+        this(name, defValue, null);
+    }
+
+    /**
+     * @param universe all the possible fact values if there are few of them,
+     *        so they can be stored compactly; null otherwise
+     */
+    protected Annotator(String name, T defValue, T[] universe) {
         this.defValue = defValue;
-        this.idx = Annotators.register(name);
+        this.idx = Annotators.register(name, universe);
     }
     
     protected static void forExpressions(Node node, Consumer<Expression> cons) {
@@ -45,9 +55,32 @@ abstract class Annotator<T> {
         }
     }
 
+    /**
+     * Reports every expression which fact is read on the current thread to the
+     * listener until it's reset. The listener is installed into the currently
+     * active {@link FactStore}, so it's not called while another store is
+     * active and must be reset while the same store is active.
+     * 
+     * @param listener listener to set or null to reset
+     */
+    void setReadListener(Consumer<Expression> listener) {
+        FactStore store = FactStore.active();
+        if (store != null)
+            store.setReadListener(idx, listener);
+        else if (listener == null)
+            readListener.remove();
+        else
+            readListener.set(listener);
+    }
+
     protected T get(Expression expr) {
+        // Single thread-local lookup per read: the listener is kept in the store
+        FactStore store = FactStore.active();
+        Consumer<Expression> listener = store == null ? readListener.get() : store.getReadListener(idx);
+        if (listener != null)
+            listener.accept(expr);
         @SuppressWarnings("unchecked")
-        T data = (T) Annotators.get(expr, idx);
+        T data = (T) Annotators.get(store, expr, idx);
         return data == null ? defValue : data;
     }
     
@@ -31,23 +31,56 @@ public class Annotators {
     }
     
     private static final List<String> names = new ArrayList<>();
+    // Possible values of the annotators which facts are stored as bytes
+    private static final List<Object[]> universes = new ArrayList<>();
     private static final Key<Object[]> hbData = Key.create("hb.data");
     
     // Order of declaration might be important
     
-    static int register(String name) {
+    static int register(String name, Object[] universe) {
         if(names.contains(name))
             throw new IllegalStateException(name);
         names.add(name);
+        universes.add(universe);
         return names.size()-1;
     }
     
+    static Object[] universe(int i) {
+        return universes.get(i);
+    }
+    
+    static byte encode(int i, Object data) {
+        if(data == null)
+            return 0;
+        Object[] universe = universes.get(i);
+        for(int j=0; j<universe.length; j++) {
+            if(universe[j] == data)
+                return (byte) (j+1);
+        }
+        throw new IllegalArgumentException(names.get(i)+": "+data);
+    }
+    
+    static Object decode(int i, byte data) {
+        return universes.get(i)[data-1];
+    }
+    
     static Object get(Expression expr, int i) {
+        return get(FactStore.active(), expr, i);
+    }
+    
+    static Object get(FactStore store, Expression expr, int i) {
+        if(store != null)
+            return store.get(expr, i);
         Object[] data = expr.getUserData(hbData);
         return data == null ? null : data[i];
     }
     
     static void put(Expression expr, int i, Object data) {
+        FactStore store = FactStore.active();
+        if(store != null) {
+            store.put(expr, i, data);
+            return;
+        }
         Object[] userData = expr.getUserData(hbData);
         if(userData == null) {
             userData = new Object[names.size()];
@@ -57,6 +90,11 @@ public class Annotators {
     }
     
     static void replace(Expression expr, int i, Object oldData, Object data) {
+        FactStore store = FactStore.active();
+        if(store != null) {
+            store.replace(expr, i, oldData, data);
+            return;
+        }
         Object[] userData = expr.getUserData(hbData);
         if(userData == null) {
             userData = new Object[names.size()];
@@ -67,6 +105,11 @@ public class Annotators {
     }
     
     static void remove(Expression expr, int i) {
+        FactStore store = FactStore.active();
+        if(store != null) {
+            store.put(expr, i, null);
+            return;
+        }
         Object[] userData = expr.getUserData(hbData);
         if(userData != null) {
             userData[i] = null;
@@ -80,7 +123,15 @@ public class Annotators {
      * @return String describing the annotators
      */
     public static String facts(Expression expr) {
-        Object[] data = expr.getUserData(hbData);
+        Object[] data;
+        FactStore store = FactStore.active();
+        if(store != null) {
+            data = new Object[names.size()];
+            for(int i=0; i<data.length; i++)
+                data[i] = store.get(expr, i);
+        } else {
+            data = expr.getUserData(hbData);
+        }
         if(data == null)
             return "{}";
         StringBuilder sb = new StringBuilder("{\n");
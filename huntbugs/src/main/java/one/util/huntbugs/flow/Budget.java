@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+import one.util.huntbugs.analysis.CancellationToken;
+
+/**
+ * Number of dataflow steps (block evaluations) which may be spent to annotate
+ * a single method. The steps are counted deterministically, so the analysis
+ * results do not depend on the machine speed. When the budget is exhausted or
+ * the analysis is cancelled, the running dataflow is widened and the method
+ * is downgraded to a cheaper tier as described in
+ * {@code ValuesFlow.annotateLocal}.
+ */
+public class Budget {
+    private long steps;
+    private final boolean limited;
+    private final CancellationToken cancellation;
+    private boolean exhausted;
+    private final Set<Fact> skipped = EnumSet.noneOf(Fact.class);
+
+    /**
+     * @param steps maximal number of steps or 0 for the unlimited budget
+     */
+    public Budget(long steps) {
+        this(steps, null);
+    }
+
+    /**
+     * @param steps maximal number of steps or 0 for the unlimited budget
+     * @param cancellation token to check on every step or null
+     */
+    public Budget(long steps, CancellationToken cancellation) {
+        this.steps = steps;
+        this.limited = steps > 0;
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Consumes a single step
+     * 
+     * @return false if no more steps are available
+     */
+    boolean tick() {
+        if (exhausted)
+            return false;
+        if (limited && --steps < 0 || cancellation != null && cancellation.isCancelled()) {
+            exhausted = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if some step was requested after the budget was spent or
+     *         the analysis was cancelled
+     */
+    public boolean isExhausted() {
+        if (!exhausted && cancellation != null && cancellation.isCancelled())
+            exhausted = true;
+        return exhausted;
+    }
+
+    void skip(Fact fact) {
+        skipped.add(fact);
+    }
+
+    /**
+     * @return facts which must not be used for the method as the budget was
+     *         exhausted, whether they were requested or not
+     */
+    public Set<Fact> getSkipped() {
+        return Collections.unmodifiableSet(skipped);
+    }
+}
@@ -15,12 +15,17 @@
  */
 package one.util.huntbugs.flow;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +35,7 @@ import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -90,6 +96,17 @@ public class CFG {
     // Number of block till which CFG is forward-only
     final int forwardTill;
     final boolean hasUnreachable;
+    // Successors by dense block id: blocks are numbered by their position,
+    // then EXIT, FAIL and IMPLICIT follow
+    final int[][] successors;
+    private final Map<Expression, List<BasicBlock>> exprBlocks = new IdentityHashMap<>();
+    // Lazily computed immutable analyses, may be computed concurrently
+    private volatile Liveness liveness;
+    private volatile Dominators dominators, postDominators;
+    // Blocks from which EXIT and IMPLICIT are reachable
+    private volatile BitSet reachExit, reachImplicit;
+    // Shared by the dataflow runs of the method and its lambdas
+    private Budget stepBudget = new Budget(0);
 
     private CFG(MethodDefinition md, BasicBlock closure, Block methodBody) {
         this.md = md;
@@ -108,9 +125,46 @@ public class CFG {
             dupExpr = computeDupBlocks(findDuplicates(methodBody));
             hasUnreachable = blocks.stream().anyMatch(bb -> !bb.reached);
         }
+        this.successors = computeSuccessors();
         this.forwardTill = computeForwardTill();
     }
     
+    int index(BasicBlock bb) {
+        return bb.id >= 0 ? bb.id : blocks.size() + BLOCKTYPE_EXIT - bb.id;
+    }
+    
+    private int[][] computeSuccessors() {
+        int[][] result = new int[blocks.size() + 3][];
+        int[] none = new int[0];
+        Arrays.fill(result, blocks.size(), result.length, none);
+        for (BasicBlock bb : blocks) {
+            int[] targets = new int[3 + (bb.failTargets == null ? 0 : bb.failTargets.size())];
+            int count = 0;
+            if (bb.passTarget != null)
+                targets[count++] = index(bb.passTarget);
+            if (bb.trueTarget != null)
+                targets[count++] = index(bb.trueTarget);
+            if (bb.falseTarget != null)
+                targets[count++] = index(bb.falseTarget);
+            if (bb.failTargets != null) {
+                for (BasicBlock target : bb.failTargets)
+                    targets[count++] = index(target);
+            }
+            result[bb.id] = count == targets.length ? targets : Arrays.copyOf(targets, count);
+            if (bb.expr != null) {
+                List<BasicBlock> list = exprBlocks.get(bb.expr);
+                if (list == null)
+                    exprBlocks.put(bb.expr, Collections.singletonList(bb));
+                else {
+                    if (list.size() == 1)
+                        exprBlocks.put(bb.expr, list = new ArrayList<>(list));
+                    list.add(bb);
+                }
+            }
+        }
+        return result;
+    }
+    
     private TrueFalse<List<BasicBlock>> getConditionalBranches(BasicBlock cond) {
         int trueStart = cond.trueTarget.id;
         int falseStart = cond.falseTarget.id;
@@ -124,7 +178,7 @@ public class CFG {
         Integer TRUE = 1;
         Integer FALSE = 2;
         Integer BOTH = 3;
-        graphSearch(new GraphSearch<Integer>() {
+        SearchResult<Integer> sr = graphSearch(new GraphSearch<Integer>() {
             @Override
             public Integer markStart(Expression expr, boolean isEntry) {
                 return expr == cond.expr ? START : null;
@@ -155,7 +209,7 @@ public class CFG {
         List<BasicBlock> falseBlocks = null;
         int trueEnd = -1, falseEnd = -1;
         for(BasicBlock bb : blocks) {
-            Integer state = (Integer) bb.state;
+            Integer state = sr.atBlock(bb);
             if(state == null)
                 continue;
             if(trueEnd != -1 && trueBlocks == null && state != TRUE) {
@@ -371,10 +425,11 @@ public class CFG {
 
     private int computeForwardTill() {
         int forwardTill = blocks.size();
-        for (BasicBlock bb : blocks) {
-            int min = bb.targets().mapToInt(t -> t.id).filter(id -> id >= 0 && id < bb.id).min().orElse(forwardTill);
-            if (min < forwardTill)
-                forwardTill = min;
+        for (int i = 0; i < blocks.size(); i++) {
+            for (int target : successors[i]) {
+                if (target < i && target < forwardTill)
+                    forwardTill = target;
+            }
         }
         return forwardTill;
     }
@@ -784,6 +839,15 @@ public class CFG {
         return valid;
     }
 
+    /**
+     * Limits the total number of steps the subsequent dataflow runs over this
+     * method and its lambdas may perform
+     */
+    public void setBudget(Budget budget) {
+        this.stepBudget = budget;
+        lambdas.values().forEach(cfg -> cfg.setBudget(budget));
+    }
+
     public void forBodies(BiConsumer<MethodDefinition, Block> consumer) {
         consumer.accept(md, body);
         lambdas.values().forEach(cfg -> cfg.forBodies(consumer));
@@ -793,131 +857,240 @@ public class CFG {
         return lambdas.get(lambda);
     }
     
-    private boolean isReachable(BasicBlock from, BasicBlock to) {
-        clearChanged();
-        boolean[] changed = { true };
-        from.changed = true;
-        while (changed[0]) {
-            changed[0] = false;
-            for (BasicBlock bb : blocks) {
-                if (bb.changed) {
-                    bb.targets().filter(t -> !t.changed).forEach(t -> {
-                        t.changed = changed[0] = true;
-                    });
+    /**
+     * Marks the blocks reachable from given one
+     * 
+     * @param from start block
+     * @param targets function returning dense ids of successors by dense block id
+     * @param stopAt dense id of the block to stop at when it's reached or -1
+     * @return dense ids of reached blocks including the start block
+     */
+    private BitSet reach(BasicBlock from, IntFunction<int[]> targets, int stopAt) {
+        int start = index(from);
+        BitSet visited = new BitSet(successors.length);
+        int[] stack = new int[successors.length];
+        int sp = 0;
+        visited.set(start);
+        stack[sp++] = start;
+        while (sp > 0 && (stopAt < 0 || !visited.get(stopAt))) {
+            for (int target : targets.apply(stack[--sp])) {
+                if (!visited.get(target)) {
+                    visited.set(target);
+                    stack[sp++] = target;
                 }
             }
-            if (to.changed)
-                return true;
         }
-        return to.changed;
+        return visited;
+    }
+    
+    /**
+     * @param to target block
+     * @return dense ids of the blocks from which the target block is
+     *         reachable
+     */
+    private BitSet reachBackwards(BasicBlock to) {
+        int[][] predecessors = new int[successors.length][];
+        int[] counts = new int[successors.length];
+        for (int[] targets : successors) {
+            for (int target : targets)
+                counts[target]++;
+        }
+        for (int i = 0; i < predecessors.length; i++) {
+            predecessors[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int i = 0; i < successors.length; i++) {
+            for (int target : successors[i])
+                predecessors[target][counts[target]++] = i;
+        }
+        return reach(to, id -> predecessors[id], -1);
+    }
+    
+    private BitSet getReachExit() {
+        BitSet result = reachExit;
+        if (result == null)
+            reachExit = result = reachBackwards(exit);
+        return result;
+    }
+    
+    private BitSet getReachImplicit() {
+        BitSet result = reachImplicit;
+        if (result == null)
+            reachImplicit = result = reachBackwards(implicit);
+        return result;
+    }
+    
+    private Dominators getDominators() {
+        Dominators result = dominators;
+        if (result == null)
+            dominators = result = new Dominators(successors, index(entry));
+        return result;
     }
     
-    private boolean isAlwaysReachable(BasicBlock from, Set<BasicBlock> targets) {
-        clearChanged();
-        boolean[] changed = { true };
-        from.changed = true;
-        while (changed[0]) {
-            changed[0] = false;
+    /**
+     * Post-dominators are computed for the graph where EXIT, IMPLICIT and
+     * explicit throws are linked to the single virtual sink node. Thus block
+     * A post-dominates block B if every path from B which leaves the method
+     * normally or via explicit throw goes through A.
+     */
+    private Dominators getPostDominators() {
+        Dominators result = postDominators;
+        if (result == null) {
+            int sink = successors.length;
+            int failId = index(fail);
+            int[] counts = new int[sink + 1];
+            boolean[] toSink = new boolean[sink];
+            toSink[index(exit)] = toSink[index(implicit)] = true;
             for (BasicBlock bb : blocks) {
-                if (targets.contains(bb))
-                    continue;
-                if (bb.changed) {
-                    // Explicit throw
-                    if(bb.passTarget == null && bb.trueTarget == null &&
-                            bb.targets().anyMatch(fail::equals))
-                        return false;
-                    bb.targets().filter(t -> !t.changed).forEach(t -> {
-                        t.changed = changed[0] = true;
-                    });
+                if (bb.passTarget == null && bb.trueTarget == null) {
+                    for (int target : successors[bb.id]) {
+                        if (target == failId)
+                            toSink[bb.id] = true;
+                    }
                 }
             }
-            if (exit.changed || implicit.changed)
-                return false;
+            for (int i = 0; i < sink; i++) {
+                for (int target : successors[i])
+                    counts[target]++;
+                if (toSink[i])
+                    counts[sink]++;
+            }
+            int[][] reversed = new int[sink + 1][];
+            for (int i = 0; i <= sink; i++) {
+                reversed[i] = new int[counts[i]];
+                counts[i] = 0;
+            }
+            for (int i = 0; i < sink; i++) {
+                for (int target : successors[i])
+                    reversed[target][counts[target]++] = i;
+                if (toSink[i])
+                    reversed[sink][counts[sink]++] = i;
+            }
+            postDominators = result = new Dominators(reversed, sink);
         }
-        return true;
+        return result;
     }
     
-    private <T> boolean updateState(GraphSearch<T> gs, BasicBlock bb, T newState) {
+    private boolean isAlwaysReachable(BasicBlock from, BitSet targets) {
+        if (targets.cardinality() == 1) {
+            Dominators postDoms = getPostDominators();
+            int id = index(from);
+            return !postDoms.isReachable(id) || postDoms.dominates(targets.nextSetBit(0), id);
+        }
+        int[] none = {};
+        int failId = index(fail);
+        boolean[] explicitThrow = { false };
+        BitSet reached = reach(from, id -> {
+            if (targets.get(id))
+                return none;
+            BasicBlock bb = id < blocks.size() ? blocks.get(id) : null;
+            if (bb != null && bb.passTarget == null && bb.trueTarget == null) {
+                for (int target : successors[id]) {
+                    if (target == failId)
+                        explicitThrow[0] = true;
+                }
+            }
+            return successors[id];
+        }, -1);
+        return !explicitThrow[0] && !reached.get(index(exit)) && !reached.get(index(implicit));
+    }
+    
+    private <T> boolean updateState(GraphSearch<T> gs, Object[] states, boolean[] changed, BasicBlock bb,
+            T newState) {
+        int id = index(bb);
         @SuppressWarnings("unchecked")
-        T oldState = (T) bb.state;
+        T oldState = (T) states[id];
         if(Objects.equals(oldState, newState))
             return false;
         newState = gs.merge(oldState, newState);
         if(Objects.equals(oldState, newState))
             return false;
-        bb.state = newState;
-        return bb.changed = true;
+        states[id] = newState;
+        return changed[id] = true;
     }
 
     /**
-     * Result works only until new graph-search is performed.
-     * Must not be called during DFA run on the same CFG.
+     * The search state is stored in the result only, so several searches may
+     * be performed concurrently and the result stays valid after new search.
      */
     public <T> SearchResult<T> graphSearch(GraphSearch<T> gs) {
-        clearChanged();
+        Object[] states = new Object[blocks.size() + 3];
+        boolean[] blockChanged = new boolean[states.length];
         for(BasicBlock bb : blocks) {
-            bb.state = gs.markStart(bb.expr, bb == entry);
-            if(bb.state != null)
-                bb.changed = true;
+            states[bb.id] = gs.markStart(bb.expr, bb == entry);
+            if(states[bb.id] != null)
+                blockChanged[bb.id] = true;
         }
-        exit.state = fail.state = implicit.state = null;
         boolean changed = true;
         while(changed) {
             changed = false;
             for(BasicBlock bb : blocks) {
-                if(bb.changed) {
-                    bb.changed = false;
+                if(blockChanged[bb.id]) {
+                    blockChanged[bb.id] = false;
                     @SuppressWarnings("unchecked")
-                    T state = (T) bb.state;
+                    T state = (T) states[bb.id];
                     if(bb.passTarget != null) {
-                        changed |= updateState(gs, bb.passTarget, gs.transfer(state, bb.expr, EdgeType.PASS, bb.passTarget.expr));
+                        changed |= updateState(gs, states, blockChanged, bb.passTarget, gs.transfer(state, bb.expr, EdgeType.PASS, bb.passTarget.expr));
                     } else if(bb.trueTarget != null) {
-                        changed |= updateState(gs, bb.trueTarget, gs.transfer(state, bb.expr, EdgeType.TRUE, bb.trueTarget.expr));
-                        changed |= updateState(gs, bb.falseTarget, gs.transfer(state, bb.expr, EdgeType.FALSE, bb.falseTarget.expr));
+                        changed |= updateState(gs, states, blockChanged, bb.trueTarget, gs.transfer(state, bb.expr, EdgeType.TRUE, bb.trueTarget.expr));
+                        changed |= updateState(gs, states, blockChanged, bb.falseTarget, gs.transfer(state, bb.expr, EdgeType.FALSE, bb.falseTarget.expr));
                     }
                     if(bb.failTargets != null) {
                         for(BasicBlock target : bb.failTargets)
-                            changed |= updateState(gs, target, gs.transfer(state, bb.expr, EdgeType.FAIL, target.expr));
+                            changed |= updateState(gs, states, blockChanged, target, gs.transfer(state, bb.expr, EdgeType.FAIL, target.expr));
                     }
                 }
             }
             if(forwardTill == blocks.size())
                 break;
         }
-        return new SearchResult<>(gs);
+        return new SearchResult<>(gs, states);
     }
     
     @SuppressWarnings("unchecked")
     public class SearchResult<T> {
         private final GraphSearch<T> gs;
+        private final Object[] states;
 
-        SearchResult(GraphSearch<T> gs) {
+        SearchResult(GraphSearch<T> gs, Object[] states) {
             this.gs = gs;
+            this.states = states;
+        }
+        
+        T atBlock(BasicBlock bb) {
+            return (T) states[index(bb)];
         }
         
         public T atExit() {
-            return (T) exit.state;
+            return atBlock(exit);
         }
         
         public T atFail() {
-            return (T) fail.state;
+            return atBlock(fail);
         }
         
         public T atImplicit() {
-            return (T) implicit.state;
+            return atBlock(implicit);
         }
         
         public T atExpression(Expression expr) {
-            return blocksBy(expr).map(bb -> (T)bb.state).filter(Objects::nonNull).reduce(gs::merge).orElse(null);
+            return blocksBy(expr).map(this::atBlock).filter(Objects::nonNull).reduce(gs::merge).orElse(null);
         }
     }
     
     private Stream<BasicBlock> blocksBy(Expression expr) {
-        return blocks.stream().filter(bb -> bb.expr == expr);
+        List<BasicBlock> list = exprBlocks.get(expr);
+        return list == null ? Stream.empty() : list.stream();
+    }
+    
+    private BitSet idsBy(Expression expr) {
+        BitSet ids = new BitSet();
+        blocksBy(expr).forEach(bb -> ids.set(bb.id));
+        return ids;
     }
     
     public boolean mayTerminateImplicitly(Expression expr) {
-        return blocksBy(expr).anyMatch(bb -> isReachable(bb, implicit));
+        return blocksBy(expr).anyMatch(bb -> getReachImplicit().get(index(bb)));
     }
 
     public boolean isReachable(Expression expr) {
@@ -927,10 +1100,24 @@ public class CFG {
     }
     
     public boolean isAlwaysReachable(Expression from, Expression to) {
-        Set<BasicBlock> targets = blocksBy(to).collect(Collectors.toSet());
+        BitSet targets = idsBy(to);
         return blocksBy(from).allMatch(bb -> isAlwaysReachable(bb, targets));
     }
 
+    /**
+     * @param dominator potential dominator expression
+     * @param expr expression
+     * @return true if every path from the method entry to the expression
+     *         goes through the dominator. False if any of expressions is not
+     *         in CFG.
+     */
+    public boolean dominates(Expression dominator, Expression expr) {
+        Dominators doms = getDominators();
+        List<BasicBlock> domBlocks = exprBlocks.get(dominator);
+        return domBlocks != null && blocksBy(expr).findAny().isPresent() && blocksBy(expr).allMatch(
+            bb -> domBlocks.stream().anyMatch(domBlock -> doms.dominates(index(domBlock), index(bb))));
+    }
+
     public CodeBlock findDeadCode(Expression expr, EdgeType deadEdge) {
         Set<BasicBlock> targetBlocks = blocksBy(expr).collect(Collectors.toSet());
         if (targetBlocks.isEmpty())
@@ -943,24 +1130,15 @@ public class CFG {
                 deadEdge = deadEdge == EdgeType.TRUE ? EdgeType.FALSE : EdgeType.TRUE;
             }
         }
-        clearChanged();
-        boolean[] changed = { true };
-        entry.changed = true;
-        while (changed[0]) {
-            changed[0] = false;
-            for (BasicBlock bb : blocks) {
-                if (bb.changed) {
-                    Stream<BasicBlock> targets = targetBlocks.contains(bb) ? bb.targetsExcept(deadEdge) : bb.targets();
-                    targets.filter(t -> !t.changed).forEach(t -> {
-                        t.changed = changed[0] = true;
-                    });
-                }
-            }
+        int[][] liveTargets = successors.clone();
+        for (BasicBlock bb : targetBlocks) {
+            liveTargets[index(bb)] = bb.targetsExcept(deadEdge).mapToInt(this::index).toArray();
         }
+        BitSet live = reach(entry, id -> liveTargets[id], -1);
         BasicBlock deadCodeEntry = null;
         Set<Expression> deadExpressions = new HashSet<>();
         for (BasicBlock bb : blocks) {
-            if (!bb.changed && bb.reached) {
+            if (!live.get(bb.id) && bb.reached) {
                 AstCode code = bb.expr.getCode();
                 if (code == AstCode.Goto || code == AstCode.LogicalAnd || code == AstCode.LogicalOr
                     || code == AstCode.LoopContinue || code == AstCode.LoopOrSwitchBreak)
@@ -975,12 +1153,48 @@ public class CFG {
                 : new CodeBlock(deadCodeEntry.expr, deadExpressions.size(), isExceptional(deadCodeEntry));
     }
     
+    private Liveness getLiveness() {
+        Liveness result = liveness;
+        if (result == null)
+            liveness = result = new Liveness(this);
+        return result;
+    }
+
+    /**
+     * @param var variable
+     * @return true if variable is read anywhere in the method body (including
+     *         lambdas)
+     */
+    public boolean isVariableRead(Variable var) {
+        return getLiveness().isRead(var);
+    }
+
+    /**
+     * @param var variable
+     * @return number of expressions in the method body (including lambdas)
+     *         which refer to given variable
+     */
+    public int getReferenceCount(Variable var) {
+        return getLiveness().getReferenceCount(var);
+    }
+
+    /**
+     * @param expr expression
+     * @param var variable
+     * @return true if value of given variable may be read after given
+     *         expression is evaluated. Also true if expression is not in CFG.
+     */
+    public boolean isLiveAfter(Expression expr, Variable var) {
+        List<BasicBlock> list = exprBlocks.get(expr);
+        return list == null || list.stream().anyMatch(bb -> getLiveness().isLiveAfter(bb, var));
+    }
+
     public boolean isInCFG(Expression expr) {
         return blocksBy(expr).findAny().isPresent();
     }
 
     private boolean isExceptional(BasicBlock start) {
-        return !isReachable(start, exit);
+        return !getReachExit().get(index(start));
     }
 
     void clearChanged() {
@@ -1001,10 +1215,27 @@ public class CFG {
         implicit.state = null;
     }
     
+    /**
+     * Worklist dataflow solver. Blocks are processed in reverse postorder and
+     * only when their incoming state or some fact they read during the
+     * previous processing was changed. If the solution is not found within
+     * the budget or the method {@link Budget} is exhausted, the remaining
+     * blocks and all the blocks reachable from them are widened: they get the
+     * unknown facts and the analysis result becomes incomplete.
+     */
     class DFARunner<STATE, FACT> {
         private final Annotator<FACT> annotator;
         private final Dataflow<FACT, STATE> df;
-        private boolean changed = false;
+        // blocks in reverse postorder
+        private BasicBlock[] order;
+        // block id -> position in order or -1 if block is unreachable
+        private int[] position;
+        // expression -> positions of the blocks which read its fact
+        private final Map<Expression, BitSet> readers = new IdentityHashMap<>();
+        private final BitSet pending = new BitSet();
+        private final BitSet widened = new BitSet();
+        private int current;
+        private boolean exitWidened, failWidened;
 
         DFARunner(Annotator<FACT> annotator, Dataflow<FACT, STATE> df) {
             this.df = df;
@@ -1016,33 +1247,38 @@ public class CFG {
                 return true;
             }
             initialize();
+            clearChanged();
+            computeOrder();
             entry.state = df.makeEntryState();
-            runIteration(blocks);
-            boolean valid = true;
-            if (changed && forwardTill < blocks.size()) {
-                List<BasicBlock> subList = blocks.subList(forwardTill, blocks.size());
-                valid = false;
-                for (int iter = 0; iter < maxIteration; iter++) {
-                    runIteration(subList);
-                    if (!changed) {
-                        valid = true;
-                        break;
-                    }
-                }
-                if (!valid) {
-                    for (BasicBlock bb : subList) {
-                        if (bb.changed) {
-                            annotator.put(bb.expr, df.makeUnknownFact());
-                            bb.state = null;
+            for (BasicBlock bb : blocks) {
+                if (position[bb.id] < 0)
+                    annotator.put(bb.expr, df.makeUnknownFact());
+            }
+            pending.set(0, order.length);
+            // Every block processed once plus maxIteration passes over the loops,
+            // doubled as fact dependencies may schedule the blocks out of order
+            int budget = order.length + maxIteration * 2 * (order.length - getLoopStart());
+            annotator.setReadListener(this::onRead);
+            try {
+                for (int pos = pending.nextSetBit(0); pos >= 0; pos = pending.nextSetBit(0)) {
+                    if (--budget < 0 || !stepBudget.tick()) {
+                        for (; pos >= 0; pos = pending.nextSetBit(pos + 1)) {
+                            widen(order[pos]);
                         }
+                        break;
                     }
-                    if (exit.changed) {
-                        exit.state = null;
-                    }
-                    if (fail.changed) {
-                        fail.state = null;
-                    }
+                    pending.clear(pos);
+                    current = pos;
+                    process(order[pos]);
                 }
+            } finally {
+                annotator.setReadListener(null);
+            }
+            if (exitWidened) {
+                exit.state = null;
+            }
+            if (failWidened) {
+                fail.state = null;
             }
             for (List<BasicBlock> dupList : dupExpr) {
                 FACT res = dupList.stream().map(bb -> annotator.get(bb.expr)).reduce(null, df::mergeFacts);
@@ -1054,50 +1290,139 @@ public class CFG {
             @SuppressWarnings("unchecked")
             STATE failState = (STATE) fail.state;
             df.onFail(failState);
-            return valid;
+            return widened.isEmpty() && !exitWidened && !failWidened;
+        }
+
+        private void computeOrder() {
+            position = new int[blocks.size()];
+            Arrays.fill(position, -1);
+            // iterative depth-first search: visited blocks are marked with position -2
+            List<BasicBlock> postOrder = new ArrayList<>();
+            Deque<BasicBlock> stack = new ArrayDeque<>();
+            Deque<Iterator<BasicBlock>> iterators = new ArrayDeque<>();
+            if (entry.reached && entry.id >= 0) {
+                position[entry.id] = -2;
+                stack.push(entry);
+                iterators.push(entry.targets().iterator());
+            }
+            while (!stack.isEmpty()) {
+                Iterator<BasicBlock> it = iterators.peek();
+                if (it.hasNext()) {
+                    BasicBlock target = it.next();
+                    if (target.id >= 0 && target.reached && position[target.id] == -1) {
+                        position[target.id] = -2;
+                        stack.push(target);
+                        iterators.push(target.targets().iterator());
+                    }
+                } else {
+                    iterators.pop();
+                    postOrder.add(stack.pop());
+                }
+            }
+            Collections.reverse(postOrder);
+            for (BasicBlock bb : blocks) {
+                // normally all the reached blocks are reachable from entry
+                if (bb.reached && position[bb.id] == -1) {
+                    postOrder.add(bb);
+                }
+            }
+            order = postOrder.toArray(new BasicBlock[0]);
+            for (int i = 0; i < order.length; i++) {
+                position[order[i].id] = i;
+            }
         }
 
-        private void runIteration(List<BasicBlock> blocks) {
-            changed = false;
-            clearChanged();
-            for (BasicBlock bb : blocks) {
-                try {
-                    if (!bb.reached) {
-                        annotator.put(bb.expr, df.makeUnknownFact());
-                        continue;
-                    }
-                    @SuppressWarnings("unchecked")
-                    STATE state = (STATE) bb.state;
-                    FACT fact = df.makeFact(state, bb.expr);
-                    FACT oldFact = annotator.get(bb.expr);
-                    if (!df.sameFact(oldFact, fact)) {
-                        FACT updatedFact = df.mergeFacts(oldFact, fact);
-                        if (!df.sameFact(updatedFact, oldFact)) {
-                            annotator.put(bb.expr, updatedFact);
-                            bb.changed = changed = true;
+        /**
+         * @return position of the first loop head in the order or order
+         *         length if there are no loops
+         */
+        private int getLoopStart() {
+            int loopStart = order.length;
+            for (BasicBlock bb : order) {
+                int pos = position[bb.id];
+                loopStart = bb.targets().mapToInt(t -> t.id >= 0 ? position[t.id] : -1).filter(
+                    t -> t >= 0 && t <= pos).reduce(loopStart, Math::min);
+            }
+            return loopStart;
+        }
+
+        private void onRead(Expression expr) {
+            // the block always reads its own fact to merge it
+            if (expr != order[current].expr)
+                readers.computeIfAbsent(expr, k -> new BitSet()).set(current);
+        }
+
+        private void process(BasicBlock bb) {
+            try {
+                @SuppressWarnings("unchecked")
+                STATE state = (STATE) bb.state;
+                FACT fact = df.makeFact(state, bb.expr);
+                FACT oldFact = annotator.get(bb.expr);
+                if (!df.sameFact(oldFact, fact)) {
+                    FACT updatedFact = df.mergeFacts(oldFact, fact);
+                    if (!df.sameFact(updatedFact, oldFact)) {
+                        annotator.put(bb.expr, updatedFact);
+                        bb.changed = true;
+                        BitSet factReaders = readers.get(bb.expr);
+                        if (factReaders != null) {
+                            pending.or(factReaders);
+                            pending.andNot(widened);
                         }
                     }
-                    if (bb.expr.getCode() == AstCode.Goto) {
-                        updateState(state, bb.passTarget);
-                        continue;
-                    }
-                    if (bb.passTarget != null) {
-                        updateState(df.transferState(state, bb.expr), bb.passTarget);
-                    }
-                    if (bb.trueTarget != null || bb.falseTarget != null) {
-                        TrueFalse<STATE> tf = transferConditional(bb.expr, state);
-                        updateState(tf.trueState, bb.trueTarget);
-                        updateState(tf.falseState, bb.falseTarget);
-                    }
-                    if (bb.failTargets != null) {
-                        STATE newState = bb.expr.getCode() == AstCode.Ret ? df.transferState(state, bb.expr)
-                                : df.transferExceptionalState(state, bb.expr);
-                        for (BasicBlock target : bb.failTargets) {
-                            updateState(newState, target);
-                        }
+                }
+                if (bb.expr.getCode() == AstCode.Goto) {
+                    updateState(state, bb.passTarget);
+                    return;
+                }
+                if (bb.passTarget != null) {
+                    updateState(df.transferState(state, bb.expr), bb.passTarget);
+                }
+                if (bb.trueTarget != null || bb.falseTarget != null) {
+                    TrueFalse<STATE> tf = transferConditional(bb.expr, state);
+                    updateState(tf.trueState, bb.trueTarget);
+                    updateState(tf.falseState, bb.falseTarget);
+                }
+                if (bb.failTargets != null) {
+                    STATE newState = bb.expr.getCode() == AstCode.Ret ? df.transferState(state, bb.expr)
+                            : df.transferExceptionalState(state, bb.expr);
+                    for (BasicBlock target : bb.failTargets) {
+                        updateState(newState, target);
                     }
-                } catch (Exception e) {
-                    throw new RuntimeException("Error running DFA at block " + bb + "\n" + CFG.this + CFG.this.body, e);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Error running DFA at block " + bb + "\n" + CFG.this + CFG.this.body, e);
+            }
+        }
+
+        /**
+         * Makes the facts of given block and all the blocks reachable from it
+         * unknown and stops processing them
+         */
+        private void widen(BasicBlock start) {
+            Deque<BasicBlock> queue = new ArrayDeque<>();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                BasicBlock bb = queue.poll();
+                if (bb == exit) {
+                    exitWidened = true;
+                    continue;
+                }
+                if (bb == fail) {
+                    failWidened = true;
+                    continue;
+                }
+                int pos = bb.id >= 0 ? position[bb.id] : -1;
+                if (pos < 0 || widened.get(pos))
+                    continue;
+                widened.set(pos);
+                pending.clear(pos);
+                annotator.put(bb.expr, df.makeUnknownFact());
+                bb.state = null;
+                bb.changed = true;
+                bb.targets().forEach(queue::add);
+                BitSet factReaders = readers.get(bb.expr);
+                if (factReaders != null) {
+                    factReaders.stream().mapToObj(i -> order[i]).forEach(queue::add);
                 }
             }
         }
@@ -1113,18 +1438,25 @@ public class CFG {
         }
 
         private void updateState(STATE newState, BasicBlock target) {
+            int pos = target.id >= 0 ? position[target.id] : -1;
+            if (pos >= 0 && widened.get(pos))
+                return;
             @SuppressWarnings("unchecked")
             STATE oldState = (STATE) target.state;
             if (oldState == null) {
                 if (newState != null) {
                     target.state = newState;
-                    target.changed = changed = true;
+                    target.changed = true;
+                    if (pos >= 0)
+                        pending.set(pos);
                 }
             } else if (newState != null && !df.sameState(oldState, newState)) {
                 STATE updatedState = df.mergeStates(oldState, newState);
                 target.state = updatedState;
                 if (!df.sameState(oldState, updatedState)) {
-                    target.changed = changed = true;
+                    target.changed = true;
+                    if (pos >= 0)
+                        pending.set(pos);
                 }
             }
         }
@@ -68,6 +68,11 @@ public class ClassFields {
         return !stats.mayHaveSideEffect(exact);
     }
 
+    public boolean isNonNullReturn(MethodReference mr, boolean exact) {
+        MethodData stats = ms.getStats(mr);
+        return stats != null && !stats.mayReturnNull(exact);
+    }
+
     public boolean isKnownFinal(MemberInfo field) {
         FieldDefinition fd = fields.get(field);
         return fd != null && fd.isFinal();
@@ -15,9 +15,6 @@
  */
 package one.util.huntbugs.flow;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -83,47 +80,36 @@ public class ConstAnnotator extends Annotator<Object> {
     }
 
     static final class ContextValues {
-        static final ContextValues DEFAULT = new ContextValues(null);
+        static final ContextValues DEFAULT = new ContextValues(VarMap.empty());
         
-        final Map<Variable, Object> values;
+        final VarMap<Object> values;
         
-        private ContextValues(Map<Variable, Object> values) {
+        private ContextValues(VarMap<Object> values) {
             this.values = values;
         }
         
+        private ContextValues with(VarMap<Object> newValues) {
+            if(newValues == values)
+                return this;
+            return newValues.isEmpty() ? DEFAULT : new ContextValues(newValues);
+        }
+        
         ContextValues merge(ContextValues other) {
             if(this == other)
                 return this;
             if(this == DEFAULT || other == DEFAULT)
                 return DEFAULT;
-            Map<Variable, Object> newValues = new HashMap<>(values);
-            newValues.keySet().retainAll(other.values.keySet());
-            if(newValues.isEmpty())
-                return DEFAULT;
-            other.values.forEach((k, v) -> newValues.compute(k, (oldK, oldV) -> Objects.equals(v, oldV) ? v : null));
-            return newValues.isEmpty() ? DEFAULT : new ContextValues(newValues);
+            return with(values.merge(other.values, (var, v1, v2) -> Objects.equals(v1, v2) ? v1 : null));
         }
         
         ContextValues add(Variable var, Object value) {
-            if(values == null) {
-                return new ContextValues(Collections.singletonMap(var, value));
-            }
             if(Objects.equals(value, values.get(var)))
                 return this;
-            Map<Variable, Object> newValues = new HashMap<>(values);
-            newValues.put(var, value);
-            return new ContextValues(newValues);
+            return with(values.put(var, value));
         }
         
         ContextValues remove(Variable var) {
-            if(values != null && values.containsKey(var)) {
-                if(values.size() == 1)
-                    return DEFAULT;
-                Map<Variable, Object> newValues = new HashMap<>(values);
-                newValues.remove(var);
-                return new ContextValues(newValues);
-            }
-            return this;
+            return with(values.remove(var));
         }
         
         ContextValues transfer(Expression expr) {
@@ -133,7 +119,7 @@ public class ConstAnnotator extends Annotator<Object> {
         
         Object resolve(Expression expr) {
             Object oper = expr.getOperand();
-            Object result = oper instanceof Variable && values != null ? values.get(oper) : null;
+            Object result = oper instanceof Variable ? values.get((Variable) oper) : null;
             return result == UNKNOWN_VALUE ? null : result;
         }
 
@@ -144,12 +130,17 @@ public class ConstAnnotator extends Annotator<Object> {
             if (obj == null || getClass() != obj.getClass())
                 return false;
             ContextValues other = (ContextValues) obj;
-            return Objects.equals(values, other.values);
+            return values.equals(other.values);
+        }
+        
+        @Override
+        public int hashCode() {
+            return values.hashCode();
         }
         
         @Override
         public String toString() {
-            return values == null ? "{}" : values.toString();
+            return values.toString();
         }
     }
     
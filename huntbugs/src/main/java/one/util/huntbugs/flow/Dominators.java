@@ -0,0 +1,182 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.Arrays;
+
+/**
+ * Immutable dominator tree of the graph given by successors of the nodes
+ * numbered densely. Immediate dominators are computed by the iterative
+ * algorithm of Cooper, Harvey and Kennedy over the reverse postorder, then the
+ * tree is numbered by the depth-first traversal, so dominance test takes
+ * constant time.
+ */
+class Dominators {
+    // node -> immediate dominator, root for root, -1 for unreachable node
+    private final int[] idom;
+    // node -> interval of its subtree in the tree traversal
+    private final int[] enter, exit;
+
+    Dominators(int[][] successors, int root) {
+        int n = successors.length;
+        int[] order = postOrder(successors, root);
+        int[] rpo = new int[n];
+        Arrays.fill(rpo, -1);
+        for (int i = 0; i < order.length; i++) {
+            rpo[order[i]] = order.length - 1 - i;
+        }
+        int[][] predecessors = predecessors(successors, rpo);
+        idom = new int[n];
+        Arrays.fill(idom, -1);
+        idom[root] = root;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = order.length - 2; i >= 0; i--) {
+                int node = order[i];
+                int newIdom = -1;
+                for (int pred : predecessors[node]) {
+                    if (idom[pred] < 0)
+                        continue;
+                    newIdom = newIdom < 0 ? pred : intersect(pred, newIdom, rpo);
+                }
+                if (newIdom != idom[node]) {
+                    idom[node] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        enter = new int[n];
+        exit = new int[n];
+        number(root, order);
+    }
+
+    private static int[] postOrder(int[][] successors, int root) {
+        int n = successors.length;
+        int[] order = new int[n], path = new int[n], pos = new int[n];
+        boolean[] visited = new boolean[n];
+        int count = 0, depth = 0;
+        visited[root] = true;
+        path[depth++] = root;
+        while (depth > 0) {
+            int node = path[depth - 1];
+            if (pos[node] < successors[node].length) {
+                int target = successors[node][pos[node]++];
+                if (!visited[target]) {
+                    visited[target] = true;
+                    path[depth++] = target;
+                }
+            } else {
+                depth--;
+                order[count++] = node;
+            }
+        }
+        return Arrays.copyOf(order, count);
+    }
+
+    private static int[][] predecessors(int[][] successors, int[] rpo) {
+        int n = successors.length;
+        int[] counts = new int[n];
+        for (int node = 0; node < n; node++) {
+            if (rpo[node] >= 0) {
+                for (int target : successors[node])
+                    counts[target]++;
+            }
+        }
+        int[][] result = new int[n][];
+        for (int node = 0; node < n; node++) {
+            result[node] = new int[counts[node]];
+            counts[node] = 0;
+        }
+        for (int node = 0; node < n; node++) {
+            if (rpo[node] >= 0) {
+                for (int target : successors[node])
+                    result[target][counts[target]++] = node;
+            }
+        }
+        return result;
+    }
+
+    private int intersect(int a, int b, int[] rpo) {
+        while (a != b) {
+            while (rpo[a] > rpo[b])
+                a = idom[a];
+            while (rpo[b] > rpo[a])
+                b = idom[b];
+        }
+        return a;
+    }
+
+    private void number(int root, int[] order) {
+        int n = idom.length;
+        // children lists in the compressed form
+        int[] first = new int[n], next = new int[n];
+        Arrays.fill(first, -1);
+        for (int node : order) {
+            if (node != root) {
+                next[node] = first[idom[node]];
+                first[idom[node]] = node;
+            }
+        }
+        Arrays.fill(enter, -1);
+        int[] path = new int[n], child = new int[n];
+        int depth = 0, counter = 0;
+        path[depth++] = root;
+        enter[root] = counter++;
+        child[root] = first[root];
+        while (depth > 0) {
+            int node = path[depth - 1];
+            int c = child[node];
+            if (c >= 0) {
+                child[node] = next[c];
+                enter[c] = counter++;
+                child[c] = first[c];
+                path[depth++] = c;
+            } else {
+                exit[node] = counter++;
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * @param node node id
+     * @return true if node is reachable from the root
+     */
+    boolean isReachable(int node) {
+        return idom[node] >= 0;
+    }
+
+    /**
+     * @param node node id
+     * @return immediate dominator of the node, root for root itself or -1 if
+     *         node is not reachable
+     */
+    int getImmediateDominator(int node) {
+        return idom[node];
+    }
+
+    /**
+     * @param dominator potential dominator id
+     * @param node node id
+     * @return true if every path from the root to the node goes through the
+     *         dominator (every node dominates itself)
+     */
+    boolean dominates(int dominator, int node) {
+        return enter[dominator] >= 0 && enter[node] >= 0 && enter[dominator] <= enter[node]
+            && exit[node] <= exit[dominator];
+    }
+}
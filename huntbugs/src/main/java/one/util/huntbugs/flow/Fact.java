@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Kinds of the facts which can be built for the method expressions by
+ * {@link ValuesFlow}. Each fact refers to the corresponding annotator in
+ * {@link Inf}.
+ */
+public enum Fact {
+    /**
+     * {@link Inf#SOURCE}: always built when method AST is visited
+     */
+    SOURCE,
+    /**
+     * {@link Inf#CONST}
+     */
+    CONST(SOURCE),
+    /**
+     * {@link Inf#ETYPE}
+     */
+    ETYPE(SOURCE, CONST),
+    /**
+     * {@link Inf#NULL}
+     */
+    NULL(SOURCE, CONST),
+    /**
+     * {@link Inf#PURITY}
+     */
+    PURITY(SOURCE, CONST),
+    /**
+     * {@link Inf#BACKLINK}
+     */
+    BACKLINK(SOURCE);
+
+    private final Fact[] deps;
+    // Statistics and timing keys are created once as they are updated for every method
+    final String timingKey = "Inf." + name();
+    final String incompleteStat = timingKey + ".Incomplete/ValuesFlow";
+    final String skippedStat = timingKey + ".Skipped/ValuesFlow";
+    final String onDemandStat = timingKey + ".OnDemand";
+
+    private Fact(Fact... deps) {
+        this.deps = deps;
+    }
+
+    Annotator<?> getAnnotator() {
+        switch (this) {
+        case SOURCE:
+            return Inf.SOURCE;
+        case CONST:
+            return Inf.CONST;
+        case ETYPE:
+            return Inf.ETYPE;
+        case NULL:
+            return Inf.NULL;
+        case PURITY:
+            return Inf.PURITY;
+        case BACKLINK:
+            return Inf.BACKLINK;
+        default:
+            throw new InternalError();
+        }
+    }
+
+    /**
+     * @param facts facts to start from
+     * @return mutable set which contains given facts, the facts they are
+     *         built from and {@link #SOURCE}
+     */
+    public static Set<Fact> closure(Collection<Fact> facts) {
+        Set<Fact> result = EnumSet.of(SOURCE);
+        for (Fact fact : facts) {
+            result.add(fact);
+            for (Fact dep : fact.deps) {
+                result.add(dep);
+            }
+        }
+        return result;
+    }
+}
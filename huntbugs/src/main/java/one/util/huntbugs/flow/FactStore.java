@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import com.strobel.decompiler.ast.Expression;
+
+/**
+ * Side table which stores the facts of the expressions of one method. Every
+ * expression gets a dense id on its first fact, the facts are stored in the
+ * per-annotator columns indexed by that id. Facts of the small enum types are
+ * stored as bytes. The whole store is dropped with the method, so no
+ * per-expression objects are left behind.
+ * 
+ * <p>
+ * The store is used for the expressions processed on the current thread while
+ * it's active (see {@link #activate(FactStore)}). Facts of the expressions
+ * known to the parent store (e.g. the class-wide store of the constructors which
+ * expressions are shared via {@link ClassFields}) are stored there, new
+ * expressions are always added to the active store, so the parent is never
+ * resized.
+ */
+public class FactStore {
+    private static final ThreadLocal<FactStore> active = new ThreadLocal<>();
+
+    private final FactStore parent;
+    // open addressing identity table: expression -> id
+    private Expression[] keys = new Expression[64];
+    private int[] ids = new int[64];
+    private int size;
+    // Object[] or byte[] for every annotator
+    private Object[] columns = new Object[8];
+    // Read listener for every annotator (see Annotator#setReadListener)
+    private Consumer<?>[] readListeners = new Consumer<?>[8];
+
+    /**
+     * @param parent store to look up the expressions which are not known to
+     *        this store, can be null
+     */
+    public FactStore(FactStore parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Makes given store active for the current thread
+     * 
+     * @param store store to activate or null to use the expression user data
+     * @return previously active store (possibly null) which should be
+     *         activated back when done
+     */
+    public static FactStore activate(FactStore store) {
+        FactStore prev = active.get();
+        if (store == null)
+            active.remove();
+        else
+            active.set(store);
+        return prev;
+    }
+
+    static FactStore active() {
+        return active.get();
+    }
+
+    /**
+     * @return number of the expressions having facts in this store (not
+     *         including the parent)
+     */
+    public int size() {
+        return size;
+    }
+
+    private static int hash(Expression expr) {
+        return System.identityHashCode(expr) * 0x9E3779B9;
+    }
+
+    private int indexOf(Expression expr) {
+        int mask = keys.length - 1;
+        for (int pos = hash(expr) & mask;; pos = (pos + 1) & mask) {
+            Expression key = keys[pos];
+            if (key == expr)
+                return ids[pos];
+            if (key == null)
+                return -1;
+        }
+    }
+
+    private int add(Expression expr) {
+        if (size * 2 >= keys.length)
+            rehash();
+        int mask = keys.length - 1;
+        int pos = hash(expr) & mask;
+        while (keys[pos] != null)
+            pos = (pos + 1) & mask;
+        keys[pos] = expr;
+        ids[pos] = size;
+        return size++;
+    }
+
+    private void rehash() {
+        Expression[] oldKeys = keys;
+        int[] oldIds = ids;
+        keys = new Expression[oldKeys.length * 2];
+        ids = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Expression key = oldKeys[i];
+            if (key != null) {
+                int pos = hash(key) & mask;
+                while (keys[pos] != null)
+                    pos = (pos + 1) & mask;
+                keys[pos] = key;
+                ids[pos] = oldIds[i];
+            }
+        }
+    }
+
+    Object get(Expression expr, int annotator) {
+        for (FactStore store = this; store != null; store = store.parent) {
+            int id = store.indexOf(expr);
+            if (id >= 0)
+                return store.read(id, annotator);
+        }
+        return null;
+    }
+
+    private Object read(int id, int annotator) {
+        Object column = annotator < columns.length ? columns[annotator] : null;
+        if (column instanceof byte[]) {
+            byte[] bytes = (byte[]) column;
+            return id < bytes.length && bytes[id] != 0 ? Annotators.decode(annotator, bytes[id]) : null;
+        }
+        Object[] values = (Object[]) column;
+        return values != null && id < values.length ? values[id] : null;
+    }
+
+    private void write(int id, int annotator, Object data) {
+        if (annotator >= columns.length)
+            columns = Arrays.copyOf(columns, annotator + 1);
+        Object column = columns[annotator];
+        Object[] universe = Annotators.universe(annotator);
+        if (universe != null) {
+            byte[] bytes = (byte[]) column;
+            if (bytes == null || id >= bytes.length) {
+                bytes = bytes == null ? new byte[Math.max(keys.length / 2, id + 1)] : Arrays.copyOf(bytes, Math.max(
+                    bytes.length * 2, id + 1));
+                columns[annotator] = bytes;
+            }
+            bytes[id] = Annotators.encode(annotator, data);
+        } else {
+            Object[] values = (Object[]) column;
+            if (values == null || id >= values.length) {
+                values = values == null ? new Object[Math.max(keys.length / 2, id + 1)] : Arrays.copyOf(values, Math
+                        .max(values.length * 2, id + 1));
+                columns[annotator] = values;
+            }
+            values[id] = data;
+        }
+    }
+
+    void put(Expression expr, int annotator, Object data) {
+        for (FactStore store = this; store != null; store = store.parent) {
+            int id = store.indexOf(expr);
+            if (id >= 0) {
+                store.write(id, annotator, data);
+                return;
+            }
+        }
+        if (data != null)
+            write(add(expr), annotator, data);
+    }
+
+    @SuppressWarnings("unchecked")
+    Consumer<Expression> getReadListener(int annotator) {
+        return annotator < readListeners.length ? (Consumer<Expression>) readListeners[annotator] : null;
+    }
+
+    void setReadListener(int annotator, Consumer<Expression> listener) {
+        if (annotator >= readListeners.length)
+            readListeners = Arrays.copyOf(readListeners, annotator + 1);
+        readListeners[annotator] = listener;
+    }
+
+    void replace(Expression expr, int annotator, Object oldData, Object data) {
+        if (get(expr, annotator) == oldData)
+            put(expr, annotator, data);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.strobel.decompiler.ast.AstCode;
+import com.strobel.decompiler.ast.Expression;
+import com.strobel.decompiler.ast.Lambda;
+import com.strobel.decompiler.ast.Node;
+import com.strobel.decompiler.ast.Variable;
+
+import one.util.huntbugs.flow.CFG.BasicBlock;
+import one.util.huntbugs.util.Nodes;
+
+/**
+ * Dense variable ids and live variables analysis for the CFG. Variable sets
+ * are bit sets indexed by variable id, block states are indexed by dense block
+ * id.
+ */
+class Liveness {
+    private final CFG cfg;
+    private final Map<Variable, Integer> ids = new IdentityHashMap<>();
+    private int[] references = new int[16];
+    private final BitSet read = new BitSet();
+    // variables which may be read when the block is entered
+    private final BitSet[] liveIn;
+
+    Liveness(CFG cfg) {
+        this.cfg = cfg;
+        forExpressions(cfg.body, expr -> {
+            Object operand = expr.getOperand();
+            if (operand instanceof Variable) {
+                int id = getOrCreateId((Variable) operand);
+                references[id]++;
+                if (expr.getCode() != AstCode.Store)
+                    read.set(id);
+            }
+        });
+        this.liveIn = solve();
+    }
+
+    private int getOrCreateId(Variable var) {
+        Integer id = ids.get(var);
+        if (id == null) {
+            id = ids.size();
+            ids.put(var, id);
+            if (id == references.length)
+                references = Arrays.copyOf(references, id * 2);
+        }
+        return id;
+    }
+
+    private static void forExpressions(Node node, Consumer<Expression> consumer) {
+        if (node instanceof Expression)
+            consumer.accept((Expression) node);
+        for (Node child : Nodes.getChildren(node)) {
+            forExpressions(child, consumer);
+        }
+    }
+
+    private BitSet[] solve() {
+        List<BasicBlock> blocks = cfg.blocks;
+        int n = blocks.size();
+        BitSet[] use = new BitSet[n];
+        int[] def = new int[n];
+        for (int i = 0; i < n; i++) {
+            BitSet used = new BitSet();
+            def[i] = -1;
+            use[i] = used;
+            Expression expr = blocks.get(i).expr;
+            if (expr == null)
+                continue;
+            Object operand = expr.getOperand();
+            if (operand instanceof Lambda) {
+                // captured variables are read when lambda is created
+                forExpressions((Lambda) operand, e -> {
+                    if (e.getOperand() instanceof Variable && e.getCode() != AstCode.Store)
+                        used.set(ids.get(e.getOperand()));
+                });
+            } else if (operand instanceof Variable && expr.getCode() != AstCode.Store) {
+                used.set(ids.get(operand));
+            }
+            Variable written = Nodes.getWrittenVariable(expr);
+            if (written != null && ids.containsKey(written))
+                def[i] = ids.get(written);
+        }
+        BitSet[] in = new BitSet[cfg.successors.length];
+        for (int i = 0; i < in.length; i++) {
+            in[i] = new BitSet();
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = n - 1; i >= 0; i--) {
+                BitSet live = liveOut(in, i);
+                if (def[i] >= 0)
+                    live.clear(def[i]);
+                live.or(use[i]);
+                if (!live.equals(in[i])) {
+                    in[i] = live;
+                    changed = true;
+                }
+            }
+        }
+        return in;
+    }
+
+    private BitSet liveOut(BitSet[] in, int block) {
+        BitSet live = new BitSet();
+        for (int target : cfg.successors[block]) {
+            live.or(in[target]);
+        }
+        return live;
+    }
+
+    int getId(Variable var) {
+        Integer id = ids.get(var);
+        return id == null ? -1 : id;
+    }
+
+    boolean isRead(Variable var) {
+        int id = getId(var);
+        return id >= 0 && read.get(id);
+    }
+
+    int getReferenceCount(Variable var) {
+        int id = getId(var);
+        return id < 0 ? 0 : references[id];
+    }
+
+    boolean isLiveAfter(BasicBlock bb, Variable var) {
+        int id = getId(var);
+        return id >= 0 && liveOut(liveIn, cfg.index(bb)).get(id);
+    }
+}
@@ -15,12 +15,7 @@
  */
 package one.util.huntbugs.flow;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 
 import com.strobel.assembler.metadata.FieldDefinition;
 import com.strobel.assembler.metadata.FieldReference;
@@ -45,8 +40,8 @@ public class NullAnnotator extends Annotator<Nullness> {
         super("null", null);
     }
 
-    boolean build(CFG cfg) {
-        return cfg.<ContextNulls, Nullness> runDFA(this, (md, closure) -> new NullDataflow(md,
+    boolean build(ClassFields cf, CFG cfg) {
+        return cfg.<ContextNulls, Nullness> runDFA(this, (md, closure) -> new NullDataflow(md, cf,
                 closure == null ? ContextNulls.DEFAULT : closure), 7);
     }
 
@@ -56,36 +51,33 @@ public class NullAnnotator extends Annotator<Nullness> {
     }
 
     static class ContextNulls {
-        static final ContextNulls DEFAULT = new ContextNulls(null);
+        static final ContextNulls DEFAULT = new ContextNulls(VarMap.empty());
 
-        final Map<Variable, Nullness> values;
+        final VarMap<Nullness> values;
 
-        private ContextNulls(Map<Variable, Nullness> values) {
+        private ContextNulls(VarMap<Nullness> values) {
             this.values = values;
         }
 
+        private ContextNulls with(VarMap<Nullness> newValues) {
+            if (newValues == values)
+                return this;
+            return newValues.isEmpty() ? DEFAULT : new ContextNulls(newValues);
+        }
+
         ContextNulls merge(ContextNulls other) {
             if (this == other)
                 return this;
-            if (values == null || other.values == null)
+            if (this == DEFAULT || other == DEFAULT)
                 return DEFAULT;
-            Set<Variable> vars = new HashSet<>(values.keySet());
-            vars.addAll(other.values.keySet());
-            Map<Variable, Nullness> newNulls = new HashMap<>();
-            for(Variable v : vars) {
-                Nullness n1 = get(values, v);
-                Nullness n2 = get(other.values, v);
-                if(n1 != null && n2 != null) {
-                    Nullness n = n1.or(n2);
-                    if(n != null)
-                        newNulls.put(v, n);
-                }
-            }
-            return newNulls.isEmpty() ? DEFAULT : new ContextNulls(newNulls);
+            return with(values.merge(other.values, (v, left, right) -> {
+                Nullness n1 = get(left, v);
+                Nullness n2 = get(right, v);
+                return n1 == null || n2 == null ? null : n1.or(n2);
+            }));
         }
 
-        private static Nullness get(Map<Variable, Nullness> map, Variable v) {
-            Nullness nullness = map.get(v);
+        private static Nullness get(Nullness nullness, Variable v) {
             if(nullness != null)
                 return nullness;
             ParameterDefinition pd = v.getOriginalParameter();
@@ -96,26 +88,14 @@ public class NullAnnotator extends Annotator<Nullness> {
         }
 
         ContextNulls add(Variable var, Nullness value) {
-            if (values == null) {
-                return new ContextNulls(Collections.singletonMap(var, value));
-            }
             Nullness oldNullability = values.get(var);
             if (Objects.equals(value, oldNullability))
                 return this;
-            Map<Variable, Nullness> newNulls = new HashMap<>(values);
-            newNulls.put(var, value);
-            return new ContextNulls(newNulls);
+            return with(values.put(var, value));
         }
 
         ContextNulls remove(Variable var) {
-            if (values != null && values.containsKey(var)) {
-                if (values.size() == 1)
-                    return DEFAULT;
-                Map<Variable, Nullness> newNulls = new HashMap<>(values);
-                newNulls.remove(var);
-                return new ContextNulls(newNulls);
-            }
-            return this;
+            return with(values.remove(var));
         }
 
         ContextNulls transfer(Expression expr) {
@@ -130,7 +110,7 @@ public class NullAnnotator extends Annotator<Nullness> {
 
         Nullness resolve(Expression expr) {
             Object oper = expr.getOperand();
-            Nullness result = oper instanceof Variable && values != null ? values.get(oper) : null;
+            Nullness result = oper instanceof Variable ? values.get((Variable) oper) : null;
             return result == null ? Nullness.UNKNOWN : result;
         }
 
@@ -141,12 +121,17 @@ public class NullAnnotator extends Annotator<Nullness> {
             if (obj == null || getClass() != obj.getClass())
                 return false;
             ContextNulls other = (ContextNulls) obj;
-            return Objects.equals(values, other.values);
+            return values.equals(other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
         }
 
         @Override
         public String toString() {
-            return values == null ? "{}" : values.toString();
+            return values.toString();
         }
 
     }
@@ -154,10 +139,12 @@ public class NullAnnotator extends Annotator<Nullness> {
     class NullDataflow implements Dataflow<Nullness, ContextNulls> {
         private final ContextNulls initial;
         private final MethodDefinition md;
+        private final ClassFields cf;
 
-        NullDataflow(MethodDefinition md, ContextNulls initial) {
+        NullDataflow(MethodDefinition md, ClassFields cf, ContextNulls initial) {
             this.initial = initial;
             this.md = md;
+            this.cf = cf;
         }
 
         @Override
@@ -329,6 +316,17 @@ public class NullAnnotator extends Annotator<Nullness> {
                 return get(expr.getArguments().get(2));
             case AConstNull:
                 return Nullness.nullAt(expr);
+            case InvokeSpecial:
+            case InvokeStatic:
+            case InvokeVirtual:
+            case InvokeInterface: {
+                MethodReference mr = (MethodReference) expr.getOperand();
+                if (!mr.getReturnType().isPrimitive()
+                    && cf.isNonNullReturn(mr, expr.getCode() == AstCode.InvokeSpecial
+                        || expr.getCode() == AstCode.InvokeStatic))
+                    return Nullness.createAt(expr, NullState.NONNULL);
+                return Nullness.UNKNOWN;
+            }
             default:
                 return Nullness.UNKNOWN;
             }
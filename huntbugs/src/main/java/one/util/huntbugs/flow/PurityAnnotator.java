@@ -31,7 +31,7 @@ import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
  */
 public class PurityAnnotator extends Annotator<PurityAnnotator.Purity> {
     PurityAnnotator() {
-        super("purity", Purity.HEAP_MOD);
+        super("purity", Purity.HEAP_MOD, Purity.values());
     }
 
     public static enum Purity {
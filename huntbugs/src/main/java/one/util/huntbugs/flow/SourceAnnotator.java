@@ -133,13 +133,12 @@ public class SourceAnnotator extends Annotator<Expression> {
     }
 
     static class Frame {
-        private final Map<Variable, Expression> sources;
+        private final VarMap<Expression> sources;
         private final FrameContext fc;
         final Map<MemberInfo, Expression> fieldValues;
         final Map<ParameterDefinition, Expression> initial;
         
         Frame(FrameContext fc, Frame closure) {
-            this.sources = new IdentityHashMap<>();
             this.fieldValues = fc.getInitialFields();
             this.fc = fc;
             this.initial = new IdentityHashMap<>();
@@ -152,11 +151,13 @@ public class SourceAnnotator extends Annotator<Expression> {
             }
             if(closure != null) {
                 initial.putAll(closure.initial);
-                sources.putAll(closure.sources);
+                this.sources = closure.sources;
+            } else {
+                this.sources = VarMap.empty();
             }
         }
     
-        private Frame(Frame parent, Map<Variable, Expression> sources, Map<MemberInfo, Expression> fields) {
+        private Frame(Frame parent, VarMap<Expression> sources, Map<MemberInfo, Expression> fields) {
             this.fc = parent.fc;
             this.initial = parent.initial;
             this.fieldValues = fields;
@@ -178,14 +179,14 @@ public class SourceAnnotator extends Annotator<Expression> {
         }
     
         Frame merge(Frame other, FrameContext fc) {
-            Map<Variable, Expression> res = mergeSources(other, fc);
+            VarMap<Expression> res = sources.merge(other.sources, (var, left, right) -> left == null
+                ? makePhiNode(right, initial.get(var.getOriginalParameter()), fc)
+                : makePhiNode(left, right == null ? initial.get(var.getOriginalParameter()) : right, fc));
             Map<MemberInfo, Expression> resFields = mergeFields(other.fieldValues, fc);
-            if(resFields == null && res == null)
+            if(resFields == null && res == sources)
                 return this;
             if(resFields == null)
                 resFields = fieldValues;
-            if(res == null)
-                res = sources;
             return new Frame(this, res, resFields);
         }
     
@@ -207,39 +208,11 @@ public class SourceAnnotator extends Annotator<Expression> {
             return Maps.compactify(resFields);
         }
     
-        private Map<Variable, Expression> mergeSources(Frame other, FrameContext fc) {
-            Map<Variable, Expression> res = null;
-            for (Entry<Variable, Expression> e : sources.entrySet()) {
-                Expression left = e.getValue();
-                Expression right = other.get(e.getKey());
-                Expression phi = makePhiNode(left, right, fc);
-                if (phi == left)
-                    continue;
-                if (res == null)
-                    res = new IdentityHashMap<>(sources);
-                res.put(e.getKey(), phi);
-            }
-            for(Entry<Variable, Expression> e : other.sources.entrySet()) {
-                if(!sources.containsKey(e.getKey())) {
-                    if (res == null)
-                        res = new IdentityHashMap<>(sources);
-                    res.put(e.getKey(), makePhiNode(e.getValue(), initial.get(e.getKey().getOriginalParameter()), fc));
-                }
-            }
-            return res;
-        }
-    
         static boolean isEqual(Frame left, Frame right) {
             if (left == right)
                 return true;
-            Map<Variable, Expression> l = left.sources;
-            Map<Variable, Expression> r = right.sources;
-            if(l.size() != r.size())
+            if(!left.sources.matches(right.sources, SourceAnnotator::isExprEqual))
                 return false;
-            for(Entry<Variable, Expression> e : l.entrySet()) {
-                if(!isExprEqual(e.getValue(), r.get(e.getKey())))
-                    return false;
-            }
             Map<MemberInfo, Expression> lf = left.fieldValues;
             Map<MemberInfo, Expression> rf = right.fieldValues;
             if(lf.size() != rf.size())
@@ -254,9 +227,7 @@ public class SourceAnnotator extends Annotator<Expression> {
         private Frame replace(Variable var, Expression replacement) {
             Expression expression = get(var);
             if (expression != replacement) {
-                Map<Variable, Expression> res = new IdentityHashMap<>(sources);
-                res.put(var, replacement);
-                return new Frame(this, res, this.fieldValues);
+                return new Frame(this, sources.put(var, replacement), this.fieldValues);
             }
             return this;
         }
@@ -309,16 +280,8 @@ public class SourceAnnotator extends Annotator<Expression> {
         }
     
         Frame replaceAll(UnaryOperator<Expression> op) {
-            Map<Variable, Expression> res = null;
-            for (Entry<Variable, Expression> e : sources.entrySet()) {
-                Expression expr = op.apply(e.getValue());
-                if (expr != e.getValue()) {
-                    if (res == null)
-                        res = new IdentityHashMap<>(sources);
-                    res.put(e.getKey(), expr);
-                }
-            }
-            return res == null ? this : new Frame(this, res, this.fieldValues);
+            VarMap<Expression> res = sources.replaceValues(op);
+            return res == sources ? this : new Frame(this, res, this.fieldValues);
         }
     }
 
@@ -17,13 +17,18 @@ package one.util.huntbugs.flow;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.analysis.Timings;
 import one.util.huntbugs.util.Types;
 import com.strobel.assembler.metadata.BuiltinTypes;
 import com.strobel.assembler.metadata.MethodDefinition;
@@ -36,24 +41,184 @@ import com.strobel.decompiler.ast.Expression;
  *
  */
 public class ValuesFlow {
+    // Degradation tiers: when the budget runs out, the expensive facts are
+    // dropped first, then the whole values flow
+    private static final Set<Fact> CHEAP_FACTS = EnumSet.of(Fact.CONST, Fact.PURITY);
+    private static final Set<Fact> EXPENSIVE_FACTS = EnumSet.of(Fact.ETYPE, Fact.NULL);
+
     public static List<Expression> annotate(Context ctx, MethodDefinition md, ClassFields cf, CFG cfg) {
+        List<Expression> origParams = annotateLocal(ctx, md, cf, cfg);
+        annotateBackLinks(cfg);
+        return origParams;
+    }
+
+    /**
+     * Builds all the facts except back links
+     * 
+     * @see #annotateLocal(Context, MethodDefinition, ClassFields, CFG, Set, Budget)
+     */
+    public static List<Expression> annotateLocal(Context ctx, MethodDefinition md, ClassFields cf, CFG cfg) {
+        return annotateLocal(ctx, md, cf, cfg, EnumSet.allOf(Fact.class), new Budget(0));
+    }
+
+    /**
+     * Builds the facts which are stored in the method expressions only. Does
+     * not modify the supplied {@link ClassFields}, so can be called
+     * concurrently for the different methods of the same class unless the
+     * method is a constructor or a type initializer.
+     * 
+     * <p>
+     * The budget is spent on the cheap facts ({@link Fact#SOURCE},
+     * {@link Fact#CONST} and {@link Fact#PURITY}) first. If it is exhausted
+     * afterwards, both {@link Fact#ETYPE} and {@link Fact#NULL} are skipped.
+     * If it is exhausted before, the whole values flow is skipped, including
+     * back links. Which facts are skipped thus depends only on the tier
+     * where the budget ran out, not on the requested facts. Skipped facts
+     * are reported by {@link Budget#getSkipped()}.
+     * 
+     * @param facts facts to build along with the facts they depend on (see
+     *        {@link Fact#closure(Collection)}). {@link Fact#SOURCE} is always
+     *        built, {@link Fact#BACKLINK} is never built here.
+     * @param budget steps which may be spent for the method
+     * @return original parameter expressions or null if the sources are
+     *         incomplete
+     */
+    public static List<Expression> annotateLocal(Context ctx, MethodDefinition md, ClassFields cf, CFG cfg,
+            Set<Fact> facts, Budget budget) {
         ctx.incStat("ValuesFlow");
+        Timings timings = ctx.getTimings();
+        long time = Timings.start(timings);
+        cfg.setBudget(budget);
         Collection<Expression> origFrame = Inf.SOURCE.build(cf, cfg);
         if(origFrame == null) {
-            ctx.incStat("Inf.SOURCE.Incomplete/ValuesFlow");
+            ctx.incStat(Fact.SOURCE.incompleteStat);
         }
-        if(!Inf.CONST.build(cfg)) {
-            ctx.incStat("Inf.CONST.Incomplete/ValuesFlow");
+        Timings.lap(timings, Fact.SOURCE.timingKey, time);
+        Set<Fact> requested = Fact.closure(facts);
+        Set<Fact> skipped = buildTier(ctx, cf, cfg, requested, budget, CHEAP_FACTS, EnumSet.allOf(Fact.class));
+        if (skipped == null)
+            skipped = buildTier(ctx, cf, cfg, requested, budget, EXPENSIVE_FACTS, EXPENSIVE_FACTS);
+        if (skipped == null)
+            return origFrame == null ? null : new ArrayList<>(origFrame);
+        ctx.incStat("Budget.Exhausted/ValuesFlow");
+        for (Fact fact : skipped) {
+            if (requested.contains(fact))
+                ctx.incStat(fact.skippedStat);
+            budget.skip(fact);
         }
-        if(!Inf.ETYPE.build(cfg)) {
-            ctx.incStat("Inf.ETYPE.Incomplete/ValuesFlow");
+        return skipped.contains(Fact.SOURCE) || origFrame == null ? null : new ArrayList<>(origFrame);
+    }
+
+    /**
+     * Builds the requested facts of a single degradation tier
+     * 
+     * @param tier facts of the tier in build order
+     * @param dropped facts to skip if the budget is exhausted
+     * @return dropped facts if the budget was exhausted by this tier or
+     *         before, null otherwise
+     */
+    private static Set<Fact> buildTier(Context ctx, ClassFields cf, CFG cfg, Set<Fact> requested, Budget budget,
+            Set<Fact> tier, Set<Fact> dropped) {
+        for (Fact fact : tier) {
+            if (budget.isExhausted())
+                break;
+            if (requested.contains(fact))
+                build(ctx, cf, cfg, fact);
         }
-        if(!Inf.NULL.build(cfg)) {
-            ctx.incStat("Inf.NULL.Incomplete/ValuesFlow");
+        return budget.isExhausted() ? dropped : null;
+    }
+
+    /**
+     * Builds a single fact for the method. The facts it depends on must be
+     * built already, see {@link Fact#closure(Collection)}.
+     * 
+     * @param fact fact to build
+     */
+    static void annotate(Context ctx, ClassFields cf, CFG cfg, Fact fact) {
+        if (fact == Fact.SOURCE)
+            Inf.SOURCE.build(cf, cfg);
+        else
+            build(ctx, cf, cfg, fact);
+    }
+
+    private static void build(Context ctx, ClassFields cf, CFG cfg, Fact fact) {
+        Timings timings = ctx.getTimings();
+        long time = Timings.start(timings);
+        boolean complete = true;
+        switch (fact) {
+        case CONST:
+            complete = Inf.CONST.build(cfg);
+            break;
+        case ETYPE:
+            complete = Inf.ETYPE.build(cfg);
+            break;
+        case NULL:
+            complete = Inf.NULL.build(cf, cfg);
+            break;
+        case PURITY:
+            cfg.forBodies((smd, smethod) -> Inf.PURITY.annotate(smethod, new FrameContext(smd, cf)));
+            break;
+        case BACKLINK:
+            annotateBackLinks(cfg);
+            break;
+        default:
+            throw new IllegalArgumentException(fact.toString());
         }
-        cfg.forBodies((smd, smethod) -> Inf.PURITY.annotate(smethod, new FrameContext(smd, cf)));
+        if (!complete) {
+            ctx.incStat(fact.incompleteStat);
+        }
+        Timings.lap(timings, fact.timingKey, time);
+    }
+
+    /**
+     * Links the method expressions to their sources. The sources may be
+     * shared with other methods of the same class (e.g. field values stored
+     * in constructor), so methods must be processed one at a time.
+     */
+    public static void annotateBackLinks(CFG cfg) {
         cfg.forBodies((smd, smethod) -> Inf.BACKLINK.annotate(smethod));
-        return origFrame == null ? null : new ArrayList<>(origFrame);
+    }
+
+    /**
+     * Arranges the facts which were not built in advance to be built for the
+     * whole method when any of them is read for the first time. Must be called
+     * after the method is annotated via
+     * {@link #annotateLocal(Context, MethodDefinition, ClassFields, CFG, Set, Budget)}
+     * in the thread which visits the method while the method {@link FactStore}
+     * is active, as the listeners are installed into that store. The returned
+     * action must be run after the method is visited while the same store is
+     * still active.
+     * 
+     * @param built facts which are already built for the method
+     * @return action which stops building the missing facts
+     */
+    public static Runnable annotateOnDemand(Context ctx, ClassFields cf, CFG cfg, Set<Fact> built) {
+        Set<Fact> missing = EnumSet.complementOf(EnumSet.copyOf(Fact.closure(built)));
+        Runnable close = () -> missing.forEach(fact -> fact.getAnnotator().setReadListener(null));
+        class OnDemand implements Consumer<Expression> {
+            final Fact fact;
+
+            OnDemand(Fact fact) {
+                this.fact = fact;
+            }
+
+            @Override
+            public void accept(Expression expr) {
+                close.run();
+                try {
+                    for (Fact dep : Fact.closure(Collections.singleton(fact))) {
+                        if (missing.remove(dep)) {
+                            ctx.incStat(dep.onDemandStat);
+                            build(ctx, cf, cfg, dep);
+                        }
+                    }
+                } finally {
+                    missing.forEach(f -> f.getAnnotator().setReadListener(new OnDemand(f)));
+                }
+            }
+        }
+        missing.forEach(f -> f.getAnnotator().setReadListener(new OnDemand(f)));
+        return close;
     }
 
     public static <T> T reduce(Expression input, Function<Expression, T> mapper, BinaryOperator<T> reducer,
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import com.strobel.decompiler.ast.Variable;
+
+/**
+ * Immutable map from variable to non-null value used as the dataflow state.
+ *
+ * It's a hash array mapped trie keyed by variable identity: updates copy only
+ * the path to the changed entry and share the rest with the original map. The
+ * states derived from each other are compared and merged visiting only the
+ * subtrees which actually differ.
+ */
+final class VarMap<V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final VarMap<?> EMPTY = new VarMap<>(null, 0, 0);
+
+    @FunctionalInterface
+    interface Merger<V> {
+        /**
+         * @param var variable
+         * @param left value in the left map or null if absent
+         * @param right value in the right map or null if absent
+         * @return merged value or null to exclude the variable
+         */
+        V merge(Variable var, V left, V right);
+    }
+
+    private static final class Leaf {
+        final Variable key;
+        final int hash;
+        final Object value;
+
+        Leaf(Variable key, int hash, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Trie node: slots are either Leaf or Node. Below the last hash level the
+     * node keeps colliding leaves in the plain list (bitmap is zero)
+     */
+    private static final class Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        Node replace(int idx, Object slot) {
+            Object[] newSlots = slots.clone();
+            newSlots[idx] = slot;
+            return new Node(bitmap, newSlots);
+        }
+
+        Node insert(int bit, int idx, Object slot) {
+            Object[] newSlots = new Object[slots.length + 1];
+            System.arraycopy(slots, 0, newSlots, 0, idx);
+            newSlots[idx] = slot;
+            System.arraycopy(slots, idx, newSlots, idx + 1, slots.length - idx);
+            return new Node(bitmap | bit, newSlots);
+        }
+
+        Node delete(int bit, int idx) {
+            Object[] newSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, newSlots, 0, idx);
+            System.arraycopy(slots, idx + 1, newSlots, idx, newSlots.length - idx);
+            return new Node(bitmap & ~bit, newSlots);
+        }
+    }
+
+    private final Node root;
+    private final int size;
+    // sum of entry hashes, like Map.hashCode()
+    private final int hash;
+
+    private VarMap(Node root, int size, int hash) {
+        this.root = root;
+        this.size = size;
+        this.hash = hash;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> VarMap<V> empty() {
+        return (VarMap<V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Variable var) {
+        int h = System.identityHashCode(var);
+        Node node = root;
+        int shift = 0;
+        while (node != null) {
+            if (shift >= Integer.SIZE) {
+                for (Object slot : node.slots) {
+                    if (((Leaf) slot).key == var)
+                        return (V) ((Leaf) slot).value;
+                }
+                return null;
+            }
+            int bit = bit(h, shift);
+            if ((node.bitmap & bit) == 0)
+                return null;
+            Object slot = node.slots[index(node.bitmap, bit)];
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                return leaf.key == var ? (V) leaf.value : null;
+            }
+            node = (Node) slot;
+            shift += BITS;
+        }
+        return null;
+    }
+
+    boolean containsKey(Variable var) {
+        return get(var) != null;
+    }
+
+    /**
+     * @param var variable
+     * @param value new value; null value is the same as absent one
+     * @return the map with updated value; this if the same value is already
+     *         stored
+     */
+    VarMap<V> put(Variable var, V value) {
+        if (value == null)
+            return remove(var);
+        V old = get(var);
+        if (old == value)
+            return this;
+        Leaf leaf = new Leaf(var, System.identityHashCode(var), value);
+        int newHash = hash + entryHash(leaf);
+        if (old == null)
+            return new VarMap<>(put(root, leaf, 0), size + 1, newHash);
+        return new VarMap<>(put(root, leaf, 0), size, newHash - entryHash(leaf.hash, old));
+    }
+
+    VarMap<V> remove(Variable var) {
+        V old = get(var);
+        if (old == null)
+            return this;
+        if (size == 1)
+            return empty();
+        int h = System.identityHashCode(var);
+        return new VarMap<>(remove(root, var, h, 0), size - 1, hash - entryHash(h, old));
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<Variable, V> consumer) {
+        forEach(root, leaf -> consumer.accept(leaf.key, (V) leaf.value));
+    }
+
+    /**
+     * @param op operator to apply to every value, must not return null
+     * @return the map with updated values; this if no value was changed
+     */
+    VarMap<V> replaceValues(UnaryOperator<V> op) {
+        Node newRoot = replaceValues(root, op);
+        if (newRoot == root)
+            return this;
+        int[] newHash = {0};
+        forEach(newRoot, leaf -> newHash[0] += entryHash(leaf));
+        return new VarMap<>(newRoot, size, newHash[0]);
+    }
+
+    /**
+     * Merges two maps. Merger is called only for the variables which values
+     * differ (or which are present in one map only), so it must return the
+     * same value when merging the value with itself.
+     *
+     * @param other map to merge with
+     * @param merger merge function
+     * @return merged map; this if nothing was changed
+     */
+    @SuppressWarnings("unchecked")
+    VarMap<V> merge(VarMap<V> other, Merger<V> merger) {
+        if (root == other.root)
+            return this;
+        List<Leaf> changes = new ArrayList<>();
+        diff(root, other.root, 0, (left, right) -> {
+            Variable var = left == null ? right.key : left.key;
+            V res = merger.merge(var, left == null ? null : (V) left.value, right == null ? null : (V) right.value);
+            if (left == null ? res != null : res != left.value)
+                changes.add(new Leaf(var, 0, res));
+            return true;
+        });
+        VarMap<V> result = this;
+        for (Leaf change : changes) {
+            result = change.value == null ? result.remove(change.key) : result.put(change.key, (V) change.value);
+        }
+        return result;
+    }
+
+    /**
+     * @param other map to compare with
+     * @param predicate predicate to test the values of the same variable
+     * @return true if both maps have the same variables and predicate is true
+     *         for every pair of values
+     */
+    @SuppressWarnings("unchecked")
+    boolean matches(VarMap<V> other, BiPredicate<V, V> predicate) {
+        if (root == other.root)
+            return true;
+        if (size != other.size)
+            return false;
+        return diff(root, other.root, 0, (left, right) -> left != null && right != null
+            && predicate.test((V) left.value, (V) right.value));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        VarMap<Object> other = (VarMap<Object>) obj;
+        return hash == other.hash && ((VarMap<Object>) this).matches(other, Objects::equals);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((var, value) -> {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(var).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static int entryHash(Leaf leaf) {
+        return entryHash(leaf.hash, leaf.value);
+    }
+
+    private static int entryHash(int keyHash, Object value) {
+        return keyHash ^ value.hashCode();
+    }
+
+    private static Node put(Node node, Leaf leaf, int shift) {
+        if (shift >= Integer.SIZE) {
+            if (node == null)
+                return new Node(0, new Object[] { leaf });
+            for (int i = 0; i < node.slots.length; i++) {
+                if (((Leaf) node.slots[i]).key == leaf.key)
+                    return node.replace(i, leaf);
+            }
+            return node.insert(0, node.slots.length, leaf);
+        }
+        int bit = bit(leaf.hash, shift);
+        if (node == null)
+            return new Node(bit, new Object[] { leaf });
+        int idx = index(node.bitmap, bit);
+        if ((node.bitmap & bit) == 0)
+            return node.insert(bit, idx, leaf);
+        Object slot = node.slots[idx];
+        if (slot instanceof Leaf) {
+            Leaf old = (Leaf) slot;
+            if (old.key == leaf.key)
+                return node.replace(idx, leaf);
+            return node.replace(idx, put(put(null, old, shift + BITS), leaf, shift + BITS));
+        }
+        return node.replace(idx, put((Node) slot, leaf, shift + BITS));
+    }
+
+    private static Node remove(Node node, Variable var, int hash, int shift) {
+        if (shift >= Integer.SIZE) {
+            if (node.slots.length == 1)
+                return null;
+            for (int i = 0; i < node.slots.length; i++) {
+                if (((Leaf) node.slots[i]).key == var)
+                    return node.delete(0, i);
+            }
+            throw new IllegalStateException();
+        }
+        int bit = bit(hash, shift);
+        int idx = index(node.bitmap, bit);
+        Object slot = node.slots[idx];
+        Node child = slot instanceof Leaf ? null : remove((Node) slot, var, hash, shift + BITS);
+        if (child == null)
+            return node.slots.length == 1 ? null : node.delete(bit, idx);
+        // keep single leaf in the parent, so equal subtrees tend to have the same shape
+        if (child.slots.length == 1 && child.slots[0] instanceof Leaf)
+            return node.replace(idx, child.slots[0]);
+        return node.replace(idx, child);
+    }
+
+    private static void forEach(Object slot, Consumer<Leaf> consumer) {
+        if (slot instanceof Leaf) {
+            consumer.accept((Leaf) slot);
+        } else if (slot != null) {
+            for (Object child : ((Node) slot).slots) {
+                forEach(child, consumer);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node replaceValues(Node node, UnaryOperator<V> op) {
+        if (node == null)
+            return null;
+        Object[] newSlots = null;
+        for (int i = 0; i < node.slots.length; i++) {
+            Object slot = node.slots[i];
+            Object newSlot;
+            if (slot instanceof Leaf) {
+                Leaf leaf = (Leaf) slot;
+                V value = op.apply((V) leaf.value);
+                newSlot = value == leaf.value ? leaf : new Leaf(leaf.key, leaf.hash, value);
+            } else {
+                newSlot = replaceValues((Node) slot, op);
+            }
+            if (newSlot != slot) {
+                if (newSlots == null)
+                    newSlots = node.slots.clone();
+                newSlots[i] = newSlot;
+            }
+        }
+        return newSlots == null ? node : new Node(node.bitmap, newSlots);
+    }
+
+    @FunctionalInterface
+    private interface DiffVisitor {
+        /**
+         * @param left left leaf or null if variable is absent in the left map
+         * @param right right leaf or null if variable is absent in the right map
+         * @return false to stop the traversal
+         */
+        boolean visit(Leaf left, Leaf right);
+    }
+
+    /**
+     * Visits the variables which have different values in two subtrees
+     * skipping the shared parts
+     *
+     * @return false if traversal was stopped by visitor
+     */
+    private static boolean diff(Object left, Object right, int shift, DiffVisitor visitor) {
+        if (left == right)
+            return true;
+        if (left instanceof Node && right instanceof Node && shift < Integer.SIZE) {
+            Node l = (Node) left, r = (Node) right;
+            int bits = l.bitmap | r.bitmap;
+            while (bits != 0) {
+                int bit = bits & -bits;
+                bits ^= bit;
+                Object ls = (l.bitmap & bit) == 0 ? null : l.slots[index(l.bitmap, bit)];
+                Object rs = (r.bitmap & bit) == 0 ? null : r.slots[index(r.bitmap, bit)];
+                if (!diff(ls, rs, shift + BITS, visitor))
+                    return false;
+            }
+            return true;
+        }
+        // Leaf vs. subtree or collision list: small, compare directly
+        List<Leaf> ll = new ArrayList<>(), rl = new ArrayList<>();
+        forEach(left, ll::add);
+        forEach(right, rl::add);
+        for (Leaf l : ll) {
+            Leaf r = find(rl, l.key);
+            if (r != null && r.value == l.value)
+                continue;
+            if (!visitor.visit(l, r))
+                return false;
+        }
+        for (Leaf r : rl) {
+            if (find(ll, r.key) == null && !visitor.visit(null, r))
+                return false;
+        }
+        return true;
+    }
+
+    private static Leaf find(List<Leaf> leaves, Variable var) {
+        for (Leaf leaf : leaves) {
+            if (leaf.key == var)
+                return leaf;
+        }
+        return null;
+    }
+}
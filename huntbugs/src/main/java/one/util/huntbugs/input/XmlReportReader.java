@@ -74,6 +74,7 @@ public class XmlReportReader {
     public static HuntBugsResult read(Context ctx, Document dom) {
         List<Warning> warnings = loadWarnings(dom, ctx);
         List<ErrorMessage> errors = loadErrors(dom);
+        boolean incomplete = Xml.getChild(dom.getDocumentElement(), "Incomplete") != null;
         return new HuntBugsResult() {
             @Override
             public Stream<Warning> warnings() {
@@ -89,6 +90,11 @@ public class XmlReportReader {
             public Stream<ErrorMessage> errors() {
                 return errors.stream();
             }
+
+            @Override
+            public boolean isIncomplete() {
+                return incomplete;
+            }
         };
     }
 
@@ -16,47 +16,32 @@
 package one.util.huntbugs.output;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.io.Writer;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
 
 import org.w3c.dom.Document;
 
 /**
  * @author Tagir Valeev
  *
+ * @deprecated the HTML report is written directly from the analysis result by
+ *             {@link StreamingHtmlReportWriter}. This writer renders the same
+ *             single page from the XML report document.
  */
+@Deprecated
 class HtmlReportWriter implements ReportWriter {
-    private static final String XSL_PATH = "huntbugs/report.xsl";
     private final Writer target;
 
     public HtmlReportWriter(Writer target) {
         this.target = target;
-
     }
 
     @Override
     public void write(Document dom) {
         try {
-            try (InputStream is = HtmlReportWriter.class.getClassLoader().getResourceAsStream(XSL_PATH)) {
-                StreamSource xsl = new StreamSource(is);
-                Transformer transformer = TransformerFactory.newInstance().newTransformer(xsl);
-                transformer.setOutputProperty(javax.xml.transform.OutputKeys.INDENT, "yes");
-                transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-                StreamResult result = new StreamResult(target);
-                transformer.transform(new DOMSource(dom), result);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        } catch (TransformerFactoryConfigurationError | TransformerException e) {
-            throw new RuntimeException(e);
+            new StreamingHtmlReportWriter().write(target, dom);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -28,19 +28,19 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.ErrorMessage;
 import one.util.huntbugs.analysis.HuntBugsResult;
+import one.util.huntbugs.analysis.Timings;
 import one.util.huntbugs.warning.Formatter;
 import one.util.huntbugs.warning.Messages;
 import one.util.huntbugs.warning.Roles;
@@ -56,8 +56,13 @@ import one.util.huntbugs.warning.WarningAnnotation.TypeInfo;
  *
  */
 public final class Reports {
+    static final Comparator<Warning> WARNING_ORDER = Comparator.comparing(Warning::getScore).reversed()
+            .thenComparing(w -> w.getType().getName()).thenComparing(Warning::getClassName);
+
     /**
-     * Writes XML and/or HTML analysis reports
+     * Writes XML and/or HTML analysis reports. Both reports are streamed to
+     * the target files without building the document in memory, the HTML one
+     * is written concurrently with the XML one.
      * 
      * @param xmlTarget path to the xml result (can be null if no xml output is
      *        desired)
@@ -66,20 +71,31 @@ public final class Reports {
      * @param result HuntBugs analysis result (usually {@link Context} object)
      */
     public static void write(Path xmlTarget, Path htmlTarget, HuntBugsResult result) {
-        Document dom = makeDom(result);
-        if (xmlTarget != null) {
-            try (Writer xmlWriter = Files.newBufferedWriter(xmlTarget)) {
-                new XmlReportWriter(xmlWriter).write(dom);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
+        CompletableFuture<Void> html = htmlTarget == null ? null : CompletableFuture.runAsync(
+            () -> new StreamingHtmlReportWriter(htmlTarget, result.getMessages()).write(result));
+        try {
+            if (xmlTarget != null) {
+                try (Writer xmlWriter = Files.newBufferedWriter(xmlTarget)) {
+                    StreamingXmlReportWriter.write(xmlWriter, result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
             }
+        } finally {
+            if (html != null)
+                join(html);
         }
-        if (htmlTarget != null) {
-            try (Writer htmlWriter = Files.newBufferedWriter(htmlTarget)) {
-                new HtmlReportWriter(htmlWriter).write(dom);
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
         }
     }
     
@@ -109,6 +125,11 @@ public final class Reports {
             public Stream<ErrorMessage> errors() {
                 return results.stream().flatMap(HuntBugsResult::errors);
             }
+
+            @Override
+            public boolean isIncomplete() {
+                return results.stream().anyMatch(HuntBugsResult::isIncomplete);
+            }
         };
     }
     
@@ -130,6 +151,16 @@ public final class Reports {
             public Stream<ErrorMessage> errors() {
                 return newResult.errors();
             }
+
+            @Override
+            public Timings getTimings() {
+                return newResult.getTimings();
+            }
+
+            @Override
+            public boolean isIncomplete() {
+                return newResult.isIncomplete();
+            }
         };
     }
 
@@ -186,29 +217,25 @@ public final class Reports {
         return 10 - penalty;
     }
 
-    private static Document makeDom(HuntBugsResult ctx) {
-        Document doc;
-        try {
-            doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-        } catch (ParserConfigurationException e) {
-            throw new RuntimeException(e);
-        }
-        Element root = doc.createElement("HuntBugs");
-        Element errors = doc.createElement("ErrorList");
-        ctx.errors().map(e -> writeError(doc, e)).forEach(errors::appendChild);
-        if (errors.hasChildNodes())
-            root.appendChild(errors);
-        Element warnings = doc.createElement("WarningList");
-        Formatter formatter = new Formatter(ctx.getMessages());
-        ctx.warnings().sorted(
-            Comparator.comparing(Warning::getScore).reversed().thenComparing(w -> w.getType().getName()).thenComparing(
-                Warning::getClassName)).map(w -> writeWarning(doc, w, formatter)).forEach(warnings::appendChild);
-        root.appendChild(warnings);
-        doc.appendChild(root);
-        return doc;
+    static Element writeTimings(Document doc, Timings timings) {
+        Element element = doc.createElement("Timings");
+        timings.getPhases().forEach(e -> element.appendChild(writeTiming(doc, "Phase", e, true)));
+        timings.getDetectors().forEach(e -> element.appendChild(writeTiming(doc, "Detector", e, true)));
+        timings.getSlowestClasses().forEach(e -> element.appendChild(writeTiming(doc, "SlowClass", e, false)));
+        timings.getSlowestMethods().forEach(e -> element.appendChild(writeTiming(doc, "SlowMethod", e, false)));
+        return element;
+    }
+
+    private static Element writeTiming(Document doc, String name, Timings.Entry entry, boolean count) {
+        Element element = doc.createElement(name);
+        element.setAttribute("Name", entry.getName());
+        element.setAttribute("Nanos", String.valueOf(entry.getNanos()));
+        if (count)
+            element.setAttribute("Count", String.valueOf(entry.getCount()));
+        return element;
     }
 
-    private static Element writeError(Document doc, ErrorMessage e) {
+    static Element writeError(Document doc, ErrorMessage e) {
         Element element = doc.createElement("Error");
         if (e.getDetector() != null)
             element.setAttribute("Detector", e.getDetector());
@@ -224,7 +251,7 @@ public final class Reports {
         return element;
     }
 
-    private static Element writeWarning(Document doc, Warning w, Formatter formatter) {
+    static Element writeWarning(Document doc, Warning w, Formatter formatter) {
         Element element = doc.createElement("Warning");
         element.setAttribute("Type", w.getType().getName());
         element.setAttribute("Category", w.getType().getCategory());
@@ -0,0 +1,510 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import one.util.huntbugs.analysis.ErrorMessage;
+import one.util.huntbugs.analysis.HuntBugsResult;
+import one.util.huntbugs.analysis.Timings;
+import one.util.huntbugs.warning.Formatter;
+import one.util.huntbugs.warning.Messages;
+import one.util.huntbugs.warning.Roles;
+import one.util.huntbugs.warning.Warning;
+import one.util.huntbugs.warning.WarningAnnotation.TypeInfo;
+import one.util.huntbugs.warning.WarningStatus;
+
+/**
+ * HTML report writer which renders the warnings one by one directly to the
+ * output without building the whole document in memory. If the report has
+ * more warnings than the page limit, the warnings are written to the separate
+ * per-package pages, and the main page contains the package index, the errors
+ * and the timings only. The package pages are stored in the directory named
+ * after the main page without the ".html" extension.
+ */
+public class StreamingHtmlReportWriter {
+    public static final int DEFAULT_MAX_WARNINGS_PER_PAGE = 10000;
+
+    private static final String CSS_PATH = "huntbugs/report.css";
+    private static final String JS_PATH = "huntbugs/report.js";
+    private static final String DEFAULT_PACKAGE = "default-package";
+
+    private static final List<Group> GROUPS = Arrays.asList(
+        new Group("warnings-all", "All warnings", s -> s != WarningStatus.FIXED),
+        new Group("warnings-added", "Added", s -> s == WarningStatus.ADDED),
+        new Group("warnings-changed", "Changed", s -> s == WarningStatus.CHANGED),
+        new Group("warnings-raised", "Score raised", s -> s == WarningStatus.SCORE_RAISED),
+        new Group("warnings-lowered", "Score lowered", s -> s == WarningStatus.SCORE_LOWERED),
+        new Group("warnings-fixed", "Fixed", s -> s == WarningStatus.FIXED));
+    private static final String[][] TIMINGS = { { "Phases", "Phase" }, { "Detectors", "Detector" },
+            { "Slowest classes", "SlowClass" }, { "Slowest methods", "SlowMethod" } };
+
+    private final Path target;
+    private final Formatter formatter;
+    private final int maxWarningsPerPage;
+    private final String css;
+    private final String js;
+    // Used as a factory only: single warning element is built at a time
+    private final Document doc;
+
+    /**
+     * Warning tab: the warnings with some status
+     */
+    private static class Group {
+        final String id;
+        final String title;
+        final Predicate<WarningStatus> filter;
+
+        Group(String id, String title, Predicate<WarningStatus> filter) {
+            this.id = id;
+            this.title = title;
+            this.filter = filter;
+        }
+
+        int count(List<WarningStatus> statuses) {
+            return (int) statuses.stream().filter(filter).count();
+        }
+    }
+
+    public StreamingHtmlReportWriter(Path target, Messages messages) {
+        this(target, messages, DEFAULT_MAX_WARNINGS_PER_PAGE);
+    }
+
+    /**
+     * @param target path to the main report page
+     * @param messages messages to format the warnings
+     * @param maxWarningsPerPage if the report has more warnings, they are
+     *        split into per-package pages
+     */
+    public StreamingHtmlReportWriter(Path target, Messages messages, int maxWarningsPerPage) {
+        this(target, new Formatter(messages), maxWarningsPerPage);
+    }
+
+    /**
+     * Creates the writer usable for {@link #write(Writer, Document)} only
+     */
+    StreamingHtmlReportWriter() {
+        this(null, (Formatter) null, DEFAULT_MAX_WARNINGS_PER_PAGE);
+    }
+
+    private StreamingHtmlReportWriter(Path target, Formatter formatter, int maxWarningsPerPage) {
+        this.target = target;
+        this.formatter = formatter;
+        this.maxWarningsPerPage = maxWarningsPerPage;
+        this.css = readResource(CSS_PATH);
+        this.js = readResource(JS_PATH);
+        try {
+            this.doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the report
+     * 
+     * @param result analysis result to write
+     */
+    public void write(HuntBugsResult result) {
+        List<Warning> warnings = result.warnings().sorted(Reports.WARNING_ORDER).collect(Collectors.toList());
+        List<ErrorMessage> errors = result.errors().collect(Collectors.toList());
+        Timings timings = result.getTimings();
+        try {
+            boolean incomplete = result.isIncomplete();
+            if (warnings.size() <= maxWarningsPerPage) {
+                writePage(target, null, incomplete, warnings, errors, timings);
+                return;
+            }
+            Map<String, List<Warning>> packages = warnings.stream().collect(
+                Collectors.groupingBy(StreamingHtmlReportWriter::getPackage, TreeMap::new, Collectors.toList()));
+            Path dir = getPackagesDir();
+            Files.createDirectories(dir);
+            for (Entry<String, List<Warning>> e : packages.entrySet()) {
+                writePage(dir.resolve(getFileName(e.getKey())), e.getKey(), incomplete, e.getValue(), null, null);
+            }
+            try (Writer out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+                writeHeader(out, null, incomplete);
+                writeTabs(out, packages.size(), null, errors, timings != null);
+                writePackages(out, packages);
+                writeErrors(out, errors);
+                writeTimings(out, timings);
+                writeFooter(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the single page report from the XML report document. The page
+     * is the same as written by {@link #write(HuntBugsResult)} for the
+     * result the document was created from.
+     * 
+     * @param out writer to write the page to (not closed by this method)
+     * @param report XML report document
+     * @throws IOException if output fails
+     */
+    void write(Writer out, Document report) throws IOException {
+        Element root = report.getDocumentElement();
+        List<Element> warnings = children(child(root, "WarningList"), "Warning");
+        List<WarningStatus> statuses = warnings.stream().map(w -> WarningStatus.valueOf(w.getAttribute("Status")
+                .toUpperCase(Locale.ENGLISH))).collect(Collectors.toList());
+        List<ErrorMessage> errors = children(child(root, "ErrorList"), "Error").stream().map(
+            e -> new ErrorMessage(attribute(e, "Detector"), attribute(e, "Class"), attribute(e, "Member"), attribute(
+                e, "Signature"), -1, e.getTextContent())).collect(Collectors.toList());
+        Element timings = child(root, "Timings");
+        writeHeader(out, null, child(root, "Incomplete") != null);
+        writeTabs(out, -1, statuses, errors, timings != null);
+        for (Group group : GROUPS) {
+            writeWarningsHeader(out, group, group.count(statuses));
+            for (int i = 0; i < warnings.size(); i++) {
+                if (group.filter.test(statuses.get(i)))
+                    writeWarning(out, warnings.get(i));
+            }
+            out.write("</tbody>\n</table>\n</div>\n");
+        }
+        writeErrors(out, errors);
+        if (timings != null) {
+            out.write("<div class=\"TabContent\" id=\"timings\">\n");
+            for (String[] section : TIMINGS) {
+                List<Element> entries = children(timings, section[1]);
+                if (entries.isEmpty())
+                    continue;
+                writeTimingsHeader(out, section[0]);
+                for (Element entry : entries) {
+                    writeTiming(out, entry.getAttribute("Name"), Long.parseLong(entry.getAttribute("Nanos")), entry
+                            .getAttribute("Count"));
+                }
+                out.write("</tbody>\n</table>\n");
+            }
+            out.write("</div>\n");
+        }
+        writeFooter(out);
+    }
+
+    private Path getPackagesDir() {
+        String name = target.getFileName().toString();
+        String dirName = name.endsWith(".html") ? name.substring(0, name.length() - ".html".length()) : name
+            + ".files";
+        return target.resolveSibling(dirName);
+    }
+
+    private static String getPackage(Warning w) {
+        TypeInfo type = w.getAnnotation(Roles.TYPE);
+        if (type == null)
+            return "";
+        String name = type.getJavaName();
+        int pos = name.lastIndexOf('.');
+        return pos < 0 ? "" : name.substring(0, pos);
+    }
+
+    private static String getFileName(String pkg) {
+        // hyphen cannot appear in the package name
+        return (pkg.isEmpty() ? DEFAULT_PACKAGE : pkg) + ".html";
+    }
+
+    private void writePage(Path path, String pkg, boolean incomplete, List<Warning> warnings,
+            List<ErrorMessage> errors, Timings timings) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeHeader(out, pkg, incomplete);
+            writeTabs(out, -1, statuses(warnings), errors, timings != null);
+            for (Group group : GROUPS) {
+                writeWarnings(out, group, warnings);
+            }
+            writeErrors(out, errors);
+            writeTimings(out, timings);
+            writeFooter(out);
+        }
+    }
+
+    private void writeHeader(Writer out, String pkg, boolean incomplete) throws IOException {
+        out.write("<!DOCTYPE html PUBLIC \"-//W3C//DTD HTML 4.01 Transitional//EN\" "
+            + "\"http://www.w3.org/TR/html4/loose.dtd\">\n");
+        out.write("<html>\n<head>\n<meta http-equiv=\"Content-Type\" content=\"text/html; charset=UTF-8\">\n");
+        out.write("<title>HuntBugs Report" + (pkg == null ? "" : " - " + escape(packageTitle(pkg))) + "</title>\n");
+        out.write("<style>\n");
+        out.write(css);
+        out.write("</style>\n</head>\n<body>\n");
+        if (pkg == null) {
+            out.write("<h1>HuntBugs report</h1>\n");
+        } else {
+            out.write("<h1>HuntBugs report: " + escape(packageTitle(pkg)) + "</h1>\n");
+            out.write("<p><a href=\"../" + escape(target.getFileName().toString()) + "\">Back to the index</a></p>\n");
+        }
+        if (incomplete)
+            out.write("<p class=\"Incomplete\">The analysis was cancelled, so the report is incomplete</p>\n");
+    }
+
+    private void writeFooter(Writer out) throws IOException {
+        out.write("<script type=\"text/javascript\">\n");
+        out.write(js);
+        out.write("</script>\n</body>\n</html>\n");
+    }
+
+    private static String packageTitle(String pkg) {
+        return pkg.isEmpty() ? "(default package)" : pkg;
+    }
+
+    /**
+     * @param packages number of the packages or -1 if the warnings are on this
+     *        page
+     */
+    private static void writeTabs(Writer out, int packages, List<WarningStatus> statuses, List<ErrorMessage> errors,
+            boolean timings) throws IOException {
+        out.write("<div>\n");
+        if (packages >= 0) {
+            writeTab(out, "packages", "Packages", packages);
+        } else {
+            for (Group group : GROUPS) {
+                int count = group.count(statuses);
+                if (count > 0)
+                    writeTab(out, group.id, group.title, count);
+            }
+        }
+        if (errors != null && !errors.isEmpty())
+            writeTab(out, "errors", "Errors", errors.size());
+        if (timings)
+            out.write("<div class=\"Tab\" data-target=\"timings\">Timings</div>\n");
+        out.write("</div>\n");
+    }
+
+    private static void writeTab(Writer out, String id, String title, int count) throws IOException {
+        out.write("<div class=\"Tab\" data-target=\"" + id + "\">" + title + " (" + count + ")</div>\n");
+    }
+
+    private void writePackages(Writer out, Map<String, List<Warning>> packages) throws IOException {
+        List<WarningStatus> all = packages.values().stream().flatMap(List::stream).map(Warning::getStatus).collect(
+            Collectors.toList());
+        List<Group> groups = GROUPS.stream().filter(g -> g.count(all) > 0).collect(Collectors.toList());
+        out.write("<div class=\"TabContent\" id=\"packages\">\n<table class=\"Warnings\"><thead><tr><th>Package</th>");
+        for (Group group : groups) {
+            out.write("<th>" + group.title + "</th>");
+        }
+        out.write("</tr></thead>\n<tbody>\n");
+        String dirName = getPackagesDir().getFileName().toString();
+        for (Entry<String, List<Warning>> e : packages.entrySet()) {
+            out.write("<tr><td><a href=\"" + escape(dirName + "/" + getFileName(e.getKey())) + "\">"
+                + escape(packageTitle(e.getKey())) + "</a></td>");
+            for (Group group : groups) {
+                out.write("<td>" + group.count(statuses(e.getValue())) + "</td>");
+            }
+            out.write("</tr>\n");
+        }
+        out.write("</tbody>\n</table>\n</div>\n");
+    }
+
+    private void writeWarnings(Writer out, Group group, List<Warning> warnings) throws IOException {
+        writeWarningsHeader(out, group, group.count(statuses(warnings)));
+        for (Warning warning : warnings) {
+            if (group.filter.test(warning.getStatus()))
+                writeWarning(out, Reports.writeWarning(doc, warning, formatter));
+        }
+        out.write("</tbody>\n</table>\n</div>\n");
+    }
+
+    private static void writeWarningsHeader(Writer out, Group group, int count) throws IOException {
+        out.write("<div id=\"" + group.id + "\" class=\"TabContent\">\n<table class=\"Warnings\"><thead><tr>"
+            + "<th colspan=\"2\">" + group.title + " (<span class=\"WarningCount\">" + count
+            + "</span>)</th></tr></thead>\n<tbody class=\"WarningsBody\">\n");
+    }
+
+    private static List<WarningStatus> statuses(List<Warning> warnings) {
+        return warnings.stream().map(Warning::getStatus).collect(Collectors.toList());
+    }
+
+    private static void writeWarning(Writer out, Element warning) throws IOException {
+        String type = escape(warning.getAttribute("Type"));
+        out.write("<tr class=\"WarningRow Warning-" + type + "\">\n<td rowspan=\"2\">\n<div class=\"Title\">"
+            + escape(text(child(warning, "Title"))) + "<br><span class=\"WarningType\">(" + type
+            + " [<span class=\"hideWarning\" title=\"Hide this type of warnings\">x</span>])</span></div>\n");
+        out.write("<table class=\"Properties\">\n");
+        writeProperty(out, "Category", warning.getAttribute("Category"));
+        writeProperty(out, "Score", warning.getAttribute("Score"));
+        Element location = child(warning, "Location");
+        if (location != null) {
+            StringBuilder sb = new StringBuilder(escape(location.getAttribute("SourceFile") + ":"
+                + location.getAttribute("Line")));
+            for (Element another : children(warning, "AnotherLocation")) {
+                sb.append("<span class=\"AnotherLocation\">; ").append(escape(another.getAttribute("Line"))).append(
+                    "</span>");
+            }
+            out.write("<tr><th>Location:</th><td>" + sb + "</td></tr>\n");
+        }
+        for (String name : new String[] { "Class", "Method", "Field" }) {
+            Element element = child(warning, name);
+            if (element != null)
+                writeProperty(out, name, element.getAttribute("Name"));
+        }
+        for (Element annotation : children(warning, "Annotation")) {
+            if (annotation.getAttribute("Role").equals("VARIABLE"))
+                writeProperty(out, "Variable", text(annotation));
+        }
+        for (Element annotation : children(warning, "LocationAnnotation")) {
+            if (annotation.getAttribute("Role").equals("DEAD_CODE_LOCATION"))
+                writeProperty(out, "Dead code at", annotation.getAttribute("Line"));
+        }
+        out.write("</table>\n</td>\n<td class=\"Description\">\n<div class=\"Description\">"
+            + escape(text(child(warning, "Description"))) + "</div>\n</td>\n</tr>\n");
+        // long description is already in HTML
+        out.write("<tr class=\"WarningRow Warning-" + type + "\">\n<td>\n<div class=\"LongDescription\">"
+            + text(child(warning, "LongDescription")) + "</div>\n</td>\n</tr>\n");
+    }
+
+    private static void writeProperty(Writer out, String name, String value) throws IOException {
+        out.write("<tr><th>" + name + ":</th><td>" + escape(value) + "</td></tr>\n");
+    }
+
+    private static void writeErrors(Writer out, List<ErrorMessage> errors) throws IOException {
+        if (errors == null || errors.isEmpty())
+            return;
+        out.write("<div class=\"TabContent\" id=\"errors\">\n<table class=\"Errors\"><thead><tr><th colspan=\"2\">"
+            + "Errors (" + errors.size() + ")</th></tr></thead>\n<tbody class=\"ErrorsBody Hidden\">\n");
+        for (ErrorMessage error : errors) {
+            out.write("<tr>\n<td>\n<table class=\"Properties\">\n");
+            if (error.getClassName() != null)
+                writeProperty(out, "Class", error.getClassName());
+            if (error.getElementName() != null)
+                writeProperty(out, "Member", error.getElementName());
+            if (error.getDetector() != null)
+                writeProperty(out, "Detector", error.getDetector());
+            out.write("</table>\n</td>\n<td><pre>" + escape(error.getError()) + "</pre>\n</td>\n</tr>\n");
+        }
+        out.write("</tbody>\n</table>\n</div>\n");
+    }
+
+    private static void writeTimings(Writer out, Timings timings) throws IOException {
+        if (timings == null)
+            return;
+        out.write("<div class=\"TabContent\" id=\"timings\">\n");
+        writeTimings(out, "Phases", timings.getPhases(), true);
+        writeTimings(out, "Detectors", timings.getDetectors(), true);
+        writeTimings(out, "Slowest classes", timings.getSlowestClasses(), false);
+        writeTimings(out, "Slowest methods", timings.getSlowestMethods(), false);
+        out.write("</div>\n");
+    }
+
+    private static void writeTimings(Writer out, String title, List<Timings.Entry> entries, boolean count)
+            throws IOException {
+        if (entries.isEmpty())
+            return;
+        writeTimingsHeader(out, title);
+        for (Timings.Entry entry : entries) {
+            writeTiming(out, entry.getName(), entry.getNanos(), count ? String.valueOf(entry.getCount()) : "");
+        }
+        out.write("</tbody>\n</table>\n");
+    }
+
+    private static void writeTimingsHeader(Writer out, String title) throws IOException {
+        out.write("<table class=\"Timings\">\n<thead><tr><th>" + title
+            + "</th><th>Time, ms</th><th>Calls</th></tr></thead>\n<tbody>\n");
+    }
+
+    private static void writeTiming(Writer out, String name, long nanos, String count) throws IOException {
+        out.write("<tr><td>" + escape(name) + "</td><td>" + String.format(Locale.ENGLISH, "%.1f", nanos / 1_000_000.0)
+            + "</td><td>" + escape(count) + "</td></tr>\n");
+    }
+
+    private static Element child(Element parent, String name) {
+        List<Element> children = children(parent, name);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    private static List<Element> children(Element parent, String name) {
+        List<Element> result = new ArrayList<>();
+        if (parent == null)
+            return result;
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && node.getNodeName().equals(name))
+                result.add((Element) node);
+        }
+        return result;
+    }
+
+    private static String attribute(Element element, String name) {
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+
+    private static String text(Element element) {
+        return element == null ? "" : element.getTextContent();
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+            case '&':
+                replacement = "&amp;";
+                break;
+            case '<':
+                replacement = "&lt;";
+                break;
+            case '>':
+                replacement = "&gt;";
+                break;
+            case '"':
+                replacement = "&quot;";
+                break;
+            default:
+                if (sb != null)
+                    sb.append(c);
+                continue;
+            }
+            if (sb == null)
+                sb = new StringBuilder(text.substring(0, i));
+            sb.append(replacement);
+        }
+        return sb == null ? text : sb.toString();
+    }
+
+    private static String readResource(String path) {
+        try (InputStream is = StreamingHtmlReportWriter.class.getClassLoader().getResourceAsStream(path)) {
+            if (is == null)
+                throw new IOException("Resource not found: " + path);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            for (int n; (n = is.read(buf)) > 0;)
+                bos.write(buf, 0, n);
+            return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
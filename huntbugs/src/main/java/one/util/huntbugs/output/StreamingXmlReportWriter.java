@@ -0,0 +1,230 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.output;
+
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import one.util.huntbugs.analysis.ErrorMessage;
+import one.util.huntbugs.analysis.HuntBugsResult;
+import one.util.huntbugs.analysis.Timings;
+import one.util.huntbugs.analysis.WarningSink;
+import one.util.huntbugs.warning.Formatter;
+import one.util.huntbugs.warning.Messages;
+import one.util.huntbugs.warning.Warning;
+
+/**
+ * XML report writer which writes the warnings as soon as they are reported
+ * without building the whole document in memory. Can be installed as
+ * {@link WarningSink} to the analysis context. The output has the same format
+ * as the report written by {@link Reports#write}, except that the warnings
+ * are not sorted and the error list follows the warning list.
+ * {@link Reports#write} uses this class as well to write the complete result.
+ */
+public class StreamingXmlReportWriter implements WarningSink {
+    private final XMLStreamWriter writer;
+    private final Formatter formatter;
+    // Used as a factory only: single warning element is built at a time
+    private final Document doc;
+
+    /**
+     * Creates the writer and writes the report header
+     * 
+     * @param target writer to write the report to (not closed by this class)
+     * @param messages messages to format the warnings
+     */
+    public StreamingXmlReportWriter(Writer target, Messages messages) {
+        this(target, messages, true);
+    }
+
+    private StreamingXmlReportWriter(Writer target, Messages messages, boolean openWarnings) {
+        this.formatter = new Formatter(messages);
+        try {
+            this.doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+            this.writer = XMLOutputFactory.newInstance().createXMLStreamWriter(target);
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeCharacters("\n");
+            writer.writeStartElement("HuntBugs");
+            if (openWarnings) {
+                newLine(1);
+                writer.writeStartElement("WarningList");
+            }
+        } catch (ParserConfigurationException | XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public synchronized void accept(Warning warning) {
+        try {
+            newLine(2);
+            write(Reports.writeWarning(doc, warning, formatter), 2);
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the errors and completes the report. No warnings can be accepted
+     * after this call.
+     * 
+     * @param errors internal errors to write
+     */
+    public void finish(Stream<ErrorMessage> errors) {
+        finish(errors, false);
+    }
+
+    /**
+     * Writes the errors and completes the report. No warnings can be accepted
+     * after this call.
+     * 
+     * @param errors internal errors to write
+     * @param incomplete whether the analysis was cancelled (see
+     *        {@link HuntBugsResult#isIncomplete()})
+     */
+    public synchronized void finish(Stream<ErrorMessage> errors, boolean incomplete) {
+        try {
+            newLine(1);
+            writer.writeEndElement();
+            writeErrors(errors);
+            if (incomplete)
+                writeIncomplete();
+            end();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Writes the complete report for the given result: incomplete analysis
+     * mark, errors, warnings sorted like in HTML report and timings. Only the sorted warning order is
+     * kept in memory, the elements are written one by one.
+     * 
+     * @param target writer to write the report to (not closed by this method)
+     * @param result result to write
+     */
+    static void write(Writer target, HuntBugsResult result) {
+        StreamingXmlReportWriter writer = new StreamingXmlReportWriter(target, result.getMessages(), false);
+        try {
+            if (result.isIncomplete())
+                writer.writeIncomplete();
+            writer.writeErrors(result.errors());
+            writer.newLine(1);
+            writer.writer.writeStartElement("WarningList");
+            Iterator<Warning> it = result.warnings().sorted(Reports.WARNING_ORDER).iterator();
+            while (it.hasNext())
+                writer.accept(it.next());
+            writer.newLine(1);
+            writer.writer.writeEndElement();
+            Timings timings = result.getTimings();
+            if (timings != null) {
+                writer.newLine(1);
+                writer.write(Reports.writeTimings(writer.doc, timings), 1);
+            }
+            writer.end();
+        } catch (XMLStreamException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void writeIncomplete() throws XMLStreamException {
+        newLine(1);
+        writer.writeEmptyElement("Incomplete");
+    }
+
+    private void writeErrors(Stream<ErrorMessage> errors) throws XMLStreamException {
+        Iterator<ErrorMessage> it = errors.iterator();
+        if (it.hasNext()) {
+            newLine(1);
+            writer.writeStartElement("ErrorList");
+            while (it.hasNext()) {
+                newLine(2);
+                write(Reports.writeError(doc, it.next()), 2);
+            }
+            newLine(1);
+            writer.writeEndElement();
+        }
+    }
+
+    private void end() throws XMLStreamException {
+        newLine(0);
+        writer.writeEndElement();
+        writer.writeCharacters("\n");
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
+    private void write(Element element, int depth) throws XMLStreamException {
+        NodeList children = element.getChildNodes();
+        if (children.getLength() == 0)
+            writer.writeEmptyElement(element.getTagName());
+        else
+            writer.writeStartElement(element.getTagName());
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            writer.writeAttribute(attribute.getNodeName(), attribute.getNodeValue());
+        }
+        if (children.getLength() == 0)
+            return;
+        boolean hasElements = false;
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            switch (child.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                hasElements = true;
+                newLine(depth + 1);
+                write((Element) child, depth + 1);
+                break;
+            case Node.CDATA_SECTION_NODE:
+                // CDATA cannot contain its own terminator
+                if (child.getNodeValue().contains("]]>"))
+                    writer.writeCharacters(child.getNodeValue());
+                else
+                    writer.writeCData(child.getNodeValue());
+                break;
+            case Node.TEXT_NODE:
+                writer.writeCharacters(child.getNodeValue());
+                break;
+            default:
+                break;
+            }
+        }
+        if (hasElements)
+            newLine(depth);
+        writer.writeEndElement();
+    }
+
+    private void newLine(int depth) throws XMLStreamException {
+        StringBuilder sb = new StringBuilder("\n");
+        for (int i = 0; i < depth; i++)
+            sb.append("  ");
+        writer.writeCharacters(sb.toString());
+    }
+}
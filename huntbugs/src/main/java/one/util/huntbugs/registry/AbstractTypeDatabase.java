@@ -15,9 +15,15 @@
  */
 package one.util.huntbugs.registry;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import com.strobel.assembler.metadata.TypeDefinition;
@@ -39,6 +45,111 @@ public abstract class AbstractTypeDatabase<E> {
         // Default implementation is empty, should be subclasses
     }
     
+    /**
+     * Whether this database supports parallel population. If true, the
+     * database may be populated as several independent shards (created via
+     * public no-arg constructor) which are merged into this database via
+     * {@link #merge(AbstractTypeDatabase)}. The merge result must not depend
+     * on how the types were distributed among the shards.
+     * 
+     * @return true if this database can be merged. Default implementation
+     *         returns false.
+     */
+    protected boolean isMergeable() {
+        return false;
+    }
+
+    /**
+     * Merges the content of the populated shard into this database. Called
+     * only if {@link #isMergeable()} returns true.
+     * 
+     * @param shard shard of the same class to merge
+     */
+    protected void merge(AbstractTypeDatabase<E> shard) {
+        throw new UnsupportedOperationException(this + " does not support merging");
+    }
+    
+    /**
+     * Whether this database supports snapshots. Snapshot is the serialized
+     * content of the shard populated with some types. It's used to avoid
+     * reading the same types again on subsequent analysis runs. Only
+     * mergeable databases may support snapshots.
+     * 
+     * @return true if this database supports
+     *         {@link #writeSnapshot(DataOutput)} and
+     *         {@link #readSnapshot(DataInput)}. Default implementation returns
+     *         false.
+     */
+    protected boolean isSnapshotSupported() {
+        return false;
+    }
+
+    /**
+     * Writes the content of this populated shard. Called only if
+     * {@link #isSnapshotSupported()} returns true.
+     * 
+     * @param out output to write to
+     * @throws IOException if output fails
+     */
+    protected void writeSnapshot(DataOutput out) throws IOException {
+        throw new UnsupportedOperationException(this + " does not support snapshots");
+    }
+
+    /**
+     * Restores the shard content written by {@link #writeSnapshot(DataOutput)}
+     * into this newly created shard. Called only if
+     * {@link #isSnapshotSupported()} returns true.
+     * 
+     * @param in input to read from
+     * @throws IOException if input fails
+     */
+    protected void readSnapshot(DataInput in) throws IOException {
+        throw new UnsupportedOperationException(this + " does not support snapshots");
+    }
+    
+    /**
+     * Writes the facts this database holds about given type which the
+     * analysis of the classes referring to the type may read. The output must
+     * not depend on the order the types were visited or merged in. Used to
+     * key the cached analysis results (see
+     * {@link one.util.huntbugs.analysis.AnalysisOptions#cacheDir}), so only
+     * the classes which refer to the changed facts are analyzed again.
+     * 
+     * @param internalName internal name of the type
+     * @param out output to write to
+     * @param classes receives the names of other types whose class files are
+     *        read when these facts are used (e.g. subclasses searched for the
+     *        overriding methods)
+     * @return false if the facts cannot be written per type, thus any change
+     *         of the analyzed classes invalidates all the cached results.
+     *         Default implementation returns false.
+     * @throws IOException if output fails
+     */
+    protected boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+        return false;
+    }
+
+    /**
+     * Called once after all the types are visited and all the shards are
+     * merged if the interprocedural analysis is enabled (see
+     * {@link one.util.huntbugs.analysis.AnalysisOptions#interprocedural}).
+     * May be used to compute the data which depends on many types.
+     * 
+     * @param executor executor which can be used to complete the database
+     *        concurrently or null if analysis is single-threaded
+     */
+    protected void complete(ExecutorService executor) {
+        // Default implementation is empty
+    }
+    
+    protected int size() {
+        return map.size();
+    }
+
+    public void forEachElement(BiConsumer<String, E> consumer) {
+        map.forEach(consumer);
+    }
+    
     protected E getOrCreate(TypeReference ref) {
         return map.computeIfAbsent(ref.getInternalName(), fn);
     }
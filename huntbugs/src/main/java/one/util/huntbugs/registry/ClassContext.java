@@ -62,15 +62,20 @@ public class ClassContext extends ElementContext {
     }
     
     boolean visitClass() {
-        for(MethodHandle mh : detector.classVisitors) {
-            try {
-                if (!(boolean) detector.bindDatabases(Detector.CLASS_VISITOR_TYPE.parameterCount(), type, mh)
-                        .invoke(det, this, type)) {
-                    return false;
+        long start = detector.startTimer();
+        try {
+            for (MethodHandle mh : detector.classVisitors) {
+                try {
+                    if (!(boolean) detector.bindDatabases(Detector.CLASS_VISITOR_TYPE.parameterCount(), type, mh)
+                            .invoke(det, this, type)) {
+                        return false;
+                    }
+                } catch (Throwable e) {
+                    ctx.addError(new ErrorMessage(detector, type, e));
                 }
-            } catch (Throwable e) {
-                ctx.addError(new ErrorMessage(detector, type, e));
             }
+        } finally {
+            detector.stopTimer(start);
         }
         return !detector.methodVisitors.isEmpty() || !detector.astVisitors.isEmpty()
             || !detector.methodAfterVisitors.isEmpty() || !detector.classAfterVisitors.isEmpty()
@@ -78,6 +83,7 @@ public class ClassContext extends ElementContext {
     }
     
     void visitAfterClass() {
+        long start = detector.startTimer();
         for(MethodHandle mh : detector.classAfterVisitors) {
             try {
                 detector.bindDatabases(Detector.CLASS_VISITOR_TYPE.parameterCount(), type, mh).invoke(det, this, type);
@@ -85,6 +91,7 @@ public class ClassContext extends ElementContext {
                 ctx.addError(new ErrorMessage(detector, type, e));
             }
         }
+        detector.stopTimer(start);
     }
 
     public void report(String warning, int priority, WarningAnnotation<?>... annotations) {
@@ -15,9 +15,19 @@
  */
 package one.util.huntbugs.registry;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.strobel.assembler.metadata.TypeDefinition;
 import com.strobel.assembler.metadata.TypeReference;
@@ -59,6 +69,11 @@ public class DatabaseRegistry {
         return getDatabaseInfo(clazz)::getDatabase;
     }
     
+    /**
+     * Feeds the type to all the type databases created so far
+     * 
+     * @param td type to visit
+     */
     void visitType(TypeDefinition td) {
         for(DatabaseInfo<?> dbi : instances.values()) {
             Object db = dbi.db;
@@ -68,6 +83,127 @@ public class DatabaseRegistry {
         }
     }
 
+    void complete(ExecutorService executor) {
+        for(DatabaseInfo<?> dbi : instances.values()) {
+            if(dbi.db instanceof AbstractTypeDatabase) {
+                ((AbstractTypeDatabase<?>) dbi.db).complete(executor);
+            }
+        }
+    }
+
+    boolean isMergeable() {
+        for(DatabaseInfo<?> dbi : instances.values()) {
+            if(dbi.db instanceof AbstractTypeDatabase && !((AbstractTypeDatabase<?>) dbi.db).isMergeable())
+                return false;
+        }
+        return true;
+    }
+    
+    boolean isSnapshotSupported() {
+        for(DatabaseInfo<?> dbi : instances.values()) {
+            if(dbi.db instanceof AbstractTypeDatabase && !((AbstractTypeDatabase<?>) dbi.db).isSnapshotSupported())
+                return false;
+        }
+        return isMergeable();
+    }
+    
+    /**
+     * Writes the facts all the databases hold about given type
+     * 
+     * @see AbstractTypeDatabase#writeFacts(String, DataOutput, Consumer)
+     */
+    boolean writeFacts(String internalName, DataOutput out, Consumer<String> classes) throws IOException {
+        List<AbstractTypeDatabase<?>> dbs = new ArrayList<>();
+        for(DatabaseInfo<?> dbi : instances.values()) {
+            if(dbi.db instanceof AbstractTypeDatabase)
+                dbs.add((AbstractTypeDatabase<?>) dbi.db);
+        }
+        dbs.sort(Comparator.comparing(db -> db.getClass().getName()));
+        for(AbstractTypeDatabase<?> db : dbs) {
+            if(!db.writeFacts(internalName, out, classes))
+                return false;
+        }
+        return true;
+    }
+
+    Shard createShard() {
+        Shard shard = new Shard();
+        for(DatabaseInfo<?> dbi : instances.values()) {
+            if(dbi.db instanceof AbstractTypeDatabase) {
+                AbstractTypeDatabase<?> db = (AbstractTypeDatabase<?>) dbi.db;
+                try {
+                    shard.dbs.put(db, db.getClass().newInstance());
+                } catch (InstantiationException | IllegalAccessException e) {
+                    throw new IllegalStateException("Unable to instantiate database " + db.getClass(), e);
+                }
+            }
+        }
+        return shard;
+    }
+    
+    void merge(Shard shard) {
+        shard.dbs.forEach(this::mergeDatabase);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> void mergeDatabase(AbstractTypeDatabase<E> db, AbstractTypeDatabase<?> shardDb) {
+        db.merge((AbstractTypeDatabase<E>) shardDb);
+    }
+
+    /**
+     * Set of databases which can be populated independently and merged later
+     * into the main databases
+     */
+    public static class Shard {
+        final Map<AbstractTypeDatabase<?>, AbstractTypeDatabase<?>> dbs = new LinkedHashMap<>();
+
+        void visitType(TypeDefinition td) {
+            for(AbstractTypeDatabase<?> db : dbs.values()) {
+                db.visitType(td);
+            }
+        }
+
+        /**
+         * @return names of the databases in the order they are written
+         *         via {@link #write(DataOutput)}
+         */
+        public List<String> getDatabaseNames() {
+            return sortedDatabases().stream().map(db -> db.getClass().getName()).collect(Collectors.toList());
+        }
+
+        /**
+         * Writes the snapshot of this shard. Supported only if all the
+         * databases support snapshots.
+         * 
+         * @param out output to write to
+         * @throws IOException if output fails
+         */
+        public void write(DataOutput out) throws IOException {
+            for(AbstractTypeDatabase<?> db : sortedDatabases()) {
+                db.writeSnapshot(out);
+            }
+        }
+
+        /**
+         * Reads the snapshot written via {@link #write(DataOutput)} into this
+         * newly created shard.
+         * 
+         * @param in input to read from
+         * @throws IOException if input fails
+         */
+        public void read(DataInput in) throws IOException {
+            for(AbstractTypeDatabase<?> db : sortedDatabases()) {
+                db.readSnapshot(in);
+            }
+        }
+
+        private List<AbstractTypeDatabase<?>> sortedDatabases() {
+            List<AbstractTypeDatabase<?>> list = new ArrayList<>(dbs.values());
+            list.sort(Comparator.comparing(db -> db.getClass().getName()));
+            return list;
+        }
+    }
+
     private <T> DatabaseInfo<T> getDatabaseInfo(Class<T> clazz) {
         // Cannot use computeIfAbsent here as recursive update is unsafe
         @SuppressWarnings("unchecked")
@@ -15,6 +15,9 @@
  */
 package one.util.huntbugs.registry;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
@@ -25,6 +28,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 
 import com.strobel.assembler.metadata.FieldDefinition;
@@ -35,6 +39,8 @@ import com.strobel.decompiler.ast.Block;
 import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Node;
 
+import one.util.huntbugs.analysis.Timings;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.anno.AstNodes;
 import one.util.huntbugs.registry.anno.AstVisitor;
 import one.util.huntbugs.registry.anno.ClassVisitor;
@@ -68,16 +74,24 @@ public class Detector {
     final List<MethodHandle> methodAfterVisitors = new ArrayList<>();
     final List<MethodHandle> classVisitors = new ArrayList<>();
     final List<MethodHandle> classAfterVisitors = new ArrayList<>();
+    // Not null when timings are collected
+    Timings.Timer timer;
 
     class VisitorInfo {
         final VisitorType type;
         final MethodHandle mh;
         final AstVisitor anno;
+        final Set<Fact> facts;
+        // False if the visitor requests no facts at all, so it can run
+        // without the values flow
+        final boolean needsFlow;
 
         public VisitorInfo(AstVisitor anno, VisitorType type, MethodHandle mh) {
             this.anno = anno;
             this.type = type;
             this.mh = mh;
+            this.facts = Fact.closure(Arrays.asList(anno.facts()));
+            this.needsFlow = anno.facts().length > 0;
         }
 
         public MethodHandle bind(TypeDefinition td) {
@@ -256,11 +270,44 @@ public class Detector {
         return wts.get(typeName);
     }
 
+    /**
+     * @return start time for {@link #stopTimer(long)} or zero if timings are
+     *         not collected
+     */
+    long startTimer() {
+        return timer == null ? 0 : System.nanoTime();
+    }
+
+    void stopTimer(long start) {
+        if (timer != null)
+            timer.add(System.nanoTime() - start);
+    }
+
     @Override
     public String toString() {
         return clazz.getName().replace(DetectorRegistry.DETECTORS_PACKAGE, "internal");
     }
 
+    /**
+     * @return bytes of the detector class file or null if not available
+     */
+    byte[] getClassBytes() {
+        String name = clazz.getName();
+        try (InputStream is = clazz.getResourceAsStream(name.substring(name.lastIndexOf('.') + 1) + ".class")) {
+            if (is == null)
+                return null;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = is.read(buf)) > 0) {
+                out.write(buf, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
     public Object newInstance() {
         try {
             return clazz.newInstance();
@@ -28,14 +28,19 @@ import com.strobel.decompiler.ast.AstBuilder;
 import com.strobel.decompiler.ast.AstOptimizationStep;
 import com.strobel.decompiler.ast.AstOptimizer;
 import com.strobel.decompiler.ast.Block;
+import com.strobel.decompiler.ast.Expression;
 import com.strobel.decompiler.ast.Lambda;
 import com.strobel.decompiler.ast.Node;
 import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.ErrorMessage;
+import one.util.huntbugs.analysis.Timings;
 import one.util.huntbugs.db.FieldStats;
 import one.util.huntbugs.db.MethodStats;
+import one.util.huntbugs.flow.Budget;
 import one.util.huntbugs.flow.CFG;
 import one.util.huntbugs.flow.ClassFields;
+import one.util.huntbugs.flow.Fact;
+import one.util.huntbugs.flow.FactStore;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.repo.Repository;
@@ -47,19 +52,28 @@ import one.util.huntbugs.warning.Messages.Message;
 import one.util.huntbugs.warning.Role.NumberRole;
 import one.util.huntbugs.warning.WarningType;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -76,13 +90,13 @@ public class DetectorRegistry {
     static final String DETECTORS_PACKAGE = "one.util.huntbugs.detect";
 
     private final Map<WarningType, Detector> typeToDetector = new HashMap<>();
-    private final List<Detector> detectors = new ArrayList<>();
+    final List<Detector> detectors = new ArrayList<>();
     private final Context ctx;
     private final Detector systemDetector;
 
     private final DatabaseRegistry databases;
-    private final Function<TypeReference, FieldStats> fieldStatsDb;
-    private final Function<TypeReference, MethodStats> methodStatsDb;
+    final Function<TypeReference, FieldStats> fieldStatsDb;
+    final Function<TypeReference, MethodStats> methodStatsDb;
 
     public static class SystemDetector {
     }
@@ -137,6 +151,9 @@ public class DetectorRegistry {
         if (activeWts.isEmpty())
             return null;
         Detector detector = new Detector(wts, clazz, databases);
+        Timings timings = ctx.getTimings();
+        if (timings != null)
+            detector.timer = timings.getDetectorTimer(detector.toString());
         activeWts.forEach(wt -> {
             typeToDetector.put(wt, detector);
             ctx.incStat("WarningTypes");
@@ -160,7 +177,9 @@ public class DetectorRegistry {
 
     }
 
-    private void visitChildren(Node node, NodeChain parents, List<MethodContext> list, MethodData mdata) {
+    void visitChildren(Node node, NodeChain parents, List<MethodContext> list, MethodData mdata) {
+        if (ctx.isCancelled())
+            return;
         if (node instanceof Lambda) {
             MethodDefinition curMethod = mdata.realMethod;
             CFG curCFG = mdata.cfg;
@@ -195,8 +214,50 @@ public class DetectorRegistry {
         }
     }
 
+    /**
+     * @return true if all the registered databases support populating via
+     *         shards
+     */
+    public boolean canPopulateDatabasesInParallel() {
+        return databases.isMergeable();
+    }
+
+    /**
+     * @return true if the content of the database shards can be stored via
+     *         {@link DatabaseRegistry.Shard#write(java.io.DataOutput)}
+     */
+    public boolean canSnapshotDatabases() {
+        return databases.isSnapshotSupported();
+    }
+
+    public DatabaseRegistry.Shard createDatabaseShard() {
+        return databases.createShard();
+    }
+
+    public void populateDatabases(DatabaseRegistry.Shard shard, TypeDefinition type) {
+        shard.visitType(type);
+        for (TypeDefinition subType : type.getDeclaredTypes()) {
+            populateDatabases(shard, subType);
+        }
+    }
+
+    public void mergeDatabases(DatabaseRegistry.Shard shard) {
+        databases.merge(shard);
+    }
+
+    /**
+     * Completes the databases once they are populated with all the types.
+     * 
+     * @param executor executor to use or null to complete the databases in
+     *        the current thread
+     */
+    public void completeDatabases(ExecutorService executor) {
+        databases.complete(executor);
+    }
+
     public void analyzeClass(TypeDefinition type) {
         ctx.incStat("TotalClasses");
+        Timings timings = ctx.getTimings();
         
         ClassData cdata = new ClassData(type);
         ClassFields cf = new ClassFields(type, fieldStatsDb.apply(type), methodStatsDb.apply(type));
@@ -210,55 +271,119 @@ public class DetectorRegistry {
 
         ClassContext[] ccs = detectors.stream().map(d -> new ClassContext(ctx, cdata, d)).filter(
             ClassContext::visitClass).toArray(ClassContext[]::new);
+        // Expressions of constructors and type initializer are shared with other
+        // methods via ClassFields, so they need every fact any visitor may read
+        Set<Fact> classFacts = getFacts(ccs, null);
+        // Facts of constructors and type initializer are kept until the class is analyzed
+        FactStore classStore = new FactStore(null);
         
+        Map<MethodDefinition, Future<MethodFlow>> flows = null;
         for (MethodDefinition md : declMethods) {
+            if (ctx.isCancelled())
+                break;
             if(!md.isSpecialName()) {
                 cf.clearCtorData();
+                if(flows == null) {
+                    flows = prepareMethods(type, declMethods, cf, ccs, classStore);
+                }
             }
             if(md.isSynthetic() && md.getName().startsWith("lambda$"))
                 continue;
+            long start = Timings.start(timings);
+            // Time spent to build the flow in another thread
+            long flowNanos = 0;
             MethodData mdata = new MethodData(md);
 
             Map<Boolean, List<MethodContext>> mcs = Stream.of(ccs).map(cc -> cc.forMethod(mdata)).collect(
                 Collectors.partitioningBy(MethodContext::visitMethod));
+            Runnable stopOnDemand = null;
 
             MethodBody body = md.getBody();
             if (body != null) {
+                // Last degradation tier: the AST is built by Procyon which cannot
+                // be bounded by the step budget, so huge methods get no AST visitors
                 if (body.getCodeSize() > ctx.getOptions().maxMethodSize) {
+                    ctx.incStat("MethodTooLarge");
                     if (systemDetector != null) {
                         MethodContext mc = new ClassContext(ctx, cdata, systemDetector).forMethod(mdata);
                         mc.report(METHOD_TOO_LARGE.getName(), 0, BYTECODE_SIZE.create(body.getCodeSize()), LIMIT.create(
                             ctx.getOptions().maxMethodSize));
                         mc.finalizeMethod();
                     }
-                } else if (!mcs.get(true).isEmpty()) {
-                    final DecompilerContext context = new DecompilerContext();
-
-                    context.setCurrentMethod(md);
-                    context.setCurrentType(type);
-                    Block methodAst = new Block();
-                    try {
-                        methodAst.getBody().addAll(AstBuilder.build(body, true, context));
-                        AstOptimizer.optimize(context, methodAst, AstOptimizationStep.None);
-                        mdata.cfg = CFG.build(md, methodAst);
-                        mdata.origParams = ValuesFlow.annotate(ctx, md, cf, mdata.cfg);
-                        mdata.fullyAnalyzed = true;
-                    } catch (Throwable t) {
-                        ctx.addError(new ErrorMessage(null, type.getFullName(), md.getFullName(), md.getSignature(),
-                                -1, t));
+                } else {
+                    Future<MethodFlow> future = flows == null ? null : flows.get(md);
+                    // Prepared flow is always awaited, so no task outlives the class analysis
+                    MethodFlow flow = future == null ? null : getFlow(future);
+                    if (flow != null)
+                        flowNanos = flow.nanos;
+                    if (md.isSpecialName() ? !mcs.get(true).isEmpty() : mcs.get(true).stream().anyMatch(
+                        MethodContext::hasAstVisitors)) {
+                        if (flow == null) {
+                            Set<Fact> facts = md.isSpecialName() ? classFacts : Fact.closure(mcs.get(true).stream()
+                                    .flatMap(mc -> mc.facts.stream()).collect(Collectors.toSet()));
+                            flow = buildFlow(type, md, body, cf, facts, md.isSpecialName() ? classStore
+                                    : new FactStore(classStore));
+                        }
+                        FactStore.activate(flow.store);
+                        // Back links of the shared expressions are updated by every method
+                        if (flow.error == null && classFacts.contains(Fact.BACKLINK) && !flow.skipped.contains(
+                            Fact.BACKLINK)) {
+                            try {
+                                long backLinkStart = Timings.start(timings);
+                                ValuesFlow.annotateBackLinks(flow.cfg);
+                                Timings.lap(timings, "Inf.BACKLINK", backLinkStart);
+                                flow.facts.add(Fact.BACKLINK);
+                            } catch (Throwable t) {
+                                flow.error = t;
+                            }
+                        }
+                        if (!flow.skipped.isEmpty()) {
+                            for (MethodContext mc : mcs.get(true)) {
+                                mc.removeAstVisitors(flow.skipped);
+                            }
+                        }
+                        mdata.cfg = flow.cfg;
+                        mdata.origParams = flow.origParams;
+                        if (flow.error == null) {
+                            // Visitors which needed the skipped facts did not run
+                            mdata.fullyAnalyzed = flow.skipped.isEmpty();
+                            stopOnDemand = ValuesFlow.annotateOnDemand(ctx, cf, flow.cfg, flow.facts);
+                        } else {
+                            ctx.addError(new ErrorMessage(null, type.getFullName(), md.getFullName(), md
+                                    .getSignature(), -1, flow.error));
+                        }
+                        visitChildren(flow.ast, null, mcs.get(true), mdata);
                     }
-                    visitChildren(methodAst, null, mcs.get(true), mdata);
                 }
             } else {
                 mdata.fullyAnalyzed = true;
             }
-            for (MethodContext mc : mcs.get(true)) {
-                mc.visitAfterMethod();
-                mc.finalizeMethod();
+            // Method after-visitors may draw wrong conclusions from the partially visited method
+            boolean visited = !ctx.isCancelled();
+            try {
+                for (MethodContext mc : mcs.get(true)) {
+                    if (visited)
+                        mc.visitAfterMethod();
+                    mc.finalizeMethod();
+                }
+            } finally {
+                if (stopOnDemand != null)
+                    stopOnDemand.run();
+                FactStore.activate(null);
             }
             for (MethodContext mc : mcs.get(false)) {
                 mc.finalizeMethod();
             }
+            if (timings != null) {
+                timings.addMethod(type.getFullName() + "." + md.getName() + md.getSignature(), System.nanoTime()
+                    - start + flowNanos);
+            }
+        }
+        if (ctx.isCancelled()) {
+            // Class-level visitors need every method to be visited, so the class is left incomplete
+            ctx.incStat("IncompleteClasses");
+            awaitFlows(flows);
+            return;
         }
         for(FieldData fdata : fields) {
             for(ClassContext cc : ccs) {
@@ -275,7 +400,134 @@ public class DetectorRegistry {
         }
     }
 
-    private void sortMethods(List<MethodDefinition> declMethods) {
+    /**
+     * Starts concurrent preparation of the regular methods (i.e. except
+     * constructors and type initializer) if enabled for given class. Must be
+     * called after all the constructors are processed, so {@link ClassFields}
+     * are not modified anymore.
+     * 
+     * @return map of prepared methods or null if methods should be prepared
+     *         sequentially
+     */
+    private Map<MethodDefinition, Future<MethodFlow>> prepareMethods(TypeDefinition type,
+            List<MethodDefinition> declMethods, ClassFields cf, ClassContext[] ccs, FactStore classStore) {
+        if (!ctx.isMethodParallelismEnabled(declMethods.size()))
+            return Collections.emptyMap();
+        Map<MethodDefinition, Future<MethodFlow>> flows = new HashMap<>();
+        for (MethodDefinition md : declMethods) {
+            if (md.isSpecialName() || md.isSynthetic() && md.getName().startsWith("lambda$"))
+                continue;
+            // Body is loaded lazily, so it's better to do this in the current thread
+            MethodBody body = md.getBody();
+            // Method visitors are not called yet, so prepare everything the visitors may need
+            Set<Fact> facts = getFacts(ccs, md);
+            if (body != null && body.getCodeSize() <= ctx.getOptions().maxMethodSize && !facts.isEmpty()) {
+                flows.put(md, ctx.submitMethodTask(() -> buildFlow(type, md, body, cf, facts, new FactStore(
+                    classStore))));
+            }
+        }
+        return flows;
+    }
+
+    /**
+     * @param md method to check or null to collect the facts for any method
+     * @return facts requested by AST visitors of given class contexts which
+     *         are applicable to given method or empty set if there are no such
+     *         visitors
+     */
+    static Set<Fact> getFacts(ClassContext[] ccs, MethodDefinition md) {
+        Set<Fact> facts = EnumSet.noneOf(Fact.class);
+        for (ClassContext cc : ccs) {
+            for (Detector.VisitorInfo vi : cc.detector.astVisitors) {
+                if (md == null || vi.isApplicable(md)) {
+                    facts.addAll(vi.facts);
+                }
+            }
+        }
+        return facts;
+    }
+
+    /**
+     * Waits for the prepared methods of the class which analysis was
+     * cancelled, so no task outlives the class analysis
+     */
+    private void awaitFlows(Map<MethodDefinition, Future<MethodFlow>> flows) {
+        if (flows == null)
+            return;
+        for (Future<MethodFlow> future : flows.values()) {
+            if (!future.cancel(false))
+                getFlow(future);
+        }
+    }
+
+    private MethodFlow getFlow(Future<MethodFlow> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    MethodFlow buildFlow(TypeDefinition type, MethodDefinition md, MethodBody body, ClassFields cf,
+            Set<Fact> facts, FactStore store) {
+        final DecompilerContext context = new DecompilerContext();
+
+        context.setCurrentMethod(md);
+        context.setCurrentType(type);
+        MethodFlow flow = new MethodFlow(store);
+        Timings timings = ctx.getTimings();
+        long start = Timings.start(timings);
+        FactStore prevStore = FactStore.activate(store);
+        try {
+            long time = start;
+            flow.ast.getBody().addAll(AstBuilder.build(body, true, context));
+            time = Timings.lap(timings, Timings.AST_BUILD, time);
+            AstOptimizer.optimize(context, flow.ast, AstOptimizationStep.None);
+            time = Timings.lap(timings, Timings.AST_OPTIMIZE, time);
+            flow.cfg = CFG.build(md, flow.ast);
+            Timings.lap(timings, Timings.CFG, time);
+            Budget budget = new Budget(ctx.getOptions().methodBudget, ctx.getCancellation());
+            flow.origParams = ValuesFlow.annotateLocal(ctx, md, cf, flow.cfg, facts, budget);
+            flow.skipped.addAll(budget.getSkipped());
+            flow.facts.addAll(facts);
+            flow.facts.remove(Fact.BACKLINK);
+            // Skipped facts are not built on demand either
+            flow.facts.addAll(flow.skipped);
+        } catch (Throwable t) {
+            flow.error = t;
+        } finally {
+            FactStore.activate(prevStore);
+        }
+        if (timings != null)
+            flow.nanos = System.nanoTime() - start;
+        return flow;
+    }
+
+    /**
+     * Method AST with the control flow graph and the values flow built, except
+     * back links
+     */
+    static class MethodFlow {
+        final Block ast = new Block();
+        // Facts already built for the method
+        final Set<Fact> facts = EnumSet.noneOf(Fact.class);
+        // Facts not built as the method budget was exhausted
+        final Set<Fact> skipped = EnumSet.noneOf(Fact.class);
+        final FactStore store;
+        CFG cfg;
+        List<Expression> origParams;
+        Throwable error;
+        long nanos;
+
+        MethodFlow(FactStore store) {
+            this.store = store;
+        }
+    }
+
+    void sortMethods(List<MethodDefinition> declMethods) {
         declMethods.sort(Comparator.comparingInt(md ->
                 md.isTypeInitializer() ? 0 :
                     md.isConstructor() ? 1 : 2));
@@ -386,6 +638,42 @@ public class DetectorRegistry {
         rows.forEach(out::println);
     }
 
+    /**
+     * Updates the digest with the active warning types and the code of the
+     * detectors which report them
+     * 
+     * @param digest digest to update
+     */
+    public void updateDigest(MessageDigest digest) {
+        typeToDetector.entrySet().stream().sorted(Comparator.comparing(e -> e.getKey().getName())).forEach(e -> {
+            WarningType wt = e.getKey();
+            String str = wt.getCategory() + "/" + wt.getName() + "/" + wt.getMaxScore() + "/" + e.getValue();
+            digest.update(str.getBytes(StandardCharsets.UTF_8));
+        });
+        typeToDetector.values().stream().distinct().sorted(Comparator.comparing(Detector::toString)).forEach(
+            detector -> {
+                byte[] bytes = detector.getClassBytes();
+                if (bytes != null)
+                    digest.update(bytes);
+            });
+    }
+
+    /**
+     * Writes the facts the databases hold about given type
+     * 
+     * @param internalName internal name of the type
+     * @param out output to write to
+     * @param classes receives the names of other types whose class files are
+     *        read when these facts are used
+     * @return false if some database cannot write the facts per type
+     * @throws IOException if output fails
+     * @see AbstractTypeDatabase#writeFacts(String, DataOutput, Consumer)
+     */
+    public boolean writeDatabaseFacts(String internalName, DataOutput out, Consumer<String> classes)
+            throws IOException {
+        return databases.writeFacts(internalName, out, classes);
+    }
+
     public WarningType getWarningType(String typeName) {
         return typeToDetector.keySet().stream().filter(wt -> wt.getName().equals(typeName)).findFirst().orElse(null);
     }
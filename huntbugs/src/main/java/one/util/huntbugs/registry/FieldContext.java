@@ -41,6 +41,7 @@ public class FieldContext extends ElementContext {
     }
 
     void visitField() {
+        long start = detector.startTimer();
         for(MethodHandle mh : detector.fieldVisitors) {
             try {
                 detector.bindDatabases(Detector.FIELD_VISITOR_TYPE.parameterCount(), cc.type, mh)
@@ -49,6 +50,7 @@ public class FieldContext extends ElementContext {
                 ctx.addError(new ErrorMessage(detector, fdata.fd, -1, e));
             }
         }
+        detector.stopTimer(start);
     }
 
     public void report(String warning, int priority, WarningAnnotation<?>... annotations) {
@@ -19,14 +19,15 @@ import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.ErrorMessage;
 import one.util.huntbugs.flow.CodeBlock;
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.flow.Inf;
 import one.util.huntbugs.flow.ValuesFlow;
 import one.util.huntbugs.flow.CFG;
@@ -96,32 +97,69 @@ public class MethodContext extends ElementContext {
     private final ClassContext cc;
     private WarningInfo lastWarning;
     private final List<MethodHandle> astVisitors;
+    // Facts requested by the applicable AST visitors
+    final Set<Fact> facts = EnumSet.noneOf(Fact.class);
 
     MethodContext(Context ctx, ClassContext сс, MethodData md) {
         super(ctx, сс.detector);
         this.cc = сс;
         this.mdata = md;
         this.det = сс.det;
-        astVisitors = detector.astVisitors.stream().filter(vi -> vi.isApplicable(md.mainMethod)).map(
-            vi -> vi.bind(сс.type)).collect(Collectors.toCollection(ArrayList::new));
+        astVisitors = new ArrayList<>();
+        for (Detector.VisitorInfo vi : detector.astVisitors) {
+            if (vi.isApplicable(md.mainMethod)) {
+                astVisitors.add(vi.bind(сс.type));
+                facts.addAll(vi.facts);
+            }
+        }
+    }
+
+    /**
+     * @return true if this context has AST visitors applicable to the method
+     */
+    boolean hasAstVisitors() {
+        return !astVisitors.isEmpty();
+    }
+
+    /**
+     * Removes the AST visitors which read any of the given facts. If the
+     * sources are skipped, only the visitors which request no facts at all
+     * are kept.
+     * 
+     * @param skipped facts which were not built for the method
+     */
+    void removeAstVisitors(Set<Fact> skipped) {
+        astVisitors.clear();
+        for (Detector.VisitorInfo vi : detector.astVisitors) {
+            if (vi.isApplicable(mdata.mainMethod) && (skipped.contains(Fact.SOURCE) ? !vi.needsFlow
+                    : vi.facts.stream().noneMatch(skipped::contains))) {
+                astVisitors.add(vi.bind(cc.type));
+            }
+        }
     }
 
     boolean visitMethod() {
-        for(MethodHandle mh : detector.methodVisitors) {
-            try {
-                if (!(boolean) detector.bindDatabases(Detector.METHOD_VISITOR_TYPE.parameterCount(), cc.type, mh)
-                        .invoke(det, this, mdata.mainMethod, cc.type)) {
-                    return false;
+        long start = detector.startTimer();
+        try {
+            for (MethodHandle mh : detector.methodVisitors) {
+                try {
+                    if (!(boolean) detector.bindDatabases(Detector.METHOD_VISITOR_TYPE.parameterCount(), cc.type, mh)
+                            .invoke(det, this, mdata.mainMethod, cc.type)) {
+                        return false;
+                    }
+                } catch (Throwable e) {
+                    ctx.addError(new ErrorMessage(detector, mdata.mainMethod, -1, e));
                 }
-            } catch (Throwable e) {
-                ctx.addError(new ErrorMessage(detector, mdata.mainMethod, -1, e));
             }
+        } finally {
+            detector.stopTimer(start);
         }
         return !astVisitors.isEmpty() || !detector.methodAfterVisitors.isEmpty();
     }
 
     void visitAfterMethod() {
-        for(MethodHandle mh : detector.methodVisitors) {
+        long start = detector.startTimer();
+        for(MethodHandle mh : detector.methodAfterVisitors) {
             try {
                 detector.bindDatabases(Detector.METHOD_VISITOR_TYPE.parameterCount(), cc.type, mh)
                         .invoke(det, this, mdata.mainMethod, cc.type);
@@ -129,9 +167,11 @@ public class MethodContext extends ElementContext {
                 ctx.addError(new ErrorMessage(detector, mdata.mainMethod, -1, e));
             }
         }
+        detector.stopTimer(start);
     }
 
     boolean visitNode(Node node) {
+        long start = detector.startTimer();
         for (Iterator<MethodHandle> it = astVisitors.iterator(); it.hasNext();) {
             try {
                 MethodHandle mh = it.next();
@@ -142,6 +182,7 @@ public class MethodContext extends ElementContext {
                 ctx.addError(new ErrorMessage(detector, mdata.mainMethod, -1, e));
             }
         }
+        detector.stopTimer(start);
         return !astVisitors.isEmpty();
     }
 
@@ -20,6 +20,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import one.util.huntbugs.flow.Fact;
 import one.util.huntbugs.registry.MethodContext;
 
 import com.strobel.assembler.metadata.MethodDefinition;
@@ -35,6 +36,13 @@ import com.strobel.assembler.metadata.TypeDefinition;
  * 
  * <p>
  * For additional allowed types and allowed return values see the {@link AstNodes} description.
+ * 
+ * <p>
+ * The {@link #facts()} lists the expression facts the visitor reads (directly or
+ * via utility methods like {@code Nodes.getConstant}). Only the facts requested
+ * by the visitors which are going to visit the method are built in advance
+ * (possibly in parallel with other methods), other facts are built on the first
+ * access.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
@@ -46,4 +54,6 @@ public @interface AstVisitor {
     String methodSignature() default "";
     
     int minVersion() default 0;
+    
+    Fact[] facts() default { Fact.SOURCE, Fact.CONST, Fact.ETYPE, Fact.NULL, Fact.PURITY, Fact.BACKLINK };
 }
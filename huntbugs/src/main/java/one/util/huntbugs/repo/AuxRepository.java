@@ -15,6 +15,11 @@
  */
 package one.util.huntbugs.repo;
 
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
 import com.strobel.assembler.metadata.ITypeLoader;
 
 /**
@@ -25,9 +30,20 @@ import com.strobel.assembler.metadata.ITypeLoader;
  */
 public class AuxRepository implements Repository {
     private final ITypeLoader loader;
+    private final List<Path> jars;
 
     public AuxRepository(ITypeLoader loader) {
+        this(loader, Collections.emptyList());
+    }
+
+    /**
+     * @param loader loader for auxiliary classes
+     * @param jars jar files the loader reads the classes from (directories
+     *        and other sources may be loaded as well, but not listed)
+     */
+    public AuxRepository(ITypeLoader loader, List<Path> jars) {
         this.loader = loader;
+        this.jars = jars;
     }
 
     @Override
@@ -35,6 +51,11 @@ public class AuxRepository implements Repository {
         return loader;
     }
 
+    @Override
+    public Stream<Path> auxiliaryJars() {
+        return jars.stream();
+    }
+
     @Override
     public void visit(String rootPackage, RepositoryVisitor visitor) {
     }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Process-wide cache of the class file contents shared by all the threads and
+ * metadata systems, so the classes resolved again after the metadata system
+ * flush are not read from the disk or inflated again. The earliest added
+ * entries are evicted when the total size exceeds the capacity.
+ */
+final class ClassBytesCache {
+    static final ClassBytesCache INSTANCE = new ClassBytesCache(Runtime.getRuntime().maxMemory() / 16);
+
+    private static final AtomicLong lastOwner = new AtomicLong();
+
+    private final long capacity;
+    private final Map<Key, byte[]> entries = new ConcurrentHashMap<>();
+    private final Queue<Key> order = new ConcurrentLinkedQueue<>();
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Owner is identified by number rather than by reference, so the cache
+     * does not keep the repositories (and their mappings) alive. The entries
+     * of the abandoned owners are eventually evicted.
+     */
+    private static class Key {
+        final long owner;
+        final String internalName;
+
+        Key(long owner, String internalName) {
+            this.owner = owner;
+            this.internalName = internalName;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(owner) * 31 + internalName.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return owner == other.owner && internalName.equals(other.internalName);
+        }
+    }
+
+    private ClassBytesCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return new owner identifier to separate the classes of different
+     *         repositories
+     */
+    static long newOwner() {
+        return lastOwner.incrementAndGet();
+    }
+
+    /**
+     * @param owner owner identifier
+     * @param loader loader to delegate the cache misses to
+     * @return loader which uses the cache
+     */
+    ITypeLoader wrap(long owner, ITypeLoader loader) {
+        return (internalName, buffer) -> {
+            Key key = new Key(owner, internalName);
+            byte[] bytes = entries.get(key);
+            if (bytes != null) {
+                buffer.reset(bytes.length);
+                System.arraycopy(bytes, 0, buffer.array(), 0, bytes.length);
+                buffer.position(0);
+                return true;
+            }
+            if (!loader.tryLoadType(internalName, buffer))
+                return false;
+            put(key, buffer);
+            return true;
+        };
+    }
+
+    private void put(Key key, Buffer buffer) {
+        int length = buffer.size();
+        if (length > capacity)
+            return;
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer.array(), 0, bytes, 0, length);
+        if (entries.putIfAbsent(key, bytes) != null)
+            return;
+        order.add(key);
+        size.addAndGet(length);
+        while (size.get() > capacity) {
+            Key eldest = order.poll();
+            if (eldest == null)
+                break;
+            byte[] removed = entries.remove(eldest);
+            if (removed != null)
+                size.addAndGet(-removed.length);
+        }
+    }
+}
@@ -15,8 +15,11 @@
  */
 package one.util.huntbugs.repo;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
+
 import com.strobel.assembler.metadata.CompositeTypeLoader;
 import com.strobel.assembler.metadata.ITypeLoader;
 
@@ -26,6 +29,8 @@ import com.strobel.assembler.metadata.ITypeLoader;
  */
 public class CompositeRepository implements Repository {
     private final List<Repository> repos;
+    // Identifies the classes of this repository in the shared cache
+    private final long cacheOwner = ClassBytesCache.newOwner();
 
     public CompositeRepository(List<Repository> repos) {
         this.repos = Objects.requireNonNull(repos);
@@ -33,7 +38,8 @@ public class CompositeRepository implements Repository {
 
     @Override
     public ITypeLoader createTypeLoader() {
-        return new CompositeTypeLoader(repos.stream().map(Repository::createTypeLoader).toArray(ITypeLoader[]::new));
+        return ClassBytesCache.INSTANCE.wrap(cacheOwner, new CompositeTypeLoader(repos.stream().map(
+            Repository::createTypeLoader).toArray(ITypeLoader[]::new)));
     }
 
     @Override
@@ -42,4 +48,21 @@ public class CompositeRepository implements Repository {
             repo.visit(rootPackage, visitor);
     }
 
+    @Override
+    public Stream<Path> auxiliaryJars() {
+        return repos.stream().flatMap(Repository::auxiliaryJars);
+    }
+
+    @Override
+    public void setReadOrder(List<String> classNames) {
+        for(Repository repo : repos)
+            repo.setReadOrder(classNames);
+    }
+
+    @Override
+    public void readingClass(String className) {
+        for(Repository repo : repos)
+            repo.readingClass(className);
+    }
+
 }
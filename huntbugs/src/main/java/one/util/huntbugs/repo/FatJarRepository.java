@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Repository for the executable Spring Boot jars and the web archives which
+ * reads the nested archives in place. The application classes (under
+ * BOOT-INF/classes or WEB-INF/classes) are visited, while the nested library
+ * jars (under BOOT-INF/lib or WEB-INF/lib) are only available to the type
+ * loader like the {@link AuxRepository} classes. Nested jars are opened when
+ * the class is not found in the application classes and the already opened
+ * jars; the deflated ones are decompressed once and kept for the subsequent
+ * loads.
+ */
+public class FatJarRepository implements Repository {
+    private static final String[][] LAYOUTS = { { "BOOT-INF/classes/", "BOOT-INF/lib/" },
+            { "WEB-INF/classes/", "WEB-INF/lib/" } };
+
+    private final MappedJarRepository app;
+    private final List<String> libNames;
+    private final Repository[] libs;
+
+    private FatJarRepository(MappedJarRepository app) {
+        this.app = app;
+        this.libNames = app.getNestedJars();
+        this.libs = new Repository[libNames.size()];
+    }
+
+    /**
+     * Creates the repository for the jar file
+     * 
+     * @param path jar file to open
+     * @return {@link FatJarRepository} if the jar has the Spring Boot or the
+     *         web archive layout, {@link MappedJarRepository} otherwise
+     * @throws IOException if the jar cannot be read
+     */
+    public static Repository open(Path path) throws IOException {
+        ByteBuffer data = MappedJarRepository.map(path);
+        for (String[] layout : LAYOUTS) {
+            MappedJarRepository app = new MappedJarRepository(path.toString(), data, layout[0], layout[1]);
+            if (!app.isEmpty())
+                return new FatJarRepository(app);
+        }
+        return new MappedJarRepository(path.toString(), data, "", null);
+    }
+
+    /**
+     * @return repository of the nested jar, shared between the type loaders,
+     *         so its central directory is read and its deflated content is
+     *         decompressed only once
+     */
+    private synchronized Repository getLib(int index) {
+        if (libs[index] == null) {
+            try {
+                libs[index] = app.openNestedJar(libNames.get(index));
+            } catch (IOException e) {
+                // unreadable library just does not provide any classes
+                libs[index] = new AuxRepository((internalName, buffer) -> false);
+            }
+        }
+        return libs[index];
+    }
+
+    @Override
+    public ITypeLoader createTypeLoader() {
+        return new Loader();
+    }
+
+    @Override
+    public void visit(String rootPackage, RepositoryVisitor visitor) {
+        app.visit(rootPackage, visitor);
+    }
+
+    @Override
+    public String toString() {
+        return "FatJarRepository[" + app + ", " + libNames.size() + " nested jars]";
+    }
+
+    /**
+     * Synchronized, as the {@link AuxRepository} shares the loader between the
+     * workers
+     */
+    private class Loader implements ITypeLoader {
+        private final ITypeLoader appLoader = app.createTypeLoader();
+        private final ITypeLoader[] libLoaders = new ITypeLoader[libNames.size()];
+
+        @Override
+        public synchronized boolean tryLoadType(String internalName, Buffer buffer) {
+            if (appLoader.tryLoadType(internalName, buffer))
+                return true;
+            for (int i = 0; i < libLoaders.length; i++) {
+                if (libLoaders[i] == null)
+                    libLoaders[i] = getLib(i).createTypeLoader();
+                if (libLoaders[i].tryLoadType(internalName, buffer))
+                    return true;
+            }
+            return false;
+        }
+    }
+}
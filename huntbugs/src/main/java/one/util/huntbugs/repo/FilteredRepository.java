@@ -15,7 +15,10 @@
  */
 package one.util.huntbugs.repo;
 
+import java.nio.file.Path;
+import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import com.strobel.assembler.metadata.ITypeLoader;
 
@@ -43,6 +46,21 @@ public class FilteredRepository implements Repository {
         return repository.createTypeLoader();
     }
 
+    @Override
+    public Stream<Path> auxiliaryJars() {
+        return repository.auxiliaryJars();
+    }
+
+    @Override
+    public void setReadOrder(List<String> classNames) {
+        repository.setReadOrder(classNames);
+    }
+
+    @Override
+    public void readingClass(String className) {
+        repository.readingClass(className);
+    }
+
     @Override
     public void visit(String rootPackage, RepositoryVisitor visitor) {
         repository.visit(rootPackage, new RepositoryVisitor() {
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Jar repository which maps the archive into memory and indexes its central
+ * directory once. Classes are read directly from the mapping without
+ * intermediate streams, and the package visits use the index, so the entries
+ * outside of the visited package are never scanned.
+ */
+public class MappedJarRepository implements Repository {
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_HEADER = 0x06054b50;
+    private static final int ZIP64_END_HEADER = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_END_SIZE = 56;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final byte[] CLASS_SUFFIX = ".class".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JAR_SUFFIX = ".jar".getBytes(StandardCharsets.US_ASCII);
+
+    private final String name;
+    private final ByteBuffer data;
+    // Entry name prefix of the classes, stripped from the internal names
+    private final byte[] classRoot;
+    // Entry name prefix of the nested library archives or null if they are not indexed
+    private final byte[] libRoot;
+    // Archive may be prepended with some data (e.g. launch script), so the offsets are shifted
+    private long base;
+    // Internal name -> class entry
+    private final Map<String, Entry> classes = new HashMap<>();
+    // Package name (including the packages which have only subpackages) -> top-level classes
+    private final NavigableMap<String, List<String>> packages = new TreeMap<>();
+    // Nested archive entry name -> entry in the archive order
+    private final Map<String, Entry> archives = new LinkedHashMap<>();
+
+    private static class Entry {
+        final int headerOffset;
+        final int compressedSize;
+        final int size;
+        final boolean deflated;
+
+        Entry(int headerOffset, int compressedSize, int size, boolean deflated) {
+            this.headerOffset = headerOffset;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.deflated = deflated;
+        }
+    }
+
+    public MappedJarRepository(Path path) throws IOException {
+        this(path.toString(), map(path), "", null);
+    }
+
+    /**
+     * @param name archive name used in the error messages
+     * @param data archive content
+     * @param classRoot entry name prefix of the classes to index (e.g.
+     *        "BOOT-INF/classes/"), empty string for the plain jar
+     * @param libRoot entry name prefix of the nested jars to index (e.g.
+     *        "BOOT-INF/lib/") or null
+     * @throws IOException if the archive is malformed
+     */
+    MappedJarRepository(String name, ByteBuffer data, String classRoot, String libRoot) throws IOException {
+        this.name = name;
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        this.classRoot = classRoot.getBytes(StandardCharsets.UTF_8);
+        this.libRoot = libRoot == null ? null : libRoot.getBytes(StandardCharsets.UTF_8);
+        readCentralDirectory();
+    }
+
+    static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Archive is too large to be mapped: " + path);
+            // Mapping stays valid after the channel is closed
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private void readCentralDirectory() throws IOException {
+        int end = findEnd();
+        long count = u16(end + 10);
+        long dirSize = u32(end + 12);
+        long dirOffset = u32(end + 16);
+        // Position where the central directory ends in the file
+        long dirEnd = end;
+        if (count == 0xFFFF || dirSize == ZIP64_MAGIC || dirOffset == ZIP64_MAGIC) {
+            int locator = end - ZIP64_LOCATOR_SIZE;
+            if (locator < 0 || data.getInt(locator) != ZIP64_LOCATOR)
+                throw new ZipException("ZIP64 locator is not found: " + name);
+            int end64 = locator - ZIP64_END_SIZE;
+            if (end64 < 0 || data.getInt(end64) != ZIP64_END_HEADER) {
+                end64 = toInt(data.getLong(locator + 8));
+                if (data.getInt(end64) != ZIP64_END_HEADER)
+                    throw new ZipException("ZIP64 end header is not found: " + name);
+            }
+            count = data.getLong(end64 + 32);
+            dirSize = data.getLong(end64 + 40);
+            dirOffset = data.getLong(end64 + 48);
+            dirEnd = end64;
+        }
+        base = dirEnd - dirSize - dirOffset;
+        int pos = toInt(dirEnd - dirSize);
+        for (long i = 0; i < count; i++) {
+            if (data.getInt(pos) != CENTRAL_HEADER)
+                throw new ZipException("Invalid central directory header at " + pos + ": " + name);
+            int method = u16(pos + 10);
+            long compressedSize = u32(pos + 20);
+            long size = u32(pos + 24);
+            int nameLength = u16(pos + 28);
+            int extraLength = u16(pos + 30);
+            int commentLength = u16(pos + 32);
+            long headerOffset = u32(pos + 42);
+            int namePos = pos + 46;
+            boolean isClass = startsWith(namePos, nameLength, classRoot)
+                && endsWith(namePos, nameLength, CLASS_SUFFIX);
+            // only the direct children of the library root are on the classpath
+            boolean isLib = !isClass && libRoot != null && startsWith(namePos, nameLength, libRoot)
+                && endsWith(namePos, nameLength, JAR_SUFFIX)
+                && indexOf(namePos + libRoot.length, nameLength - libRoot.length, '/') < 0;
+            if ((isClass || isLib) && (method == STORED || method == DEFLATED)) {
+                if (size == ZIP64_MAGIC || compressedSize == ZIP64_MAGIC || headerOffset == ZIP64_MAGIC) {
+                    long[] values = { size, compressedSize, headerOffset };
+                    readZip64Extra(namePos + nameLength, extraLength, values);
+                    size = values[0];
+                    compressedSize = values[1];
+                    headerOffset = values[2];
+                }
+                String entryName = isClass ? decode(namePos + classRoot.length, nameLength - classRoot.length
+                    - CLASS_SUFFIX.length) : decode(namePos, nameLength);
+                if (size > Integer.MAX_VALUE - 8)
+                    throw new ZipException("Entry is too large: " + entryName + " in " + name);
+                Entry entry = new Entry(toInt(base + headerOffset), toInt(compressedSize), (int) size,
+                        method == DEFLATED);
+                if (isLib)
+                    archives.putIfAbsent(entryName, entry);
+                else if (classes.putIfAbsent(entryName, entry) == null && entryName.indexOf('$') < 0)
+                    addClass(entryName);
+            }
+            pos = namePos + nameLength + extraLength + commentLength;
+        }
+    }
+
+    private int findEnd() throws IOException {
+        int limit = Math.max(0, data.limit() - END_SIZE - 0xFFFF);
+        for (int pos = data.limit() - END_SIZE; pos >= limit; pos--) {
+            if (data.getInt(pos) == END_HEADER && pos + END_SIZE + u16(pos + 20) == data.limit())
+                return pos;
+        }
+        throw new ZipException("End of central directory is not found: " + name);
+    }
+
+    private void readZip64Extra(int pos, int length, long[] values) throws ZipException {
+        int end = pos + length;
+        while (pos + 4 <= end) {
+            int id = u16(pos);
+            int size = u16(pos + 2);
+            if (id == ZIP64_EXTRA) {
+                int field = pos + 4;
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == ZIP64_MAGIC) {
+                        if (field + 8 > pos + 4 + size)
+                            throw new ZipException("Invalid ZIP64 extra field: " + name);
+                        values[i] = data.getLong(field);
+                        field += 8;
+                    }
+                }
+                return;
+            }
+            pos += 4 + size;
+        }
+        throw new ZipException("ZIP64 extra field is not found: " + name);
+    }
+
+    private void addClass(String className) {
+        int pos = className.lastIndexOf('/');
+        String pkg = pos < 0 ? "" : className.substring(0, pos);
+        List<String> pkgClasses = packages.get(pkg);
+        if (pkgClasses == null) {
+            pkgClasses = new ArrayList<>();
+            packages.put(pkg, pkgClasses);
+            // register the parent packages, so the visitor may skip them
+            String parent = pkg;
+            while (!parent.isEmpty()) {
+                pos = parent.lastIndexOf('/');
+                parent = pos < 0 ? "" : parent.substring(0, pos);
+                if (packages.putIfAbsent(parent, new ArrayList<>()) != null)
+                    break;
+            }
+        }
+        pkgClasses.add(className);
+    }
+
+    private boolean startsWith(int pos, int length, byte[] prefix) {
+        if (length < prefix.length)
+            return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (data.get(pos + i) != prefix[i])
+                return false;
+        }
+        return true;
+    }
+
+    private int indexOf(int pos, int length, char ch) {
+        for (int i = 0; i < length; i++) {
+            if (data.get(pos + i) == ch)
+                return i;
+        }
+        return -1;
+    }
+
+    private boolean endsWith(int pos, int length, byte[] suffix) {
+        if (length <= suffix.length)
+            return false;
+        int start = pos + length - suffix.length;
+        for (int i = 0; i < suffix.length; i++) {
+            if (data.get(start + i) != suffix[i])
+                return false;
+        }
+        return true;
+    }
+
+    private String decode(int pos, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = data.get(pos + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int u16(int pos) {
+        return data.getShort(pos) & 0xFFFF;
+    }
+
+    private long u32(int pos) {
+        return data.getInt(pos) & 0xFFFFFFFFL;
+    }
+
+    private int toInt(long value) throws ZipException {
+        if (value < 0 || value > data.limit())
+            throw new ZipException("Invalid offset or size " + value + ": " + name);
+        return (int) value;
+    }
+
+    /**
+     * @return true if the archive has neither classes under the class root nor
+     *         nested jars under the library root
+     */
+    boolean isEmpty() {
+        return classes.isEmpty() && archives.isEmpty();
+    }
+
+    /**
+     * @return names of the nested jars under the library root in the archive
+     *         order
+     */
+    List<String> getNestedJars() {
+        return new ArrayList<>(archives.keySet());
+    }
+
+    /**
+     * Opens the nested jar. The stored jar is read in place from the parent
+     * mapping, the deflated one is decompressed into the heap once.
+     * 
+     * @param entryName one of the {@link #getNestedJars()} names
+     * @return the repository of the nested jar classes
+     * @throws IOException if the nested jar cannot be read
+     */
+    MappedJarRepository openNestedJar(String entryName) throws IOException {
+        Entry entry = archives.get(entryName);
+        if (entry == null)
+            throw new ZipException("No such nested jar: " + entryName + " in " + name);
+        int start = getDataOffset(entry);
+        if ((long) start + (entry.deflated ? entry.compressedSize : entry.size) > data.limit())
+            throw new ZipException("Nested jar is truncated: " + entryName + " in " + name);
+        ByteBuffer content;
+        if (entry.deflated) {
+            byte[] input = new byte[entry.compressedSize + 1];
+            ByteBuffer view = data.duplicate();
+            view.position(start);
+            view.get(input, 0, entry.compressedSize);
+            byte[] out = new byte[entry.size];
+            try {
+                inflate(input, entry, out);
+            } catch (DataFormatException e) {
+                throw new ZipException("Unable to read " + entryName + " from " + name + ": " + e);
+            }
+            content = ByteBuffer.wrap(out);
+        } else {
+            ByteBuffer view = data.duplicate();
+            view.limit(start + entry.size).position(start);
+            content = view.slice();
+        }
+        return new MappedJarRepository(name + "!/" + entryName, content, "", null);
+    }
+
+    private int getDataOffset(Entry entry) throws ZipException {
+        int header = entry.headerOffset;
+        if (data.getInt(header) != LOCAL_HEADER)
+            throw new ZipException("Invalid local header at " + header);
+        return header + 30 + u16(header + 26) + u16(header + 28);
+    }
+
+    private static void inflate(byte[] input, Entry entry, byte[] out) throws DataFormatException, ZipException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(input, 0, entry.compressedSize + 1);
+            int read = 0;
+            while (read < entry.size) {
+                int n = inflater.inflate(out, read, entry.size - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                read += n;
+            }
+            if (read != entry.size)
+                throw new ZipException("Unexpected entry size: " + read + " instead of " + entry.size);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public ITypeLoader createTypeLoader() {
+        return new Loader();
+    }
+
+    @Override
+    public void visit(String rootPackage, RepositoryVisitor visitor) {
+        Set<String> skipped = new HashSet<>();
+        for (Map.Entry<String, List<String>> e : packages.tailMap(rootPackage, true).entrySet()) {
+            String pkg = e.getKey();
+            if (!rootPackage.isEmpty() && !pkg.equals(rootPackage) && !pkg.startsWith(rootPackage + "/")) {
+                // '/' precedes letters, but some characters sort between the subpackages
+                if (pkg.compareTo(rootPackage + "0") >= 0)
+                    break;
+                continue;
+            }
+            if (isSkipped(pkg, skipped))
+                continue;
+            if (!visitor.visitPackage(pkg)) {
+                skipped.add(pkg);
+                continue;
+            }
+            e.getValue().forEach(visitor::visitClass);
+        }
+    }
+
+    private static boolean isSkipped(String pkg, Set<String> skipped) {
+        if (skipped.isEmpty())
+            return false;
+        for (int pos = pkg.lastIndexOf('/'); pos >= 0; pos = pkg.lastIndexOf('/', pos - 1)) {
+            if (skipped.contains(pkg.substring(0, pos)))
+                return true;
+        }
+        return !pkg.isEmpty() && skipped.contains("");
+    }
+
+    @Override
+    public String toString() {
+        return "MappedJarRepository[" + name + "]";
+    }
+
+    /**
+     * Type loader which reads the classes directly from the mapping. The
+     * loaders created by the same repository may be used concurrently; the
+     * single loader is synchronized, as the {@link AuxRepository} shares it
+     * between the workers.
+     */
+    private class Loader implements ITypeLoader {
+        // own position for the bulk reads
+        private final ByteBuffer view = data.duplicate();
+        private byte[] input = new byte[0];
+
+        @Override
+        public synchronized boolean tryLoadType(String internalName, Buffer buffer) {
+            Entry entry = classes.get(internalName);
+            if (entry == null)
+                return false;
+            try {
+                int start = getDataOffset(entry);
+                buffer.reset(entry.size);
+                byte[] out = buffer.array();
+                view.position(start);
+                if (entry.deflated) {
+                    // nowrap mode needs an extra dummy byte
+                    if (input.length < entry.compressedSize + 1)
+                        input = new byte[entry.compressedSize + 1];
+                    view.get(input, 0, entry.compressedSize);
+                    inflate(input, entry, out);
+                } else {
+                    view.get(out, 0, entry.size);
+                }
+            } catch (IOException | DataFormatException | RuntimeException e) {
+                throw new UncheckedIOException(new ZipException("Unable to read " + internalName + " from " + name
+                    + ": " + e));
+            }
+            buffer.position(0);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.repo;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+/**
+ * Directory repository for the slow (e.g. networked) file systems. The
+ * subdirectories are listed in parallel, and the class files are read ahead
+ * in the order hinted via {@link #setReadOrder(List)}, so the I/O latency is
+ * hidden behind the analysis of the previous classes. The classes read ahead
+ * are shared by all the type loaders of this repository.
+ */
+public class ParallelDirRepository implements Repository {
+    private static final int DEFAULT_THREADS = 8;
+    // Number of the top-level classes each processing thread reads in advance
+    private static final int READ_AHEAD = 32;
+
+    private final Path root;
+    // Worker threads are daemons, so the pool needs no shutdown
+    private final ForkJoinPool pool;
+    // Sorted names of all the classes (including nested ones) found by the visits
+    private volatile String[] scanned;
+    // Read-ahead state guarded by readAhead
+    private final Map<String, Pending> readAhead = new HashMap<>();
+    private Map<String, Integer> positions = Collections.emptyMap();
+    private List<String> order = Collections.emptyList();
+    // Positions which were either read ahead or processed
+    private final BitSet requested = new BitSet();
+
+    public ParallelDirRepository(Path root) {
+        this(root, DEFAULT_THREADS);
+    }
+
+    /**
+     * @param root classes root directory
+     * @param threads number of the threads which list the directories and
+     *        read the class files
+     */
+    public ParallelDirRepository(Path root, int threads) {
+        this.root = root;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    @Override
+    public ITypeLoader createTypeLoader() {
+        return this::load;
+    }
+
+    @Override
+    public void setReadOrder(List<String> classNames) {
+        synchronized (readAhead) {
+            readAhead.values().forEach(pending -> pending.future.cancel(false));
+            readAhead.clear();
+            requested.clear();
+            order = new ArrayList<>(classNames);
+            positions = new HashMap<>();
+            for (int i = 0; i < order.size(); i++)
+                positions.put(order.get(i), i);
+        }
+    }
+
+    @Override
+    public void readingClass(String className) {
+        synchronized (readAhead) {
+            Integer position = positions.get(className);
+            String[] names = scanned;
+            if (position == null || names == null)
+                return;
+            requested.set(position);
+            Thread thread = Thread.currentThread();
+            // drop the classes this thread read ahead, but nobody asked for
+            // (e.g. their results were cached)
+            readAhead.values().removeIf(pending -> {
+                if (pending.owner != thread || pending.position >= position - READ_AHEAD)
+                    return false;
+                pending.future.cancel(false);
+                return true;
+            });
+            int to = Math.min(order.size(), position + 1 + READ_AHEAD);
+            for (int i = requested.nextClearBit(position + 1); i < to; i = requested.nextClearBit(i + 1)) {
+                requested.set(i);
+                String topLevel = order.get(i);
+                int index = Arrays.binarySearch(names, topLevel);
+                if (index < 0)
+                    continue; // not from this repository
+                // nested classes follow the top-level one in the sorted index
+                for (int j = index; j < names.length && (j == index || names[j].startsWith(topLevel + "$")); j++) {
+                    String name = names[j];
+                    readAhead.put(name, new Pending(i, thread, CompletableFuture.supplyAsync(() -> read(name), pool)));
+                }
+            }
+        }
+    }
+
+    private boolean load(String internalName, Buffer buffer) {
+        Pending pending;
+        synchronized (readAhead) {
+            pending = readAhead.remove(internalName);
+        }
+        byte[] bytes = pending == null ? read(internalName) : pending.future.join();
+        if (bytes == null)
+            return false;
+        buffer.reset(bytes.length);
+        System.arraycopy(bytes, 0, buffer.array(), 0, bytes.length);
+        buffer.position(0);
+        return true;
+    }
+
+    @Override
+    public void visit(String rootPackage, RepositoryVisitor visitor) {
+        Path path = root.resolve(rootPackage);
+        if (!Files.isDirectory(path))
+            return;
+        Set<String> found = ConcurrentHashMap.newKeySet();
+        pool.invoke(new ScanTask(path, visitor, new Object(), found));
+        synchronized (this) {
+            String[] prev = scanned;
+            if (prev != null)
+                Collections.addAll(found, prev);
+            String[] names = found.toArray(new String[0]);
+            Arrays.sort(names);
+            scanned = names;
+        }
+    }
+
+    /**
+     * @return the class file content or null if it cannot be read
+     */
+    private byte[] read(String internalName) {
+        try {
+            return Files.readAllBytes(root.resolve(internalName + ".class"));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelDirRepository[" + root + "]";
+    }
+
+    private class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        private final RepositoryVisitor visitor;
+        // Visitors are not thread-safe
+        private final Object lock;
+        private final Set<String> found;
+
+        ScanTask(Path dir, RepositoryVisitor visitor, Object lock, Set<String> found) {
+            this.dir = dir;
+            this.visitor = visitor;
+            this.lock = lock;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            String pkg = root.relativize(dir).toString().replace('\\', '/');
+            synchronized (lock) {
+                if (!visitor.visitPackage(pkg))
+                    return;
+            }
+            List<ScanTask> subTasks = new ArrayList<>();
+            List<String> classNames = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path file : stream) {
+                    // symbolic links are not followed like in DirRepository
+                    if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+                        subTasks.add(new ScanTask(file, visitor, lock, found));
+                    } else if (file.getFileName().toString().endsWith(".class")) {
+                        String name = root.relativize(file).toString().replace('\\', '/');
+                        classNames.add(name.substring(0, name.length() - ".class".length()));
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // unreadable directory is skipped like in DirRepository
+            }
+            found.addAll(classNames);
+            synchronized (lock) {
+                for (String className : classNames) {
+                    if (!className.contains("$"))
+                        visitor.visitClass(className);
+                }
+            }
+            invokeAll(subTasks);
+        }
+    }
+
+    private static class Pending {
+        // Position of the top-level class in the read order
+        final int position;
+        // Thread which started the read
+        final Thread owner;
+        final CompletableFuture<byte[]> future;
+
+        Pending(int position, Thread owner, CompletableFuture<byte[]> future) {
+            this.position = position;
+            this.owner = owner;
+            this.future = future;
+        }
+    }
+}
@@ -31,7 +31,7 @@ import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
 
@@ -44,6 +44,38 @@ public interface Repository {
 
     void visit(String rootPackage, RepositoryVisitor visitor);
 
+    /**
+     * @return jar files with the dependency classes which are not visited,
+     *         but available via type loader of this repository
+     */
+    default Stream<Path> auxiliaryJars() {
+        return Stream.empty();
+    }
+
+    /**
+     * Hints that the given classes are going to be processed in the given
+     * order, so the repository may read them in advance. Replaces the
+     * previous hint. Default implementation does nothing.
+     * 
+     * @param classNames internal names of the top-level classes in the
+     *        processing order (empty list to drop the hint)
+     */
+    default void setReadOrder(List<String> classNames) {
+        // nothing to do
+    }
+
+    /**
+     * Notifies that the current thread starts processing the class passed
+     * to {@link #setReadOrder(List)}. The classes are read in advance
+     * relative to the processed ones, so other lookups (like dependencies)
+     * do not affect the read-ahead. Default implementation does nothing.
+     * 
+     * @param className internal name of the top-level class
+     */
+    default void readingClass(String className) {
+        // nothing to do
+    }
+
     static Repository createSelfRepository() {
         List<Repository> repos = new ArrayList<>();
         Set<Path> paths = new HashSet<>();
@@ -87,7 +119,7 @@ public interface Repository {
                 if(Files.isDirectory(path)) {
                     return new DirRepository(path);
                 } else {
-                    return new JarRepository(new JarFile(path.toFile()));
+                    return new MappedJarRepository(path);
                 }
             } else {
                 return createNullRepository();
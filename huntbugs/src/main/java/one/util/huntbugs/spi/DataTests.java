@@ -43,6 +43,10 @@ import static java.lang.String.format;
 public abstract class DataTests {
 
     public static void test(String packageToAnalyze) throws Exception {
+        test(packageToAnalyze, new AnalysisOptions());
+    }
+
+    public static void test(String packageToAnalyze, AnalysisOptions options) throws Exception {
 
         // creating built-in and plugins repositories
         List<Repository> repositories = new ArrayList<>();
@@ -52,7 +56,7 @@ public abstract class DataTests {
         }
         CompositeRepository repository = new CompositeRepository(repositories);
 
-        Context ctx = new Context(repository, new AnalysisOptions());
+        Context ctx = new Context(repository, options);
         ctx.analyzePackage(packageToAnalyze);
         ctx.reportStats(System.out);
         ctx.reportErrors(System.err);
@@ -20,7 +20,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.strobel.assembler.ir.attributes.SourceAttribute;
 import com.strobel.assembler.ir.attributes.SourceFileAttribute;
@@ -48,18 +50,71 @@ public class Types {
         "java/util/Vector", "java/util/Date", "java/sql/Date", "java/sql/Timestamp", "java/awt/Point",
         "java/awt/Dimension", "java/awt/Rectangle"));
     
-    private static MetadataSystem ms = MetadataSystem.instance();
+    private static final MetadataSystem ms = MetadataSystem.instance();
 
-    public static synchronized TypeDefinition lookupJdkType(String internalName) {
-        TypeReference tr = ms.lookupType(internalName);
-        if (tr == null) {
-            throw new InternalError("Unable to lookup type " + internalName);
+    // Types resolved via shared metadata system by internal name
+    private static final Map<String, TypeDefinition> jdkTypes = new ConcurrentHashMap<>();
+
+    // Internal names of all the supertypes (including the type itself) of java.* types. Such types
+    // can be defined by bootstrap class loader only, so their hierarchy is the same in every analysis.
+    // Empty set means that the type cannot be resolved.
+    private static final Map<String, Set<String>> jdkSuperTypes = new ConcurrentHashMap<>();
+
+    public static TypeDefinition lookupJdkType(String internalName) {
+        TypeDefinition td = jdkTypes.get(internalName);
+        if (td != null)
+            return td;
+        // Metadata system is not thread-safe, so the types are resolved one at a time
+        synchronized (ms) {
+            td = jdkTypes.get(internalName);
+            if (td != null)
+                return td;
+            TypeReference tr = ms.lookupType(internalName);
+            if (tr == null) {
+                throw new InternalError("Unable to lookup type " + internalName);
+            }
+            td = tr.resolve();
+            if (td == null) {
+                throw new InternalError("Unable to resolve type " + internalName);
+            }
+            jdkTypes.put(internalName, td);
+            return td;
+        }
+    }
+
+    private static Set<String> getJdkSuperTypes(String internalName) {
+        Set<String> superTypes = jdkSuperTypes.get(internalName);
+        if (superTypes != null)
+            return superTypes;
+        synchronized (ms) {
+            superTypes = jdkSuperTypes.get(internalName);
+            if (superTypes != null)
+                return superTypes;
+            TypeReference tr = ms.lookupType(internalName);
+            TypeDefinition td = tr == null ? null : tr.resolve();
+            superTypes = new HashSet<>();
+            if (td == null || !collectSuperTypes(td, superTypes))
+                superTypes = Collections.emptySet();
+            jdkSuperTypes.put(internalName, superTypes);
+            return superTypes;
+        }
+    }
+
+    private static boolean collectSuperTypes(TypeDefinition td, Set<String> superTypes) {
+        if (!superTypes.add(td.getInternalName()))
+            return true;
+        TypeReference base = td.getBaseType();
+        if (base != null) {
+            TypeDefinition baseTd = base.resolve();
+            if (baseTd == null || !collectSuperTypes(baseTd, superTypes))
+                return false;
         }
-        TypeDefinition td = tr.resolve();
-        if (td == null) {
-            throw new InternalError("Unable to resolve type " + internalName);
+        for (TypeReference iface : td.getExplicitInterfaces()) {
+            TypeDefinition ifaceTd = iface.resolve();
+            if (ifaceTd == null || !collectSuperTypes(ifaceTd, superTypes))
+                return false;
         }
-        return td;
+        return true;
     }
 
 
@@ -94,6 +149,11 @@ public class Types {
                 return false;
             return isInstance(type.getElementType(), wantedType.substring(1));
         }
+        if (type.getInternalName().startsWith("java/")) {
+            Set<String> superTypes = getJdkSuperTypes(type.getInternalName());
+            if (!superTypes.isEmpty())
+                return superTypes.contains(wantedType);
+        }
         TypeDefinition td = type.resolve();
         if (td == null)
             return false;
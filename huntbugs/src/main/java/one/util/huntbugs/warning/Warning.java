@@ -75,6 +75,10 @@ public class Warning {
         return annotations.stream();
     }
 
+    public int getPriority() {
+        return priority;
+    }
+
     public int getScore() {
         return saturateScore(type.getMaxScore() - priority);
     }
@@ -0,0 +1,69 @@
+function toggle(e) {
+  if(/ Hidden$/.test(e.className)) {
+    e.className = e.className.substring(0, e.className.length-' Hidden'.length);
+  } else {
+    e.className += ' Hidden';
+  }
+}
+
+function updateCount(tabContent) {
+  var warnings = tabContent.getElementsByClassName("WarningsBody")[0].children;
+  var total = 0, shown = 0;
+  for(var i=0; i<warnings.length; i+=2) {
+    total++;
+    if(!/ Hidden$/.test(warnings[i].className))
+      shown++;
+  }
+  tabContent.getElementsByClassName("WarningCount")[0].innerText = shown+"/"+total;
+}
+
+var tabRecords = [];
+
+function activateTab(tab) {
+  for(var i=0; i<tabRecords.length; i++) {
+    if(tabRecords[i][0] == tab) {
+      tabRecords[i][0].className = "Tab";
+      tabRecords[i][1].className = "TabContent Active";
+    } else {
+      tabRecords[i][0].className = "Tab Inactive";
+      tabRecords[i][1].className = "TabContent";
+    }
+  }
+}
+
+function initTabs() {
+  var tabs = document.getElementsByClassName("Tab");
+
+  for(var i=0; i<tabs.length; i++) {
+    var tab = tabs[i];
+    var tabContent = document.getElementById(tab.getAttribute("data-target"));
+    tabRecords.push([tab, tabContent]);
+    (function(tab) {
+      tabs[i].addEventListener("click", function() {activateTab(tab);});
+    })(tab);
+    initTabContent(tabContent);
+  }
+  if(tabs.length > 0) {
+    activateTab(tabs[0]);
+  }
+}
+
+function initTabContent(tabContent) {
+  var rows = tabContent.getElementsByClassName("WarningRow");
+  for(var i=0; i<rows.length; i++) {
+    var btns = rows[i].getElementsByClassName("hideWarning");
+    if(btns.length == 0)
+      continue;
+    (function(clsName, btn) {
+      btn.addEventListener("click", function() {
+        var toHide = tabContent.getElementsByClassName("Warning-"+clsName);
+        for(var j=0; j<toHide.length; j++) {
+          toggle(toHide[j]);
+        }
+        updateCount(tabContent);
+      });
+    })(/Warning-(\w+)/.exec(rows[i].className)[1], btns[0]);
+  }
+}
+
+initTabs();
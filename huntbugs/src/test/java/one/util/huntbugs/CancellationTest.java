@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.input.XmlReportReader;
+import one.util.huntbugs.output.Reports;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
+
+import org.junit.Test;
+
+public class CancellationTest {
+    private static Context createContext() {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.contains("/TestN"));
+        AnalysisOptions options = new AnalysisOptions();
+        options.interprocedural = true;
+        return new Context(repo, options);
+    }
+
+    private static List<String> analyze(Context ctx) {
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        assertEquals("", ctx.errors().map(Object::toString).collect(Collectors.joining()));
+        return ctx.warnings().map(Object::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCancelByListener() {
+        List<String> expected = analyze(createContext());
+        Context ctx = createContext();
+        ctx.addListener((step, className, count, total) -> !step.equals("Analyzing classes") || count < 2);
+        List<String> warnings = analyze(ctx);
+        assertTrue(ctx.isCancelled());
+        assertEquals(1, ctx.getStat("Cancelled"));
+        assertEquals(2, ctx.getClassesCount());
+        assertTrue(expected.containsAll(warnings));
+    }
+
+    @Test
+    public void testCancelInsideClass() {
+        List<String> expected = analyze(createContext());
+        Context ctx = createContext();
+        ctx.addListener((step, className, count, total) -> {
+            if (step.equals("Analyzing classes") && count == 1)
+                ctx.getCancellation().cancel();
+            return true;
+        });
+        List<String> warnings = analyze(ctx);
+        assertTrue(ctx.isCancelled());
+        assertEquals(1, ctx.getStat("IncompleteClasses"));
+        assertTrue(warnings.size() < expected.size());
+        assertTrue(expected.containsAll(warnings));
+    }
+
+    @Test
+    public void testIncompleteReport() throws Exception {
+        Context ctx = createContext();
+        analyze(ctx);
+        assertFalse(ctx.isIncomplete());
+        Path xml = Files.createTempFile("huntbugs", ".xml");
+        Path html = Files.createTempFile("huntbugs", ".html");
+        try {
+            Reports.write(xml, html, ctx);
+            assertFalse(XmlReportReader.read(ctx, xml).isIncomplete());
+            assertFalse(new String(Files.readAllBytes(html), StandardCharsets.UTF_8).contains("class=\"Incomplete\""));
+
+            ctx = createContext();
+            ctx.addListener((step, className, count, total) -> !step.equals("Analyzing classes") || count < 2);
+            analyze(ctx);
+            assertTrue(ctx.isIncomplete());
+            Reports.write(xml, html, ctx);
+            assertTrue(XmlReportReader.read(ctx, xml).isIncomplete());
+            assertTrue(new String(Files.readAllBytes(html), StandardCharsets.UTF_8).contains("class=\"Incomplete\""));
+        } finally {
+            Files.delete(xml);
+            Files.delete(html);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import one.util.huntbugs.repo.CompositeRepository;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.repo.RepositoryVisitor;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+public class CompositeRepositoryTest {
+    private static final byte[] DATA = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1, 2, 3 };
+
+    private static class CountingRepository implements Repository {
+        final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public ITypeLoader createTypeLoader() {
+            return (internalName, buffer) -> {
+                loads.incrementAndGet();
+                if (!internalName.equals("a/A"))
+                    return false;
+                buffer.reset(DATA.length);
+                buffer.putByteArray(DATA, 0, DATA.length);
+                buffer.position(0);
+                return true;
+            };
+        }
+
+        @Override
+        public void visit(String rootPackage, RepositoryVisitor visitor) {
+        }
+    }
+
+    private static byte[] load(ITypeLoader loader, String internalName) {
+        Buffer buffer = new Buffer();
+        assertTrue(internalName, loader.tryLoadType(internalName, buffer));
+        byte[] result = new byte[buffer.size()];
+        buffer.read(result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void testSharedCache() {
+        CountingRepository counting = new CountingRepository();
+        Repository repo = new CompositeRepository(Collections.singletonList(counting));
+        assertArrayEquals(DATA, load(repo.createTypeLoader(), "a/A"));
+        // the loader created after the metadata system flush
+        ITypeLoader loader = repo.createTypeLoader();
+        assertArrayEquals(DATA, load(loader, "a/A"));
+        assertArrayEquals(DATA, load(loader, "a/A"));
+        assertEquals(1, counting.loads.get());
+        // missing classes are not cached
+        assertFalse(loader.tryLoadType("a/Missing", new Buffer()));
+        assertFalse(loader.tryLoadType("a/Missing", new Buffer()));
+        assertEquals(3, counting.loads.get());
+        // other repository content is cached separately
+        Repository other = new CompositeRepository(Collections.singletonList(counting));
+        assertArrayEquals(DATA, load(other.createTypeLoader(), "a/A"));
+        assertEquals(4, counting.loads.get());
+    }
+}
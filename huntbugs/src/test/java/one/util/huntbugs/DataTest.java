@@ -15,6 +15,7 @@
  */
 package one.util.huntbugs;
 
+import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.spi.DataTests;
 import org.junit.Test;
 
@@ -25,7 +26,10 @@ public class DataTest {
 
     @Test
     public void test() throws Exception {
-        DataTests.test("one/util/huntbugs/testdata");
+        AnalysisOptions options = new AnalysisOptions();
+        // test data covers the interprocedural method summaries as well
+        options.interprocedural = true;
+        DataTests.test("one/util/huntbugs/testdata", options);
     }
 
 }
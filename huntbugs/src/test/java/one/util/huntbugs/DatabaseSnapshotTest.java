@@ -0,0 +1,110 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import com.strobel.assembler.metadata.JarTypeLoader;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.AuxRepository;
+import one.util.huntbugs.repo.CompositeRepository;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
+
+import org.junit.Test;
+
+public class DatabaseSnapshotTest {
+    private static Context analyze(JarFile jar, Path snapshotDir, int threads) {
+        Repository repo = new CompositeRepository(Arrays.asList(new FilteredRepository(Repository
+                .createSelfRepository(), cn -> cn.contains("/TestN")), new AuxRepository(new JarTypeLoader(jar),
+                Collections.singletonList(Paths.get(jar.getName())))));
+        AnalysisOptions options = new AnalysisOptions();
+        options.snapshotDir = snapshotDir == null ? null : snapshotDir.toString();
+        options.threads = threads;
+        Context ctx = new Context(repo, options);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        return ctx;
+    }
+
+    private static List<String> warnings(Context ctx) {
+        return ctx.warnings().map(Object::toString).collect(Collectors.toList());
+    }
+
+    private static void addClass(JarOutputStream out, Class<?> clazz) throws IOException {
+        String name = clazz.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new ZipEntry(name));
+        try (InputStream is = ClassLoader.getSystemResourceAsStream(name)) {
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = is.read(buf)) > 0)
+                out.write(buf, 0, read);
+        }
+        out.closeEntry();
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        Path dir = Files.createTempDirectory("huntbugs-snapshot");
+        Path jarPath = dir.resolve("dep.jar");
+        try (OutputStream os = Files.newOutputStream(jarPath); JarOutputStream out = new JarOutputStream(os)) {
+            // Classes with identical content are also available on the boot class path
+            addClass(out, Object.class);
+            addClass(out, StringBuilder.class);
+        }
+        Path snapshotDir = dir.resolve("snapshots");
+        try (JarFile jar = new JarFile(jarPath.toFile())) {
+            List<String> expected = warnings(analyze(jar, null, 1));
+            assertFalse(expected.isEmpty());
+
+            Context ctx = analyze(jar, snapshotDir, 1);
+            assertEquals(expected, warnings(ctx));
+            assertEquals(1, ctx.getStat("DatabaseSnapshot.Created"));
+            long snapshotClasses = ctx.getStat("DatabaseSnapshot.Classes");
+            assertTrue(snapshotClasses > 0);
+
+            ctx = analyze(jar, snapshotDir, 1);
+            assertEquals(expected, warnings(ctx));
+            assertEquals(0, ctx.getStat("DatabaseSnapshot.Created"));
+            assertEquals(snapshotClasses, ctx.getStat("DatabaseSnapshot.Classes"));
+
+            ctx = analyze(jar, snapshotDir, 2);
+            assertEquals(expected, warnings(ctx));
+            assertEquals(snapshotClasses, ctx.getStat("DatabaseSnapshot.Classes"));
+        } finally {
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
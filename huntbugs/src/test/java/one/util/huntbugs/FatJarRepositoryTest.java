@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import one.util.huntbugs.repo.FatJarRepository;
+import one.util.huntbugs.repo.MappedJarRepository;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.repo.RepositoryVisitor;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+public class FatJarRepositoryTest {
+    private static final byte[] DATA = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1, 2, 3 };
+
+    private static Set<String> classes(Repository repo) {
+        Set<String> classes = new TreeSet<>();
+        repo.visit("", new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                return true;
+            }
+
+            @Override
+            public void visitClass(String className) {
+                classes.add(className);
+            }
+        });
+        return classes;
+    }
+
+    private static byte[] load(ITypeLoader loader, String internalName) {
+        Buffer buffer = new Buffer();
+        assertTrue(internalName, loader.tryLoadType(internalName, buffer));
+        byte[] result = new byte[buffer.size()];
+        buffer.read(result, 0, result.length);
+        return result;
+    }
+
+    private static void putEntry(ZipOutputStream zos, String name, byte[] data, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setCrc(crc.getValue());
+        }
+        zos.putNextEntry(entry);
+        zos.write(data);
+    }
+
+    private static byte[] jar(String... classNames) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            for (String className : classNames) {
+                putEntry(zos, className + ".class", DATA, false);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static Path createJar(String root, boolean storedLibs) throws IOException {
+        Path jar = Files.createTempFile("huntbugs", ".jar");
+        // mapped file cannot be deleted on some platforms while the mapping is alive
+        jar.toFile().deleteOnExit();
+        try (OutputStream os = Files.newOutputStream(jar); ZipOutputStream zos = new ZipOutputStream(os)) {
+            putEntry(zos, "org/springframework/boot/loader/JarLauncher.class", DATA, false);
+            putEntry(zos, root + "classes/app/App.class", DATA, false);
+            putEntry(zos, root + "classes/app/App$1.class", DATA, false);
+            putEntry(zos, root + "classes/app/application.properties", DATA, false);
+            putEntry(zos, root + "lib/first.jar", jar("lib/First", "lib/Shared"), storedLibs);
+            putEntry(zos, root + "lib/second.jar", jar("lib/Second", "lib/Shared$Inner"), storedLibs);
+            putEntry(zos, root + "lib/broken.jar", DATA, storedLibs);
+            putEntry(zos, root + "lib/nested/ignored.jar", jar("lib/Ignored"), storedLibs);
+        }
+        return jar;
+    }
+
+    private static void checkRepository(Repository repo) {
+        assertTrue(repo.toString(), repo instanceof FatJarRepository);
+        assertEquals(Collections.singleton("app/App"), classes(repo));
+        ITypeLoader loader = repo.createTypeLoader();
+        for (String name : Arrays.asList("app/App", "app/App$1", "lib/First", "lib/Shared", "lib/Second",
+            "lib/Shared$Inner")) {
+            assertArrayEquals(name, DATA, load(loader, name));
+        }
+        assertFalse(loader.tryLoadType("org/springframework/boot/loader/JarLauncher", new Buffer()));
+        assertFalse(loader.tryLoadType("lib/Ignored", new Buffer()));
+        assertFalse(loader.tryLoadType("lib/Missing", new Buffer()));
+        // nested jars are already opened by the first loader
+        assertArrayEquals(DATA, load(repo.createTypeLoader(), "lib/Second"));
+    }
+
+    @Test
+    public void testSpringBoot() throws IOException {
+        checkRepository(FatJarRepository.open(createJar("BOOT-INF/", true)));
+    }
+
+    @Test
+    public void testWebArchive() throws IOException {
+        checkRepository(FatJarRepository.open(createJar("WEB-INF/", false)));
+    }
+
+    @Test
+    public void testPlainJar() throws IOException {
+        Path jar = Files.createTempFile("huntbugs", ".jar");
+        jar.toFile().deleteOnExit();
+        Files.write(jar, jar("a/A", "a/b/B"));
+        Repository repo = FatJarRepository.open(jar);
+        assertTrue(repo.toString(), repo instanceof MappedJarRepository);
+        assertEquals(new TreeSet<>(Arrays.asList("a/A", "a/b/B")), classes(repo));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.warning.Roles;
+import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
+
+import org.junit.Test;
+
+public class InterproceduralTest {
+    private static List<String> analyze(boolean interprocedural) {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.endsWith(
+            "/TestNullCheck"));
+        AnalysisOptions options = new AnalysisOptions();
+        options.interprocedural = interprocedural;
+        Context ctx = new Context(repo, options);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        return ctx.warnings().filter(w -> w.getType().getName().equals("RedundantNullCheck")).map(w -> {
+            MemberInfo method = w.getAnnotation(Roles.METHOD);
+            return method == null ? null : method.getName();
+        }).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(new AnalysisOptions().interprocedural);
+        // the summary of the callee is necessary to prove the result is not null
+        assertFalse(analyze(false).contains("testRedundantCall"));
+        assertTrue(analyze(true).contains("testRedundantCall"));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import one.util.huntbugs.repo.JarRepository;
+import one.util.huntbugs.repo.MappedJarRepository;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.repo.RepositoryVisitor;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+public class MappedJarRepositoryTest {
+    private static Set<String> classes(Repository repo, String rootPackage, String skipPackage) {
+        Set<String> classes = new TreeSet<>();
+        repo.visit(rootPackage, new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                return !packageName.equals(skipPackage);
+            }
+
+            @Override
+            public void visitClass(String className) {
+                classes.add(className);
+            }
+        });
+        return classes;
+    }
+
+    private static byte[] load(ITypeLoader loader, String internalName) {
+        Buffer buffer = new Buffer();
+        assertTrue(internalName, loader.tryLoadType(internalName, buffer));
+        byte[] result = new byte[buffer.size()];
+        buffer.read(result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void testSameAsJarRepository() throws Exception {
+        Path jar = Paths.get(ITypeLoader.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        MappedJarRepository mapped = new MappedJarRepository(jar);
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            JarRepository plain = new JarRepository(jarFile);
+            Set<String> all = classes(plain, "", null);
+            assertFalse(all.isEmpty());
+            assertEquals(all, classes(mapped, "", null));
+            assertEquals(classes(plain, "com/strobel/assembler", null), classes(mapped, "com/strobel/assembler",
+                null));
+            Set<String> noMetadata = classes(mapped, "com/strobel/assembler", "com/strobel/assembler/metadata");
+            assertFalse(noMetadata.contains("com/strobel/assembler/metadata/Buffer"));
+            assertFalse(noMetadata.contains("com/strobel/assembler/metadata/signatures/Reifier"));
+            assertTrue(noMetadata.contains("com/strobel/assembler/ir/Instruction"));
+
+            ITypeLoader plainLoader = plain.createTypeLoader();
+            ITypeLoader mappedLoader = mapped.createTypeLoader();
+            for (String name : new String[] { "com/strobel/assembler/metadata/Buffer",
+                    "com/strobel/decompiler/ast/AstBuilder", "com/strobel/decompiler/ast/AstCode$1" }) {
+                assertArrayEquals(name, load(plainLoader, name), load(mappedLoader, name));
+            }
+            assertFalse(mappedLoader.tryLoadType("com/strobel/Missing", new Buffer()));
+        }
+    }
+
+    @Test
+    public void testStoredWithPrefix() throws IOException {
+        Path jar = Files.createTempFile("huntbugs", ".jar");
+        // mapped file cannot be deleted on some platforms while the mapping is alive
+        jar.toFile().deleteOnExit();
+        byte[] data = { (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1, 2, 3 };
+        try (OutputStream os = Files.newOutputStream(jar)) {
+            // launch script of the executable jar
+            os.write("#!/bin/sh\nexit 0\n".getBytes("ASCII"));
+            ZipOutputStream zos = new ZipOutputStream(os);
+            ZipEntry stored = new ZipEntry("a/b/Stored.class");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(data.length);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            stored.setCrc(crc.getValue());
+            zos.putNextEntry(stored);
+            zos.write(data);
+            zos.putNextEntry(new ZipEntry("a/b/c/Deflated.class"));
+            zos.write(data);
+            zos.putNextEntry(new ZipEntry("a/b/Stored$Inner.class"));
+            zos.write(data);
+            // uncompressed entry is larger than the whole archive
+            zos.putNextEntry(new ZipEntry("a/b/c/Large$1.class"));
+            zos.write(new byte[100000]);
+            zos.putNextEntry(new ZipEntry("a/b/readme.txt"));
+            zos.finish();
+        }
+        MappedJarRepository repo = new MappedJarRepository(jar);
+        List<String> expected = new ArrayList<>();
+        expected.add("a/b/Stored");
+        expected.add("a/b/c/Deflated");
+        assertEquals(new TreeSet<>(expected), classes(repo, "a", null));
+        assertEquals(new TreeSet<>(expected.subList(0, 1)), classes(repo, "a/b", "a/b/c"));
+        assertTrue(classes(repo, "a/bb", null).isEmpty());
+        ITypeLoader loader = repo.createTypeLoader();
+        assertArrayEquals(data, load(loader, "a/b/Stored"));
+        assertArrayEquals(data, load(loader, "a/b/c/Deflated"));
+        assertArrayEquals(data, load(loader, "a/b/Stored$Inner"));
+        assertArrayEquals(new byte[100000], load(loader, "a/b/c/Large$1"));
+    }
+}
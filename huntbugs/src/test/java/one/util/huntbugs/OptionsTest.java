@@ -31,7 +31,11 @@ public class OptionsTest {
         assertTrue(opt.addBootClassPath);
         opt.set("minScore", "40");
         opt.set("addBootClassPath", "False");
+        opt.set("threads", "4");
+        opt.set("methodThreads", "2");
         assertEquals(40, opt.minScore);
+        assertEquals(4, opt.threads);
+        assertEquals(2, opt.methodThreads);
         assertFalse(opt.addBootClassPath);
     }
 }
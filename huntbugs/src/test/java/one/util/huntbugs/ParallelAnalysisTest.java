@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
+
+import org.junit.Test;
+
+public class ParallelAnalysisTest {
+    private static List<String> analyze(int threads) {
+        AnalysisOptions options = new AnalysisOptions();
+        options.threads = threads;
+        return analyze(options);
+    }
+
+    private static List<String> analyze(AnalysisOptions options) {
+        options.classesPerFlush = 3;
+        return warnings(run(options));
+    }
+
+    private static Context run(AnalysisOptions options) {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.contains("/TestN"));
+        options.interprocedural = true;
+        Context ctx = new Context(repo, options);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        assertEquals("", ctx.errors().map(Object::toString).collect(Collectors.joining()));
+        return ctx;
+    }
+
+    private static List<String> warnings(Context ctx) {
+        return ctx.warnings().map(Object::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSameWarnings() {
+        List<String> expected = analyze(1);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, analyze(4));
+    }
+
+    @Test
+    public void testSameWarningsMethodThreads() {
+        List<String> expected = analyze(1);
+        AnalysisOptions options = new AnalysisOptions();
+        options.methodThreads = 4;
+        options.minParallelMethods = 1;
+        assertEquals(expected, analyze(options));
+        options = new AnalysisOptions();
+        options.threads = 2;
+        options.methodThreads = 2;
+        options.minParallelMethods = 1;
+        assertEquals(expected, analyze(options));
+    }
+
+    @Test
+    public void testFlushKeepsPinnedTypes() {
+        List<String> expected = analyze(1);
+        AnalysisOptions options = new AnalysisOptions();
+        Context adaptive = run(options);
+        assertEquals(expected, warnings(adaptive));
+
+        options = new AnalysisOptions();
+        options.classesPerFlush = 1;
+        Context flushing = run(options);
+        assertEquals(expected, warnings(flushing));
+        assertTrue(flushing.getStat("MetadataFlushes") > 0);
+        // JDK types are not loaded again after flush
+        long loaded = adaptive.getStat("ClassLoadingEfficiency.Total");
+        assertTrue(flushing.getStat("ClassLoadingEfficiency.Total") < loaded * 11 / 10);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import one.util.huntbugs.repo.DirRepository;
+import one.util.huntbugs.repo.ParallelDirRepository;
+import one.util.huntbugs.repo.Repository;
+import one.util.huntbugs.repo.RepositoryVisitor;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.Buffer;
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.ITypeLoader;
+
+public class ParallelDirRepositoryTest {
+    private static Set<String> classes(Repository repo, String rootPackage, String skipPackage) {
+        Set<String> classes = new TreeSet<>();
+        repo.visit(rootPackage, new RepositoryVisitor() {
+            @Override
+            public boolean visitPackage(String packageName) {
+                return !packageName.equals(skipPackage);
+            }
+
+            @Override
+            public void visitClass(String className) {
+                classes.add(className);
+            }
+        });
+        return classes;
+    }
+
+    private static byte[] load(ITypeLoader loader, String internalName) {
+        Buffer buffer = new Buffer();
+        assertTrue(internalName, loader.tryLoadType(internalName, buffer));
+        byte[] result = new byte[buffer.size()];
+        buffer.read(result, 0, result.length);
+        return result;
+    }
+
+    @Test
+    public void testSameAsDirRepository() throws Exception {
+        Path root = Paths.get(ParallelDirRepositoryTest.class.getProtectionDomain().getCodeSource().getLocation()
+                .toURI());
+        DirRepository plain = new DirRepository(root);
+        ParallelDirRepository parallel = new ParallelDirRepository(root, 4);
+        ITypeLoader plainLoader = new ClasspathTypeLoader(root.toString());
+        ITypeLoader parallelLoader = parallel.createTypeLoader();
+        // loaded synchronously before the visit
+        String self = ParallelDirRepositoryTest.class.getName().replace('.', '/');
+        assertArrayEquals(load(plainLoader, self), load(parallelLoader, self));
+
+        Set<String> testdata = classes(plain, "one/util/huntbugs/testdata", null);
+        assertFalse(testdata.isEmpty());
+        assertEquals(testdata, classes(parallel, "one/util/huntbugs/testdata", null));
+        assertEquals(classes(plain, "", "one/util/huntbugs/testdata"), classes(parallel, "",
+            "one/util/huntbugs/testdata"));
+        assertTrue(classes(parallel, "one/util/huntbugs/missing", null).isEmpty());
+
+        List<String> names = new ArrayList<>(testdata);
+        parallel.setReadOrder(names);
+        // hinted order read ahead with dependency lookups and skipped classes
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (i % 7 == 3)
+                continue;
+            parallel.readingClass(name);
+            assertArrayEquals(name, load(plainLoader, name), load(parallelLoader, name));
+            String dep = names.get(names.size() - 1 - i);
+            assertArrayEquals(dep, load(plainLoader, dep), load(parallelLoader, dep));
+        }
+        // jumps back and forth with another loader
+        ITypeLoader otherLoader = parallel.createTypeLoader();
+        List<String> requests = new ArrayList<>(names);
+        Collections.reverse(names);
+        requests.addAll(names.subList(0, Math.min(names.size(), 10)));
+        requests.add(self);
+        requests.addAll(requests.subList(0, 5));
+        for (String name : requests) {
+            parallel.readingClass(name);
+            assertArrayEquals(name, load(plainLoader, name), load(otherLoader, name));
+        }
+        parallel.setReadOrder(Collections.emptyList());
+        assertFalse(parallelLoader.tryLoadType("one/util/huntbugs/testdata/Missing", new Buffer()));
+        assertFalse(parallelLoader.tryLoadType("one/util/huntbugs/Missing", new Buffer()));
+    }
+
+    @Test
+    public void testUnreadable() throws Exception {
+        Path root = Files.createTempDirectory("huntbugs-dir");
+        try {
+            // link to the directory which looks like a class file
+            Files.createDirectories(root.resolve("a"));
+            Files.createSymbolicLink(root.resolve("a/B.class"), root);
+            ParallelDirRepository repo = new ParallelDirRepository(root, 2);
+            assertEquals(Collections.singleton("a/B"), classes(repo, "a", null));
+            repo.setReadOrder(Collections.singletonList("a/B"));
+            repo.readingClass("a/B");
+            assertFalse(repo.createTypeLoader().tryLoadType("a/B", new Buffer()));
+        } finally {
+            Files.delete(root.resolve("a/B.class"));
+            Files.delete(root.resolve("a"));
+            Files.delete(root);
+        }
+    }
+}
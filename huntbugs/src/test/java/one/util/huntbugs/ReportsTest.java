@@ -17,8 +17,15 @@ package one.util.huntbugs;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -28,7 +35,12 @@ import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.analysis.Context;
 import one.util.huntbugs.analysis.ErrorMessage;
 import one.util.huntbugs.analysis.HuntBugsResult;
+import one.util.huntbugs.analysis.Timings;
+import one.util.huntbugs.input.XmlReportReader;
 import one.util.huntbugs.output.Reports;
+import one.util.huntbugs.output.StreamingHtmlReportWriter;
+import one.util.huntbugs.output.StreamingXmlReportWriter;
+import one.util.huntbugs.repo.FilteredRepository;
 import one.util.huntbugs.repo.Repository;
 import one.util.huntbugs.warning.Roles;
 import one.util.huntbugs.warning.Warning;
@@ -113,4 +125,112 @@ public class ReportsTest {
             w -> w.getClassName().equals("test.type2") && w.getType().getName().equals("RoughConstantValue")).map(
             Warning::getStatus).findFirst());
     }
+
+    @Test
+    public void testStreamingXml() throws Exception {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.contains("/TestN"));
+        Context ctx = new Context(repo, new AnalysisOptions());
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        Path xml = Files.createTempFile("huntbugs", ".xml");
+        List<String> expected;
+        try {
+            Reports.write(xml, null, ctx);
+            expected = XmlReportReader.read(ctx, xml).warnings().map(Object::toString).sorted().collect(Collectors
+                    .toList());
+        } finally {
+            Files.delete(xml);
+        }
+        assertEquals(ctx.warnings().count(), expected.size());
+        assertFalse(expected.isEmpty());
+
+        Context streamCtx = new Context(repo, new AnalysisOptions());
+        StringWriter sw = new StringWriter();
+        StreamingXmlReportWriter writer = new StreamingXmlReportWriter(sw, streamCtx.getMessages());
+        streamCtx.setWarningSink(writer);
+        streamCtx.addError(new ErrorMessage("detector", "cls", "member", "desc", -1, "Error ]]> message"));
+        streamCtx.analyzePackage("one/util/huntbugs/testdata");
+        writer.finish(streamCtx.errors());
+        assertEquals(0, streamCtx.warnings().count());
+
+        HuntBugsResult result = XmlReportReader.read(ctx, new ByteArrayInputStream(sw.toString().getBytes(
+            StandardCharsets.UTF_8)));
+        assertEquals(expected, result.warnings().map(Object::toString).sorted().collect(Collectors.toList()));
+        assertEquals(Optional.of("Error ]]> message"), result.errors().map(ErrorMessage::getError).findFirst());
+    }
+
+    private static int count(String text, String substring) {
+        int count = 0;
+        for (int pos = text.indexOf(substring); pos >= 0; pos = text.indexOf(substring, pos + 1))
+            count++;
+        return count;
+    }
+
+    @Test
+    public void testStreamingHtml() throws Exception {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.contains("/TestN"));
+        Context ctx = new Context(repo, new AnalysisOptions());
+        ctx.addError(new ErrorMessage("detector", "cls", "member", "desc", -1, "Error <message>"));
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        long warnings = ctx.warnings().count();
+        assertTrue(warnings > 1);
+        Path dir = Files.createTempDirectory("huntbugs");
+        Path html = dir.resolve("report.html");
+        try {
+            new StreamingHtmlReportWriter(html, ctx.getMessages()).write(ctx);
+            String content = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+            assertTrue(content.contains("id=\"warnings-all\""));
+            assertTrue(content.contains("All warnings (" + warnings + ")"));
+            assertEquals(warnings * 2, count(content, "<tr class=\"WarningRow "));
+            assertTrue(content.contains("Error &lt;message&gt;"));
+            assertFalse(Files.exists(dir.resolve("report")));
+
+            new StreamingHtmlReportWriter(html, ctx.getMessages(), 1).write(ctx);
+            String index = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+            assertTrue(index.contains("Packages (1)"));
+            assertTrue(index.contains("href=\"report/one.util.huntbugs.testdata.html\""));
+            assertTrue(index.contains("Error &lt;message&gt;"));
+            assertEquals(0, count(index, "<tr class=\"WarningRow "));
+            String page = new String(Files.readAllBytes(dir.resolve("report/one.util.huntbugs.testdata.html")),
+                    StandardCharsets.UTF_8);
+            assertEquals(warnings * 2, count(page, "<tr class=\"WarningRow "));
+            assertTrue(page.contains("href=\"../report.html\""));
+        } finally {
+            Files.walk(dir).sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testTimings() throws Exception {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.contains("/TestN"));
+        AnalysisOptions options = new AnalysisOptions();
+        options.timing = true;
+        options.methodThreads = 2;
+        options.minParallelMethods = 1;
+        Context ctx = new Context(repo, options);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        Timings timings = ctx.getTimings();
+        assertNotNull(timings);
+        List<String> phases = timings.getPhases().stream().map(Timings.Entry::getName).collect(Collectors.toList());
+        assertTrue(phases.toString(), phases.containsAll(Arrays.asList(Timings.AST_BUILD, Timings.CFG, "Inf.NULL",
+            "Inf.BACKLINK")));
+        assertTrue(timings.getDetectors().stream().anyMatch(e -> e.getCount() > 0));
+        assertFalse(timings.getSlowestClasses().isEmpty());
+        assertFalse(timings.getSlowestMethods().isEmpty());
+        assertNull(new Context(repo, new AnalysisOptions()).getTimings());
+
+        Path xml = Files.createTempFile("huntbugs", ".xml");
+        Path html = Files.createTempFile("huntbugs", ".html");
+        try {
+            Reports.write(xml, html, ctx);
+            String xmlContent = new String(Files.readAllBytes(xml), StandardCharsets.UTF_8);
+            assertTrue(xmlContent.contains("<Timings>"));
+            assertTrue(xmlContent.contains("<SlowMethod "));
+            assertEquals(ctx.warnings().count(), XmlReportReader.read(ctx, xml).warnings().count());
+            String htmlContent = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+            assertTrue(htmlContent.contains("id=\"timings\""));
+        } finally {
+            Files.delete(xml);
+            Files.delete(html);
+        }
+    }
 }
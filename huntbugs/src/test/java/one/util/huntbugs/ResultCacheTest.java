@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.DirRepository;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
+
+import org.junit.Test;
+
+public class ResultCacheTest {
+    private static Context analyze(Path cacheDir, int minScore) {
+        return analyze(cacheDir, minScore, cn -> cn.contains("/TestN"));
+    }
+
+    private static Context analyze(Path cacheDir, int minScore, Predicate<String> filter) {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), filter);
+        AnalysisOptions options = new AnalysisOptions();
+        options.cacheDir = cacheDir.toString();
+        options.minScore = minScore;
+        Context ctx = new Context(repo, options);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        return ctx;
+    }
+
+    private static List<String> warnings(Context ctx) {
+        return ctx.warnings().map(Object::toString).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCache() throws IOException {
+        Path cacheDir = Files.createTempDirectory("huntbugs-cache");
+        try {
+            Context ctx = analyze(cacheDir, 1);
+            List<String> expected = warnings(ctx);
+            assertFalse(expected.isEmpty());
+            assertEquals(0, ctx.getStat("ResultCache"));
+            assertEquals(ctx.getClassesCount(), ctx.getStat("ResultCache.Total"));
+
+            ctx = analyze(cacheDir, 1);
+            assertEquals(expected, warnings(ctx));
+            assertEquals(ctx.getClassesCount(), ctx.getStat("ResultCache"));
+
+            // Changed options invalidate the cache
+            ctx = analyze(cacheDir, 2);
+            assertEquals(0, ctx.getStat("ResultCache"));
+
+            // Changed set of classes databases are populated from keeps the
+            // results which don't depend on the removed classes
+            Path emptyDir = Files.createTempDirectory("huntbugs-cache");
+            try {
+                ctx = analyze(cacheDir, 2, cn -> cn.contains("/TestNull"));
+                assertTrue(ctx.getClassesCount() > 0);
+                assertEquals(sorted(warnings(analyze(emptyDir, 2, cn -> cn.contains("/TestNull")))),
+                    sorted(warnings(ctx)));
+            } finally {
+                delete(emptyDir);
+            }
+        } finally {
+            delete(cacheDir);
+        }
+    }
+
+    @Test
+    public void testChangedClass() throws Exception {
+        Path cacheDir = Files.createTempDirectory("huntbugs-cache");
+        Path classesDir = Files.createTempDirectory("huntbugs-classes");
+        try {
+            Path source = Paths.get(ResultCacheTest.class.getResource("testdata").toURI());
+            Path target = classesDir.resolve("one/util/huntbugs/testdata");
+            Files.createDirectories(target);
+            try (Stream<Path> paths = Files.list(source)) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    if (path.getFileName().toString().startsWith("TestN"))
+                        Files.copy(path, target.resolve(path.getFileName()));
+                }
+            }
+            Context ctx = analyze(cacheDir, new DirRepository(classesDir));
+            assertEquals(0, ctx.getStat("ResultCache"));
+
+            // Change the string constant in the method body
+            Path changed = target.resolve("TestNullCheck.class");
+            byte[] bytes = Files.readAllBytes(changed);
+            byte[] from = "\1\0\6Bigger".getBytes(StandardCharsets.ISO_8859_1);
+            byte[] to = "\1\0\6Larger".getBytes(StandardCharsets.ISO_8859_1);
+            int pos = indexOf(bytes, from);
+            assertTrue(pos >= 0);
+            System.arraycopy(to, 0, bytes, pos, to.length);
+            Files.write(changed, bytes);
+
+            ctx = analyze(cacheDir, new DirRepository(classesDir));
+            assertEquals(ctx.getClassesCount() - 1, ctx.getStat("ResultCache"));
+            Path emptyDir = Files.createTempDirectory("huntbugs-cache");
+            try {
+                assertEquals(sorted(warnings(analyze(emptyDir, new DirRepository(classesDir)))),
+                    sorted(warnings(ctx)));
+            } finally {
+                delete(emptyDir);
+            }
+        } finally {
+            delete(cacheDir);
+            delete(classesDir);
+        }
+    }
+
+    private static Context analyze(Path cacheDir, Repository repo) {
+        AnalysisOptions options = new AnalysisOptions();
+        options.cacheDir = cacheDir.toString();
+        Context ctx = new Context(repo, options);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        return ctx;
+    }
+
+    private static List<String> sorted(List<String> list) {
+        list.sort(null);
+        return list;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] sub) {
+        outer: for (int i = 0; i <= bytes.length - sub.length; i++) {
+            for (int j = 0; j < sub.length; j++) {
+                if (bytes[i + j] != sub[j])
+                    continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
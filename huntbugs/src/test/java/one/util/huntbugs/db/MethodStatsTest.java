@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.db;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.TypeDefinition;
+
+import one.util.huntbugs.db.MethodStats.MethodData;
+import one.util.huntbugs.warning.WarningAnnotation.MemberInfo;
+
+public class MethodStatsTest {
+    private static final MetadataSystem ms = new MetadataSystem(new ClasspathTypeLoader());
+
+    private static MethodStats visit(Class<?>... classes) {
+        MethodStats stats = new MethodStats();
+        for (Class<?> cls : classes) {
+            TypeDefinition td = ms.lookupType(cls.getName().replace('.', '/')).resolve();
+            stats.visitType(td);
+        }
+        return stats;
+    }
+
+    private static MethodStats merge(MethodStats... shards) {
+        MethodStats stats = new MethodStats();
+        for (MethodStats shard : shards) {
+            stats.merge(shard);
+        }
+        return stats;
+    }
+
+    private static void assertSameStats(MethodStats expected, MethodStats actual) {
+        assertEquals(expected.data.keySet(), actual.data.keySet());
+        for (MemberInfo mi : expected.data.keySet()) {
+            MethodData expectedData = expected.data.get(mi);
+            MethodData actualData = actual.data.get(mi);
+            assertEquals(mi.toString(), expectedData.flags, actualData.flags);
+            assertEquals(mi.toString(), subMethodFlags(expectedData), subMethodFlags(actualData));
+            // Abstract methods share the data with their super methods
+            for (MemberInfo other : expected.data.keySet()) {
+                assertEquals(mi + " vs " + other, expectedData == expected.data.get(other),
+                    actualData == actual.data.get(other));
+            }
+        }
+    }
+
+    private static long subMethodFlags(MethodData mdata) {
+        return mdata.getSubMethodFlags(Collections.newSetFromMap(new IdentityHashMap<MethodData, Boolean>()));
+    }
+
+    @Test
+    public void testMergeAbstractOverrides() {
+        MethodStats sequential = visit(Service.class, Abstract.class, Impl.class, OtherImpl.class);
+        Map<MemberInfo, MethodData> data = sequential.data;
+        assertSame(data.get(new MemberInfo(Service.class.getName().replace('.', '/'), "run", "()V")), data.get(
+            new MemberInfo(Abstract.class.getName().replace('.', '/'), "run", "()V")));
+
+        // Super method already exists in the main database
+        assertSameStats(sequential, merge(visit(Service.class, OtherImpl.class), visit(Abstract.class, Impl.class)));
+        // Abstract method comes from the shard together with its super method
+        assertSameStats(sequential, merge(visit(Impl.class), visit(Abstract.class, Service.class, OtherImpl.class)));
+        assertSameStats(sequential, merge(visit(Abstract.class), visit(OtherImpl.class), visit(Impl.class), visit(
+            Service.class)));
+    }
+
+    interface Service {
+        void run();
+    }
+
+    static abstract class Abstract implements Service {
+        @Override
+        public abstract void run();
+    }
+
+    static class Impl extends Abstract {
+        @Override
+        public void run() {
+            System.out.println();
+        }
+    }
+
+    static class OtherImpl implements Service {
+        @Override
+        public void run() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import one.util.huntbugs.analysis.Context;
+
+/**
+ * Access to the package-private parts of the values flow for the benchmarks
+ */
+public final class FlowTestSupport {
+    private FlowTestSupport() {
+    }
+
+    /**
+     * Builds a single fact for the method, see
+     * {@link ValuesFlow#annotate(Context, ClassFields, CFG, Fact)}
+     */
+    public static void annotate(Context ctx, ClassFields cf, CFG cfg, Fact fact) {
+        ValuesFlow.annotate(ctx, cf, cfg, fact);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class TestDominators {
+    @Test
+    public void testDiamondWithLoop() {
+        // 0 -> 1 -> {2, 3} -> 4 -> {1, 5}; 6 is unreachable
+        int[][] graph = { { 1 }, { 2, 3 }, { 4 }, { 4 }, { 1, 5 }, {}, { 5 } };
+        Dominators doms = new Dominators(graph, 0);
+        assertEquals(0, doms.getImmediateDominator(0));
+        assertEquals(0, doms.getImmediateDominator(1));
+        assertEquals(1, doms.getImmediateDominator(2));
+        assertEquals(1, doms.getImmediateDominator(3));
+        assertEquals(1, doms.getImmediateDominator(4));
+        assertEquals(4, doms.getImmediateDominator(5));
+        assertEquals(-1, doms.getImmediateDominator(6));
+        assertTrue(doms.dominates(1, 5));
+        assertTrue(doms.dominates(4, 4));
+        assertFalse(doms.dominates(2, 4));
+        assertFalse(doms.dominates(5, 4));
+        assertFalse(doms.dominates(0, 6));
+        assertFalse(doms.isReachable(6));
+    }
+
+    @Test
+    public void testIrreducible() {
+        // 0 -> {1, 2}, 1 <-> 2, both -> 3
+        int[][] graph = { { 1, 2 }, { 2, 3 }, { 1, 3 }, {} };
+        Dominators doms = new Dominators(graph, 0);
+        for (int i = 1; i < 4; i++) {
+            assertEquals(0, doms.getImmediateDominator(i));
+            assertTrue(doms.dominates(0, i));
+        }
+        assertFalse(doms.dominates(1, 2));
+        assertFalse(doms.dominates(2, 1));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.strobel.decompiler.ast.AstCode;
+import com.strobel.decompiler.ast.Expression;
+
+import one.util.huntbugs.flow.PurityAnnotator.Purity;
+
+public class TestFactStore {
+    @Test
+    public void testStore() {
+        List<Expression> exprs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            exprs.add(new Expression(AstCode.LdC, i, i));
+        }
+        FactStore parent = new FactStore(null);
+        FactStore store = new FactStore(parent);
+        FactStore prev = FactStore.activate(parent);
+        try {
+            Inf.PURITY.put(exprs.get(0), Purity.CONST);
+            Inf.CONST.put(exprs.get(1), 1);
+            assertEquals(2, parent.size());
+            FactStore.activate(store);
+            assertEquals(Purity.CONST, Inf.PURITY.get(exprs.get(0)));
+            // known expression is updated in the parent store
+            Inf.PURITY.put(exprs.get(0), Purity.SIDE_EFFECT_FREE);
+            for (int i = 0; i < exprs.size(); i++) {
+                Inf.PURITY.put(exprs.get(i), Purity.values()[i % Purity.values().length]);
+                Inf.CONST.putIfAbsent(exprs.get(i), -i);
+            }
+            assertEquals(2, parent.size());
+            assertEquals(998, store.size());
+            for (int i = 0; i < exprs.size(); i++) {
+                assertEquals(Purity.values()[i % Purity.values().length], Inf.PURITY.get(exprs.get(i)));
+                assertEquals(i == 1 ? 1 : -i, Inf.CONST.get(exprs.get(i)));
+            }
+            Inf.CONST.remove(exprs.get(2));
+            assertNull(Inf.CONST.get(exprs.get(2)));
+            FactStore.activate(null);
+            assertEquals(Purity.HEAP_MOD, Inf.PURITY.get(exprs.get(0)));
+            assertEquals("{}", Annotators.facts(exprs.get(1)));
+            FactStore.activate(parent);
+            assertEquals(Purity.values()[0], Inf.PURITY.get(exprs.get(0)));
+            assertNull(Inf.CONST.get(exprs.get(5)));
+        } finally {
+            FactStore.activate(prev);
+        }
+    }
+}
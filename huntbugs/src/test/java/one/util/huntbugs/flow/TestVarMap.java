@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.flow;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.strobel.decompiler.ast.Variable;
+
+public class TestVarMap {
+    private static Variable[] variables(int count) {
+        Variable[] vars = new Variable[count];
+        for (int i = 0; i < count; i++) {
+            vars[i] = new Variable();
+            vars[i].setName("v" + i);
+        }
+        return vars;
+    }
+
+    private static void checkContent(Map<Variable, Integer> expected, VarMap<Integer> actual, Variable[] vars) {
+        assertEquals(expected.size(), actual.size());
+        for (Variable var : vars) {
+            assertEquals(expected.get(var), actual.get(var));
+        }
+        Map<Variable, Integer> copy = new IdentityHashMap<>();
+        actual.forEach(copy::put);
+        assertEquals(expected, copy);
+    }
+
+    @Test
+    public void testPutRemove() {
+        Variable[] vars = variables(200);
+        Random r = new Random(1);
+        Map<Variable, Integer> expected = new IdentityHashMap<>();
+        VarMap<Integer> map = VarMap.empty();
+        for (int i = 0; i < 5000; i++) {
+            Variable var = vars[r.nextInt(vars.length)];
+            VarMap<Integer> prev = map;
+            if (r.nextInt(3) == 0) {
+                expected.remove(var);
+                map = map.remove(var);
+            } else {
+                Integer value = r.nextInt(10);
+                expected.put(var, value);
+                map = map.put(var, value);
+            }
+            checkContent(expected, map, vars);
+            assertEquals(prev.equals(map), prev.hashCode() == map.hashCode() && prev.matches(map, Objects::equals));
+        }
+        assertTrue(map.put(vars[0], null).equals(map.remove(vars[0])));
+    }
+
+    @Test
+    public void testMergeAndEquals() {
+        Variable[] vars = variables(100);
+        Random r = new Random(2);
+        VarMap<Integer> base = VarMap.empty();
+        for (Variable var : vars) {
+            if (r.nextBoolean())
+                base = base.put(var, r.nextInt(5));
+        }
+        for (int i = 0; i < 200; i++) {
+            VarMap<Integer> left = base, right = base;
+            for (int j = r.nextInt(10); j >= 0; j--) {
+                left = r.nextBoolean() ? left.put(vars[r.nextInt(vars.length)], r.nextInt(5)) : left.remove(vars[r
+                        .nextInt(vars.length)]);
+                right = r.nextBoolean() ? right.put(vars[r.nextInt(vars.length)], r.nextInt(5)) : right.remove(vars[r
+                        .nextInt(vars.length)]);
+            }
+            Map<Variable, Integer> expected = new HashMap<>();
+            for (Variable var : vars) {
+                Integer lv = left.get(var), rv = right.get(var);
+                if (Objects.equals(lv, rv) && lv != null)
+                    expected.put(var, lv);
+            }
+            VarMap<Integer> merged = left.merge(right, (var, lv, rv) -> Objects.equals(lv, rv) ? lv : null);
+            checkContent(expected, merged, vars);
+            assertEquals(merged, right.merge(left, (var, lv, rv) -> Objects.equals(lv, rv) ? lv : null));
+            assertEquals(merged.hashCode(), expected.entrySet().stream().mapToInt(
+                e -> System.identityHashCode(e.getKey()) ^ e.getValue()).sum());
+        }
+        assertTrue(base == base.merge(base, (var, lv, rv) -> null));
+        assertEquals(base, base.replaceValues(v -> v + 1).replaceValues(v -> v - 1));
+    }
+}
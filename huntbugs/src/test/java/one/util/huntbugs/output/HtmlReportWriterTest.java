@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.output;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import one.util.huntbugs.analysis.AnalysisOptions;
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.repo.FilteredRepository;
+import one.util.huntbugs.repo.Repository;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class HtmlReportWriterTest {
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testSameAsStreaming() throws Exception {
+        Repository repo = new FilteredRepository(Repository.createSelfRepository(), cn -> cn.contains("/TestN"));
+        AnalysisOptions options = new AnalysisOptions();
+        options.timing = true;
+        Context ctx = new Context(repo, options);
+        ctx.addListener((step, className, count, total) -> !step.equals("Analyzing classes") || count < 5);
+        ctx.analyzePackage("one/util/huntbugs/testdata");
+        assertTrue(ctx.isIncomplete());
+        Path xml = Files.createTempFile("huntbugs", ".xml");
+        Path html = Files.createTempFile("huntbugs", ".html");
+        try {
+            Reports.write(xml, html, ctx);
+            Document dom = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(xml.toFile());
+            StringWriter sw = new StringWriter();
+            new HtmlReportWriter(sw).write(dom);
+            String expected = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+            assertTrue(expected.contains("WarningRow"));
+            assertTrue(expected.contains("id=\"timings\""));
+            assertEquals(expected, sw.toString());
+        } finally {
+            Files.delete(xml);
+            Files.delete(html);
+        }
+    }
+}
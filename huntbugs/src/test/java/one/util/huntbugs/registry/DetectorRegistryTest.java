@@ -15,8 +15,21 @@
  */
 package one.util.huntbugs.registry;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.strobel.assembler.metadata.ClasspathTypeLoader;
+import com.strobel.assembler.metadata.MetadataSystem;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+import com.strobel.decompiler.ast.Expression;
+
 import one.util.huntbugs.analysis.AnalysisOptions;
 import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.registry.anno.AstNodes;
+import one.util.huntbugs.registry.anno.AstVisitor;
+import one.util.huntbugs.registry.anno.MethodVisitor;
+import one.util.huntbugs.registry.anno.VisitOrder;
 import one.util.huntbugs.registry.anno.WarningDefinition;
 import one.util.huntbugs.repo.Repository;
 import org.junit.Before;
@@ -55,6 +68,29 @@ public class DetectorRegistryTest {
         assertEquals(WARNINGS, getWarnings());
     }
 
+    @Test
+    public void budgetExhausted() {
+        assertTrue(analyzeLoops(0));
+        assertEquals(0, context.getStat("Budget.Exhausted/ValuesFlow"));
+        setUp();
+        assertFalse(analyzeLoops(1));
+        assertTrue(context.getStat("Budget.Exhausted/ValuesFlow") > 0);
+    }
+
+    private boolean analyzeLoops(int methodBudget) {
+        context.getOptions().methodBudget = methodBudget;
+        assertTrue(detectorRegistry.addDetector(FullyAnalyzedDetector.class));
+        TypeDefinition td = new MetadataSystem(new ClasspathTypeLoader()).lookupType(
+            "one/util/huntbugs/registry/DetectorRegistryTest$Loops").resolve();
+        DatabaseRegistry.Shard shard = detectorRegistry.createDatabaseShard();
+        detectorRegistry.populateDatabases(shard, td);
+        detectorRegistry.mergeDatabases(shard);
+        detectorRegistry.completeDatabases(null);
+        FullyAnalyzedDetector.analyzed.clear();
+        detectorRegistry.analyzeClass(td);
+        return FullyAnalyzedDetector.analyzed.get("sum");
+    }
+
     private long getWarnings() {
         return context.getStat("WarningTypes.Total");
     }
@@ -65,4 +101,30 @@ public class DetectorRegistryTest {
 
     }
 
+    @WarningDefinition(category="DetectorRegistryTest", name="FullyAnalyzed", maxScore=80)
+    public static class FullyAnalyzedDetector {
+        static final Map<String, Boolean> analyzed = new ConcurrentHashMap<>();
+
+        @AstVisitor(nodes=AstNodes.EXPRESSIONS)
+        public void visit(Expression expr) {
+            // requests all the facts
+        }
+
+        @MethodVisitor(order=VisitOrder.AFTER)
+        public void checkAnalyzed(MethodContext mc, MethodDefinition md) {
+            analyzed.put(md.getName(), mc.isFullyAnalyzed());
+        }
+    }
+
+    static class Loops {
+        int sum(int[] data) {
+            int sum = 0;
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] > 0)
+                    sum += data[i];
+            }
+            return sum;
+        }
+    }
+
 }
\ No newline at end of file
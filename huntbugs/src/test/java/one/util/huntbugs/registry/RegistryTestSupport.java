@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.registry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.strobel.assembler.metadata.MethodBody;
+import com.strobel.assembler.metadata.MethodDefinition;
+import com.strobel.assembler.metadata.TypeDefinition;
+
+import one.util.huntbugs.analysis.Context;
+import one.util.huntbugs.flow.ClassFields;
+import one.util.huntbugs.flow.Fact;
+import one.util.huntbugs.flow.FactStore;
+import one.util.huntbugs.flow.ValuesFlow;
+import one.util.huntbugs.registry.DetectorRegistry.MethodFlow;
+
+/**
+ * Access to the package-private parts of the registries for the benchmarks
+ */
+public final class RegistryTestSupport {
+    private RegistryTestSupport() {
+    }
+
+    /**
+     * Feeds the type to all the type databases of the registry, see
+     * {@link DatabaseRegistry#visitType(TypeDefinition)}
+     */
+    public static void visitType(DatabaseRegistry registry, TypeDefinition td) {
+        registry.visitType(td);
+    }
+
+    /**
+     * Builds the flows of the methods of given type and its nested types the
+     * same way as {@link DetectorRegistry#analyzeClass(TypeDefinition)} does.
+     * The databases must be populated already.
+     * 
+     * @return action which runs the method and AST visitors of all the
+     *         detectors over the prepared methods, so it measures the visitor
+     *         dispatch only
+     */
+    public static Runnable prepareMethodVisitors(Context ctx, DetectorRegistry registry, TypeDefinition type) {
+        ClassData cdata = new ClassData(type);
+        ClassFields cf = new ClassFields(type, registry.fieldStatsDb.apply(type), registry.methodStatsDb.apply(type));
+        ClassContext[] ccs = createClassContexts(ctx, registry, cdata);
+        Set<Fact> classFacts = DetectorRegistry.getFacts(ccs, null);
+        FactStore classStore = new FactStore(null);
+        List<MethodDefinition> declMethods = new ArrayList<>(type.getDeclaredMethods());
+        registry.sortMethods(declMethods);
+        Map<MethodData, MethodFlow> flows = new LinkedHashMap<>();
+        for (MethodDefinition md : declMethods) {
+            if (!md.isSpecialName())
+                cf.clearCtorData();
+            MethodBody body = md.getBody();
+            if (body == null || body.getCodeSize() > ctx.getOptions().maxMethodSize || md.isSynthetic()
+                && md.getName().startsWith("lambda$"))
+                continue;
+            MethodFlow flow = md.isSpecialName() ? registry.buildFlow(type, md, body, cf, classFacts, classStore)
+                    : registry.buildFlow(type, md, body, cf, DetectorRegistry.getFacts(ccs, md), new FactStore(
+                        classStore));
+            if (flow.error != null)
+                continue;
+            FactStore prevStore = FactStore.activate(flow.store);
+            try {
+                if (classFacts.contains(Fact.BACKLINK) && !flow.skipped.contains(Fact.BACKLINK))
+                    ValuesFlow.annotateBackLinks(flow.cfg);
+            } finally {
+                FactStore.activate(prevStore);
+            }
+            MethodData mdata = new MethodData(md);
+            mdata.cfg = flow.cfg;
+            mdata.origParams = flow.origParams;
+            mdata.fullyAnalyzed = flow.skipped.isEmpty();
+            flows.put(mdata, flow);
+        }
+        List<Runnable> nested = new ArrayList<>();
+        for (TypeDefinition subType : type.getDeclaredTypes()) {
+            nested.add(prepareMethodVisitors(ctx, registry, subType));
+        }
+        return () -> {
+            // Detectors are created for every run, so no state is accumulated between the runs
+            ClassContext[] runCcs = createClassContexts(ctx, registry, cdata);
+            flows.forEach((mdata, flow) -> {
+                List<MethodContext> mcs = Stream.of(runCcs).map(cc -> cc.forMethod(mdata)).filter(
+                    MethodContext::visitMethod).collect(Collectors.toList());
+                if (!flow.skipped.isEmpty())
+                    mcs.forEach(mc -> mc.removeAstVisitors(flow.skipped));
+                FactStore prevStore = FactStore.activate(flow.store);
+                try {
+                    registry.visitChildren(flow.ast, null, mcs, mdata);
+                } finally {
+                    FactStore.activate(prevStore);
+                }
+                mcs.forEach(MethodContext::finalizeMethod);
+            });
+            nested.forEach(Runnable::run);
+        };
+    }
+
+    private static ClassContext[] createClassContexts(Context ctx, DetectorRegistry registry, ClassData cdata) {
+        return registry.detectors.stream().map(d -> new ClassContext(ctx, cdata, d)).filter(ClassContext::visitClass)
+                .toArray(ClassContext[]::new);
+    }
+}
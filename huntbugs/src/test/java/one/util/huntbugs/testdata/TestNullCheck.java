@@ -19,6 +19,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -289,4 +290,47 @@ public class TestNullCheck {
         }
         System.out.println(s.trim());
     }
+
+    private static StringBuilder create(String s) {
+        return new StringBuilder(s);
+    }
+
+    public StringBuilder createVirtual(String s) {
+        return new StringBuilder(s);
+    }
+
+    @SuppressWarnings("unused")
+    @AssertWarning("RedundantNullCheck")
+    public void testRedundantCall(String s) {
+        StringBuilder sb = create(s);
+        if (sb == null) {
+            System.out.println("Never");
+        }
+    }
+
+    @AssertNoWarning("*")
+    public void testVirtualCall(String s) {
+        StringBuilder sb = createVirtual(s);
+        if (sb == null) {
+            System.out.println("Never");
+        }
+    }
+
+    private static StringReader open(String s) {
+        return new StringReader(s);
+    }
+
+    @AssertNoWarning("*")
+    public int testTryWithResources(String s) throws IOException {
+        try (StringReader r = open(s)) {
+            return r.read();
+        }
+    }
+
+    @AssertNoWarning("*")
+    public int testTryWithResourcesNew(String s) throws IOException {
+        try (StringReader r = new StringReader(s)) {
+            return r.read();
+        }
+    }
 }
@@ -51,4 +51,30 @@ public class TestUselessVoidMethod {
     public void volatileSpinLoop() {
         while(v) {}
     }
+
+    private static int twice(int x) {
+        return x * 2;
+    }
+
+    private static int factorial(int x) {
+        return x <= 1 ? 1 : x * factorial(x - 1);
+    }
+
+    @AssertWarning("UselessVoidMethod")
+    public void uselessCall(int x) {
+        if (x > 0) {
+            twice(factorial(x));
+        }
+    }
+
+    private void spin() {
+        while(v) {}
+    }
+
+    @AssertNoWarning("UselessVoidMethod")
+    public void volatileSpinCall(int x) {
+        if (x > 0) {
+            spin();
+        }
+    }
 }
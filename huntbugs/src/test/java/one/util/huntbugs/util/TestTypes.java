@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 HuntBugs contributors
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package one.util.huntbugs.util;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.strobel.assembler.metadata.TypeDefinition;
+
+public class TestTypes {
+    @Test
+    public void testIsInstance() {
+        TypeDefinition arrayList = Types.lookupJdkType("java/util/ArrayList");
+        assertSame(arrayList, Types.lookupJdkType("java/util/ArrayList"));
+        assertTrue(Types.isInstance(arrayList, "java/util/Collection"));
+        assertTrue(Types.isInstance(arrayList, "java/util/AbstractCollection"));
+        assertTrue(Types.isInstance(arrayList, "java/io/Serializable"));
+        assertTrue(Types.isCollection(arrayList));
+        assertFalse(Types.isInstance(arrayList, "java/util/Map"));
+        assertFalse(Types.isStream(arrayList));
+        TypeDefinition intStream = Types.lookupJdkType("java/util/stream/IntStream");
+        assertTrue(Types.isBaseStream(intStream));
+        assertFalse(Types.isStream(intStream));
+        assertTrue(Types.isInstance(Types.lookupJdkType(TestTypes.class.getName().replace('.', '/')),
+            "java/lang/Object"));
+    }
+
+    @Test
+    public void testConcurrentLookup() {
+        String[] names = { "java/util/HashMap", "java/util/TreeMap", "java/util/LinkedList",
+                "java/util/concurrent/ConcurrentSkipListMap", "java/util/concurrent/CopyOnWriteArrayList" };
+        List<CompletableFuture<List<Boolean>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> IntStream.range(0, 100).mapToObj(
+                j -> Types.isInstance(Types.lookupJdkType(names[j % names.length]), "java/util/Map")).collect(
+                Collectors.toList())));
+        }
+        List<Boolean> expected = futures.get(0).join();
+        assertEquals(Boolean.TRUE, expected.get(0));
+        assertEquals(Boolean.FALSE, expected.get(2));
+        for (CompletableFuture<List<Boolean>> future : futures) {
+            assertEquals(expected, future.join());
+        }
+    }
+}